@@ -0,0 +1,202 @@
+package com.tunebrains.recyclerviewsample;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the sample data in rectangular tiles on a background executor.
+ * Tiles covering the visible window, plus one tile ahead in the scroll direction, are
+ * requested and kept in an LRU cache bounded by an approximate memory budget.
+ * Cells of tiles not loaded yet read as null and are bound as placeholders.
+ * Text layouts of the loaded cells are built on the same thread, so cells ahead of the
+ * viewport are bound with an already measured layout. Cached tiles are loaded again when
+ * the text width changes.
+ */
+class DataTileSource {
+    private static final int TILE_ROWS = 16;
+    private static final int TILE_COLUMNS = 8;
+    //Rough cost of one loaded cell: the Data object, its two strings and their text layouts
+    private static final int CELL_BYTES = 512;
+
+    interface Callback {
+        void onTileLoaded(int pFirstRow, int pFirstColumn, int pRowCount, int pColumnCount);
+    }
+
+    private final int mRowCount;
+    private final int mColumnCount;
+    private final Callback mCallback;
+    private final TextLayoutBuilder mTextLayoutBuilder;
+    private final LruCache<Long, MainActivity.Data[]> mTiles;
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    //Tiles queued or loading, touched on the main thread only
+    private final Set<Long> mPendingTiles = new HashSet<>();
+    //Wanted tile window, read by the loader to drop requests the user has scrolled past
+    private volatile int mWantedFirstTileRow;
+    private volatile int mWantedLastTileRow;
+    private volatile int mWantedFirstTileColumn;
+    private volatile int mWantedLastTileColumn;
+    private boolean mClosed;
+
+    DataTileSource(int pRowCount, int pColumnCount, int pMemoryBudgetBytes, TextLayoutBuilder pTextLayoutBuilder,
+                   Callback pCallback) {
+        mRowCount = pRowCount;
+        mColumnCount = pColumnCount;
+        mTextLayoutBuilder = pTextLayoutBuilder;
+        mCallback = pCallback;
+        mTiles = new LruCache<Long, MainActivity.Data[]>(pMemoryBudgetBytes) {
+            @Override
+            protected int sizeOf(Long key, MainActivity.Data[] value) {
+                return value.length * CELL_BYTES;
+            }
+        };
+        mTextLayoutBuilder.setOnWidthChangedListener(new TextLayoutBuilder.OnWidthChangedListener() {
+            @Override
+            public void onWidthChanged() {
+                reloadTiles();
+            }
+        });
+    }
+
+    int getRowCount() {
+        return mRowCount;
+    }
+
+    int getColumnCount() {
+        return mColumnCount;
+    }
+
+    /**
+     * @return the cell data, null while its tile is loading
+     */
+    MainActivity.Data getData(int pRow, int pColumn) {
+        MainActivity.Data[] tile = mTiles.get(tileKey(pRow / TILE_ROWS, pColumn / TILE_COLUMNS));
+        if (tile == null) {
+            return null;
+        }
+        return tile[(pRow % TILE_ROWS) * TILE_COLUMNS + pColumn % TILE_COLUMNS];
+    }
+
+    /**
+     * Requests the tiles of the window, last row and column inclusive, and one tile
+     * beyond the edges the window is moving towards.
+     */
+    void onWindowChanged(int pFirstRow, int pLastRow, int pFirstColumn, int pLastColumn, int pDx, int pDy) {
+        if (mClosed || pFirstRow < 0 || pFirstColumn < 0) {
+            return;
+        }
+        int firstTileRow = pFirstRow / TILE_ROWS;
+        int lastTileRow = pLastRow / TILE_ROWS;
+        int firstTileColumn = pFirstColumn / TILE_COLUMNS;
+        int lastTileColumn = pLastColumn / TILE_COLUMNS;
+        if (pDy > 0) {
+            lastTileRow++;
+        } else if (pDy < 0) {
+            firstTileRow--;
+        }
+        if (pDx > 0) {
+            lastTileColumn++;
+        } else if (pDx < 0) {
+            firstTileColumn--;
+        }
+        mWantedFirstTileRow = firstTileRow = Math.max(0, firstTileRow);
+        mWantedLastTileRow = lastTileRow = Math.min((mRowCount - 1) / TILE_ROWS, lastTileRow);
+        mWantedFirstTileColumn = firstTileColumn = Math.max(0, firstTileColumn);
+        mWantedLastTileColumn = lastTileColumn = Math.min((mColumnCount - 1) / TILE_COLUMNS, lastTileColumn);
+        for (int tileRow = firstTileRow; tileRow <= lastTileRow; tileRow++) {
+            for (int tileColumn = firstTileColumn; tileColumn <= lastTileColumn; tileColumn++) {
+                requestTile(tileRow, tileColumn);
+            }
+        }
+    }
+
+    void close() {
+        mClosed = true;
+        mExecutor.shutdownNow();
+        mMainHandler.removeCallbacksAndMessages(null);
+        mTiles.evictAll();
+    }
+
+    private void requestTile(int pTileRow, int pTileColumn) {
+        final Long key = tileKey(pTileRow, pTileColumn);
+        if (mTiles.get(key) != null || !mPendingTiles.add(key)) {
+            return;
+        }
+        startLoading(key, pTileRow, pTileColumn);
+    }
+
+    /**
+     * Loads the cached tiles again, their text layouts were built for another width. Their cells
+     * are bound with text laid out on the main thread until the new tiles replace them.
+     * Tiles already loading pick the new width up for the cells they have not built yet.
+     */
+    private void reloadTiles() {
+        if (mClosed) {
+            return;
+        }
+        for (Long key : mTiles.snapshot().keySet()) {
+            if (mPendingTiles.add(key)) {
+                startLoading(key, (int) (key >> 32), (int) key.longValue());
+            }
+        }
+    }
+
+    private void startLoading(final Long key, final int pTileRow, final int pTileColumn) {
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final MainActivity.Data[] tile = isWanted(pTileRow, pTileColumn) ? loadTile(pTileRow, pTileColumn) : null;
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        mPendingTiles.remove(key);
+                        if (mClosed) {
+                            return;
+                        }
+                        if (tile == null) {
+                            //Scrolled past, a stale tile being reloaded goes too
+                            mTiles.remove(key);
+                            return;
+                        }
+                        mTiles.put(key, tile);
+                        int firstRow = pTileRow * TILE_ROWS;
+                        int firstColumn = pTileColumn * TILE_COLUMNS;
+                        mCallback.onTileLoaded(firstRow, firstColumn, Math.min(TILE_ROWS, mRowCount - firstRow),
+                                Math.min(TILE_COLUMNS, mColumnCount - firstColumn));
+                    }
+                });
+            }
+        });
+    }
+
+    private boolean isWanted(int pTileRow, int pTileColumn) {
+        return pTileRow >= mWantedFirstTileRow && pTileRow <= mWantedLastTileRow
+                && pTileColumn >= mWantedFirstTileColumn && pTileColumn <= mWantedLastTileColumn;
+    }
+
+    private MainActivity.Data[] loadTile(int pTileRow, int pTileColumn) {
+        MainActivity.Data[] tile = new MainActivity.Data[TILE_ROWS * TILE_COLUMNS];
+        final int lastRow = Math.min(mRowCount, (pTileRow + 1) * TILE_ROWS);
+        final int lastColumn = Math.min(mColumnCount, (pTileColumn + 1) * TILE_COLUMNS);
+        for (int row = pTileRow * TILE_ROWS; row < lastRow; row++) {
+            for (int column = pTileColumn * TILE_COLUMNS; column < lastColumn; column++) {
+                long position = (long) row * mColumnCount + column;
+                MainActivity.Data data = new MainActivity.Data(
+                        String.format("Title %d", position), String.format("Subtitle %d", position));
+                mTextLayoutBuilder.buildLayouts(data);
+                tile[(row % TILE_ROWS) * TILE_COLUMNS + column % TILE_COLUMNS] = data;
+            }
+        }
+        return tile;
+    }
+
+    private static Long tileKey(int pTileRow, int pTileColumn) {
+        return ((long) pTileRow << 32) | (pTileColumn & 0xffffffffL);
+    }
+}
@@ -1,31 +1,38 @@
 package com.tunebrains.recyclerviewsample;
 
+import android.graphics.Color;
 import android.os.Bundle;
 import android.support.v7.app.ActionBarActivity;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
+import android.text.Layout;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuItem;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.TextView;
 
-import com.bignerdranch.android.multiselector.MultiSelector;
-import com.bignerdranch.android.multiselector.SwappingHolder;
+import com.tunebrains.recyclertwowaygrid.GridFastScroller;
+import com.tunebrains.recyclertwowaygrid.GridSelection;
+import com.tunebrains.recyclertwowaygrid.TwoWayGridAdapter;
 import com.tunebrains.recyclertwowaygrid.TwoWayGridLayoutManager;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import butterknife.ButterKnife;
 import butterknife.InjectView;
 
 
 public class MainActivity extends ActionBarActivity {
+    private static final int ROW_COUNT = 100000;
+    private static final int COLUMN_COUNT = 10000;
+    private static final int TILE_CACHE_BYTES = 4 * 1024 * 1024;
+    //Below this zoom cells show a color swatch instead of their texts
+    private static final float SWATCH_ZOOM = 0.5f;
     @InjectView(R.id.recycler_view)
     RecyclerView mRecyclerView;
-    private MultiSelector mMultiSelector = new MultiSelector();
+    private final GridSelection mSelection = new GridSelection(ROW_COUNT, COLUMN_COUNT);
+    private DataTileSource mTileSource;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -41,21 +48,106 @@ public class MainActivity extends ActionBarActivity {
         mRecyclerView.setHasFixedSize(true);
 
         // use a linear layout manager
-        TwoWayGridLayoutManager mLayoutManager = new TwoWayGridLayoutManager();
-        mRecyclerView.setLayoutManager(mLayoutManager);
+        mRecyclerView.setLayoutManager(createGridLayoutManager());
+        initPinchZoom();
+        new GridFastScroller(getResources().getColor(R.color.fast_scroller_thumb),
+                getResources().getDimensionPixelSize(R.dimen.fast_scroller_thickness),
+                getResources().getDimensionPixelSize(R.dimen.fast_scroller_min_thumb_length))
+                .attachToRecyclerView(mRecyclerView);
 
-        mMultiSelector.setSelectable(true);
         // specify an adapter (see also next example)
-        DataSetAdapter mAdapter = new DataSetAdapter(getLayoutInflater(), createDataset(), mMultiSelector);
+        TextLayoutBuilder textLayoutBuilder = new TextLayoutBuilder();
+        final DataSetAdapter mAdapter = new DataSetAdapter(getLayoutInflater(), textLayoutBuilder);
+        mTileSource = new DataTileSource(ROW_COUNT, COLUMN_COUNT, TILE_CACHE_BYTES, textLayoutBuilder,
+                new DataTileSource.Callback() {
+                    @Override
+                    public void onTileLoaded(int pFirstRow, int pFirstColumn, int pRowCount, int pColumnCount) {
+                        mAdapter.notifyCellRangeChanged(pFirstRow, pFirstColumn, pRowCount, pColumnCount);
+                    }
+                });
+        mAdapter.setTileSource(mTileSource);
+        mAdapter.setSelection(mSelection);
         mRecyclerView.setAdapter(mAdapter);
+        // onScrolled is also dispatched with 0, 0 after each layout, which loads the first tiles
+        mRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                requestVisibleTiles(dx, dy);
+            }
+        });
+    }
+
+    private TwoWayGridLayoutManager createGridLayoutManager() {
+        TwoWayGridLayoutManager layoutManager = new TwoWayGridLayoutManager();
+        layoutManager.setDetailZoomThresholds(SWATCH_ZOOM);
+        return layoutManager;
     }
 
-    private List<Data> createDataset() {
-        List<Data> lDatas = new ArrayList<>(100);
-        for (int i = 0; i < 100; ++i) {
-            lDatas.add(new Data(String.format("Title %d", i), String.format("Subtitle %d", i)));
+    /**
+     * A pinch only transforms the attached cells, the grid is laid out again once the fingers lift.
+     */
+    private void initPinchZoom() {
+        final ScaleGestureDetector scaleDetector = new ScaleGestureDetector(this,
+                new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+                    @Override
+                    public boolean onScale(ScaleGestureDetector detector) {
+                        if (!(mRecyclerView.getLayoutManager() instanceof TwoWayGridLayoutManager)) {
+                            return false;
+                        }
+                        ((TwoWayGridLayoutManager) mRecyclerView.getLayoutManager())
+                                .zoomBy(detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+                        return true;
+                    }
+
+                    @Override
+                    public void onScaleEnd(ScaleGestureDetector detector) {
+                        if (mRecyclerView.getLayoutManager() instanceof TwoWayGridLayoutManager) {
+                            ((TwoWayGridLayoutManager) mRecyclerView.getLayoutManager()).settleZoom();
+                        }
+                    }
+                });
+        mRecyclerView.addOnItemTouchListener(new RecyclerView.SimpleOnItemTouchListener() {
+            @Override
+            public boolean onInterceptTouchEvent(RecyclerView rv, MotionEvent e) {
+                scaleDetector.onTouchEvent(e);
+                //Keep the gesture while pinching so the grid does not scroll under the fingers
+                return scaleDetector.isInProgress();
+            }
+
+            @Override
+            public void onTouchEvent(RecyclerView rv, MotionEvent e) {
+                scaleDetector.onTouchEvent(e);
+            }
+        });
+    }
+
+    private void requestVisibleTiles(int pDx, int pDy) {
+        RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+        if (layoutManager instanceof TwoWayGridLayoutManager) {
+            TwoWayGridLayoutManager gridLayoutManager = (TwoWayGridLayoutManager) layoutManager;
+            mTileSource.onWindowChanged(gridLayoutManager.findFirstVisibleRow(), gridLayoutManager.findLastVisibleRow(),
+                    gridLayoutManager.findFirstVisibleColumn(), gridLayoutManager.findLastVisibleColumn(), pDx, pDy);
+        } else if (layoutManager instanceof LinearLayoutManager) {
+            LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+            int first = linearLayoutManager.findFirstVisibleItemPosition();
+            int last = linearLayoutManager.findLastVisibleItemPosition();
+            if (first == RecyclerView.NO_POSITION) {
+                return;
+            }
+            //A list walks the grid row by row, scrolling it moves along the columns of a row
+            if (first / COLUMN_COUNT == last / COLUMN_COUNT) {
+                mTileSource.onWindowChanged(first / COLUMN_COUNT, last / COLUMN_COUNT,
+                        first % COLUMN_COUNT, last % COLUMN_COUNT, pDy, 0);
+            } else {
+                mTileSource.onWindowChanged(first / COLUMN_COUNT, last / COLUMN_COUNT, 0, COLUMN_COUNT - 1, 0, pDy);
+            }
         }
-        return lDatas;
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mTileSource.close();
     }
 
     @Override
@@ -73,6 +165,12 @@ public class MainActivity extends ActionBarActivity {
             case R.id.simple:
                 initSimpleRecyclerView();
                 return true;
+            case R.id.select_all:
+                mSelection.selectAll();
+                return true;
+            case R.id.clear_selection:
+                mSelection.clear();
+                return true;
         }
         return false;
     }
@@ -82,15 +180,17 @@ public class MainActivity extends ActionBarActivity {
     }
 
     private void initCustomRecyclerView() {
-        mRecyclerView.setLayoutManager(new TwoWayGridLayoutManager());
+        mRecyclerView.setLayoutManager(createGridLayoutManager());
     }
 
-    private static class Data {
+    static class Data {
         private final String mTitle;
         private final String mSubTitle;
-        private boolean mChecked;
+        //Built off the main thread, null until the cell width is known
+        private Layout mTitleLayout;
+        private Layout mSubTitleLayout;
 
-        private Data(String pTitle, String pSubTitle) {
+        Data(String pTitle, String pSubTitle) {
             mTitle = pTitle;
             mSubTitle = pSubTitle;
         }
@@ -103,28 +203,34 @@ public class MainActivity extends ActionBarActivity {
             return mTitle;
         }
 
-        public boolean isChecked() {
-            return mChecked;
+        public Layout getTitleLayout() {
+            return mTitleLayout;
+        }
+
+        public Layout getSubTitleLayout() {
+            return mSubTitleLayout;
         }
 
-        public void setChecked(boolean pChecked) {
-            mChecked = pChecked;
+        void setTextLayouts(Layout pTitleLayout, Layout pSubTitleLayout) {
+            mTitleLayout = pTitleLayout;
+            mSubTitleLayout = pSubTitleLayout;
         }
     }
 
-    static class DataViewHolder extends SwappingHolder implements View.OnClickListener, View.OnLongClickListener {
+    static class DataViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener,
+            View.OnLongClickListener {
 
-        private final MultiSelector mMultiSelector;
+        private final GridSelection mSelection;
         @InjectView(R.id.title)
-        TextView mTitle;
+        PrecomputedTextView mTitle;
 
         @InjectView(R.id.sub_title)
-        TextView mSubTitle;
+        PrecomputedTextView mSubTitle;
 
 
-        public DataViewHolder(View itemView, MultiSelector pMultiSelector) {
-            super(itemView, pMultiSelector);
-            mMultiSelector = pMultiSelector;
+        public DataViewHolder(View itemView, GridSelection pSelection) {
+            super(itemView);
+            mSelection = pSelection;
             ButterKnife.inject(this, itemView);
             bindClick();
         }
@@ -135,57 +241,162 @@ public class MainActivity extends ActionBarActivity {
             itemView.setLongClickable(true);
         }
 
+        public void bindSelection(boolean pSelected) {
+            itemView.setActivated(pSelected);
+        }
+
         public void bind(Data pD) {
+            mTitle.setTextLayout(null);
+            mSubTitle.setTextLayout(null);
             mTitle.setText(pD.getTitle());
             mSubTitle.setText(pD.getSubTitle());
         }
 
+        /**
+         * Attaches layouts measured off the main thread, no text layout happens here.
+         */
+        public void bindPrecomputed(Data pD) {
+            mTitle.setTextLayout(pD.getTitleLayout());
+            mSubTitle.setTextLayout(pD.getSubTitleLayout());
+        }
+
+        public void bindPlaceholder() {
+            mTitle.setTextLayout(null);
+            mSubTitle.setTextLayout(null);
+            mTitle.setText(R.string.loading);
+            mSubTitle.setText(null);
+        }
+
+        /**
+         * @return width available to the text once the cell has been laid out, 0 before
+         */
+        public int getTextWidth() {
+            return Math.max(0, mTitle.getWidth() - mTitle.getPaddingLeft() - mTitle.getPaddingRight());
+        }
+
         @Override
         public void onClick(View v) {
-            if (mMultiSelector.tapSelection(this)) {
-                // Selection is on, so tapSelection() toggled item selection.
-            } else {
-                // Selection is off; handle normal item click here.
+            //Taps toggle cells once something is selected, the adapter rebinds the flipped cell
+            int position = getAdapterPosition();
+            if (position != RecyclerView.NO_POSITION && mSelection.getSelectedCount() > 0) {
+                mSelection.toggle(position / mSelection.getColumnCount(), position % mSelection.getColumnCount());
             }
-
         }
 
         @Override
         public boolean onLongClick(View v) {
-            mMultiSelector.setSelected(this, true);
+            int position = getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                return false;
+            }
+            mSelection.toggle(position / mSelection.getColumnCount(), position % mSelection.getColumnCount());
             return true;
         }
     }
 
-    static class DataSetAdapter extends RecyclerView.Adapter<DataViewHolder> {
-        private final List<Data> mDataList;
-        private MultiSelector mMultiSelector;
+    static class SwatchViewHolder extends RecyclerView.ViewHolder {
+        private static final int PLACEHOLDER_COLOR = Color.LTGRAY;
+        private static final int SELECTED_COLOR = Color.DKGRAY;
+        private static final int[] COLORS = new int[16];
+
+        static {
+            for (int i = 0; i < COLORS.length; i++) {
+                COLORS[i] = Color.HSVToColor(new float[]{i * 360f / COLORS.length, 0.35f, 0.95f});
+            }
+        }
+
+        public SwatchViewHolder(View itemView) {
+            super(itemView);
+        }
+
+        public void bind(Data pD, boolean pSelected) {
+            if (pSelected) {
+                itemView.setBackgroundColor(SELECTED_COLOR);
+                return;
+            }
+            itemView.setBackgroundColor(pD == null ? PLACEHOLDER_COLOR
+                    : COLORS[(pD.getTitle().hashCode() & 0x7fffffff) % COLORS.length]);
+        }
+    }
+
+    static class DataSetAdapter extends TwoWayGridAdapter<RecyclerView.ViewHolder> {
+        private static final int TYPE_TEXT = 0;
+        private static final int TYPE_SWATCH = 1;
+        private DataTileSource mTileSource;
         private LayoutInflater mLayoutInflater;
+        private final TextLayoutBuilder mTextLayoutBuilder;
 
-        private DataSetAdapter(LayoutInflater pLayoutInflater, List<Data> pDataList, MultiSelector pMultiSelector) {
+        private DataSetAdapter(LayoutInflater pLayoutInflater, TextLayoutBuilder pTextLayoutBuilder) {
             mLayoutInflater = pLayoutInflater;
-            mDataList = pDataList;
+            mTextLayoutBuilder = pTextLayoutBuilder;
+        }
 
-            mMultiSelector = pMultiSelector;
+        public void setTileSource(DataTileSource pTileSource) {
+            mTileSource = pTileSource;
+            notifyDataSetChanged();
         }
 
         @Override
-        public DataViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            if (viewType == TYPE_SWATCH) {
+                return new SwatchViewHolder(mLayoutInflater.inflate(R.layout.list_item_swatch, parent, false));
+            }
             View content = mLayoutInflater.inflate(R.layout.list_item, parent, false);
 
-            return new DataViewHolder(content, mMultiSelector);
+            DataViewHolder holder = new DataViewHolder(content, getSelection());
+            if (!mTextLayoutBuilder.hasPaints()) {
+                mTextLayoutBuilder.setPaints(holder.mTitle.getPaint(), holder.mSubTitle.getPaint());
+            }
+            return holder;
+        }
+
+        @Override
+        public int getCellViewType(int pRow, int pColumn) {
+            //Zoomed out past the swatch threshold the texts would not be readable anyway
+            return getDetailLevel() == 0 ? TYPE_TEXT : TYPE_SWATCH;
+        }
+
+        @Override
+        public void onBindCell(RecyclerView.ViewHolder pHolder, int row, int column) {
+            if (pHolder instanceof SwatchViewHolder) {
+                ((SwatchViewHolder) pHolder).bind(mTileSource.getData(row, column), isCellSelected(row, column));
+                return;
+            }
+            DataViewHolder holder = (DataViewHolder) pHolder;
+            holder.bindSelection(isCellSelected(row, column));
+            //A laid out cell tells the loader the width to build text layouts for, a new one reloads the tiles
+            int textWidth = holder.getTextWidth();
+            if (textWidth > 0) {
+                mTextLayoutBuilder.setWidth(textWidth);
+            }
+            Data d = mTileSource.getData(row, column);
+            if (d == null) {
+                //Tile still loading, it is rebound once it arrives
+                holder.bindPlaceholder();
+            } else if (d.getTitleLayout() != null && d.getTitleLayout().getWidth() == mTextLayoutBuilder.getWidth()) {
+                holder.bindPrecomputed(d);
+            } else {
+                holder.bind(d);
+            }
         }
 
         @Override
-        public void onBindViewHolder(DataViewHolder holder, int position) {
-            Data d = mDataList.get(position);
-            holder.bind(d);
+        public void onBindCellSelection(RecyclerView.ViewHolder pHolder, int pRow, int pColumn, boolean pSelected) {
+            if (pHolder instanceof SwatchViewHolder) {
+                ((SwatchViewHolder) pHolder).bind(mTileSource.getData(pRow, pColumn), pSelected);
+            } else {
+                ((DataViewHolder) pHolder).bindSelection(pSelected);
+            }
+        }
 
+        @Override
+        public int getRowCount() {
+            return mTileSource == null ? 0 : mTileSource.getRowCount();
         }
 
         @Override
-        public int getItemCount() {
-            return mDataList.size();
+        public int getColumnCount() {
+            return mTileSource == null ? 1 : mTileSource.getColumnCount();
         }
     }
 }
@@ -0,0 +1,71 @@
+package com.tunebrains.recyclerviewsample;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.text.Layout;
+import android.util.AttributeSet;
+import android.widget.TextView;
+
+/**
+ * TextView that can draw a {@link Layout} built ahead of time off the main thread,
+ * so binding it skips text measurement and layout.
+ */
+public class PrecomputedTextView extends TextView {
+    private Layout mTextLayout;
+
+    public PrecomputedTextView(Context context) {
+        super(context);
+    }
+
+    public PrecomputedTextView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public PrecomputedTextView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    /**
+     * Draws the layout instead of the text. Pass null before setting text the usual way.
+     */
+    public void setTextLayout(Layout pLayout) {
+        final Layout previous = mTextLayout;
+        if (pLayout == previous) {
+            return;
+        }
+        //A layout replacing another one finds the text cleared already
+        if (pLayout != null && previous == null && getText().length() != 0) {
+            setText(null);
+        }
+        mTextLayout = pLayout;
+        //Cells of a column share a width, rebinding them rarely changes the measured size
+        if (previous == null || pLayout == null || pLayout.getWidth() != previous.getWidth()
+                || pLayout.getHeight() != previous.getHeight()) {
+            requestLayout();
+        }
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (mTextLayout == null) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            return;
+        }
+        int width = resolveSize(mTextLayout.getWidth() + getPaddingLeft() + getPaddingRight(), widthMeasureSpec);
+        int height = resolveSize(mTextLayout.getHeight() + getPaddingTop() + getPaddingBottom(), heightMeasureSpec);
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mTextLayout == null) {
+            super.onDraw(canvas);
+            return;
+        }
+        canvas.save();
+        canvas.translate(getPaddingLeft(), getPaddingTop());
+        mTextLayout.draw(canvas);
+        canvas.restore();
+    }
+}
@@ -0,0 +1,73 @@
+package com.tunebrains.recyclerviewsample;
+
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+/**
+ * Builds the text layouts of the sample cells on the tile loading thread.
+ * Paints are snapshots taken from the cell TextViews and the width is the text width
+ * of a laid out cell. Until both are known tiles load without layouts.
+ */
+class TextLayoutBuilder {
+    interface OnWidthChangedListener {
+        /**
+         * Called on the main thread, layouts built before are stale.
+         */
+        void onWidthChanged();
+    }
+
+    private volatile TextPaint mTitlePaint;
+    private volatile TextPaint mSubTitlePaint;
+    private volatile int mWidth;
+    private OnWidthChangedListener mOnWidthChangedListener;
+
+    boolean hasPaints() {
+        return mTitlePaint != null;
+    }
+
+    /**
+     * Copies the paints, the originals stay owned by their views on the main thread.
+     */
+    void setPaints(TextPaint pTitlePaint, TextPaint pSubTitlePaint) {
+        mSubTitlePaint = new TextPaint(pSubTitlePaint);
+        mTitlePaint = new TextPaint(pTitlePaint);
+    }
+
+    void setOnWidthChangedListener(OnWidthChangedListener pListener) {
+        mOnWidthChangedListener = pListener;
+    }
+
+    /**
+     * Called on the main thread. A new width invalidates every layout built so far, the
+     * listener rebuilds the ones still cached.
+     */
+    void setWidth(int pWidth) {
+        if (pWidth == mWidth) {
+            return;
+        }
+        mWidth = pWidth;
+        if (mOnWidthChangedListener != null) {
+            mOnWidthChangedListener.onWidthChanged();
+        }
+    }
+
+    int getWidth() {
+        return mWidth;
+    }
+
+    void buildLayouts(MainActivity.Data pData) {
+        final int width = mWidth;
+        final TextPaint titlePaint = mTitlePaint;
+        final TextPaint subTitlePaint = mSubTitlePaint;
+        if (width <= 0 || titlePaint == null) {
+            return;
+        }
+        pData.setTextLayouts(createLayout(pData.getTitle(), titlePaint, width),
+                createLayout(pData.getSubTitle(), subTitlePaint, width));
+    }
+
+    private static Layout createLayout(CharSequence pText, TextPaint pPaint, int pWidth) {
+        return new StaticLayout(pText, pPaint, pWidth, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, true);
+    }
+}
@@ -0,0 +1,73 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offset to row or column lookups and back, the math behind every window computation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AxisSizeIndexBenchmark {
+    private static final int LOOKUP_COUNT = 1024;
+
+    @Param({"1000", "100000"})
+    public int count;
+
+    @Param({"true", "false"})
+    public boolean uniform;
+
+    private final AxisSizeIndex mIndex = new AxisSizeIndex();
+    private final int[] mIndices = new int[LOOKUP_COUNT];
+    private final int[] mOffsets = new int[LOOKUP_COUNT];
+    private int mNext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (uniform) {
+            mIndex.setUniform(count, BenchmarkGrid.CELL_HEIGHT);
+        } else {
+            mIndex.setSizes(count, new TwoWayGridLayoutManager.SizeLookup() {
+                @Override
+                public int getSize(int pIndex) {
+                    return BenchmarkGrid.CELL_HEIGHT / 2 + pIndex % BenchmarkGrid.CELL_HEIGHT;
+                }
+            });
+        }
+        final Random random = new Random(42);
+        for (int i = 0; i < LOOKUP_COUNT; i++) {
+            mIndices[i] = random.nextInt(count);
+            mOffsets[i] = random.nextInt(mIndex.getTotalSize());
+        }
+    }
+
+    @Benchmark
+    public int offsetOf() {
+        mNext = (mNext + 1) & (LOOKUP_COUNT - 1);
+        return mIndex.offsetOf(mIndices[mNext]);
+    }
+
+    @Benchmark
+    public int indexAt() {
+        mNext = (mNext + 1) & (LOOKUP_COUNT - 1);
+        return mIndex.indexAt(mOffsets[mNext]);
+    }
+
+    @Benchmark
+    public int updateSize() {
+        mNext = (mNext + 1) & (LOOKUP_COUNT - 1);
+        mIndex.updateSize(mIndices[mNext], BenchmarkGrid.CELL_HEIGHT + (mNext & 7));
+        return mIndex.getTotalSize();
+    }
+}
@@ -0,0 +1,72 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full layout passes and scroll steps of IntervalLayoutManager over program guides with
+ * up to thousands of programs per row. A step costs two binary searches per visible row
+ * plus the programs entering the window, it should not grow with the length of the rows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IntervalLayoutBenchmark {
+    @Param({"100x100", "500x5000"})
+    public String guideSize;
+
+    @Param({"1080x1920", "1920x1080"})
+    public String viewportSize;
+
+    private BenchmarkGuide mGuide;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mGuide = new BenchmarkGuide(guideSize, viewportSize);
+        mGuide.scrollToCenter();
+    }
+
+    /**
+     * Reads the visible rows again and rebuilds the window, as after a data set change.
+     */
+    @Benchmark
+    public int fullLayout() {
+        mGuide.mAdapter.notifyIntervalsChanged();
+        mGuide.mLayoutManager.onItemsChanged(mGuide.mRecyclerView);
+        mGuide.mRecyclerView.dispatchLayout();
+        return mGuide.mLayoutManager.getChildCount();
+    }
+
+    @Benchmark
+    public int scrollRightAndLeft() {
+        mGuide.mRecyclerView.scrollBy(BenchmarkGuide.MAX_DURATION, 0);
+        mGuide.mRecyclerView.scrollBy(-BenchmarkGuide.MAX_DURATION, 0);
+        return mGuide.mLayoutManager.getChildCount();
+    }
+
+    @Benchmark
+    public int scrollDownAndUp() {
+        mGuide.mRecyclerView.scrollBy(0, BenchmarkGuide.ROW_HEIGHT);
+        mGuide.mRecyclerView.scrollBy(0, -BenchmarkGuide.ROW_HEIGHT);
+        return mGuide.mLayoutManager.getChildCount();
+    }
+
+    /**
+     * Sub-program steps only move attached views, the searches find the same ranges.
+     */
+    @Benchmark
+    public int scrollWithinProgram() {
+        mGuide.mRecyclerView.scrollBy(1, 0);
+        mGuide.mRecyclerView.scrollBy(-1, 0);
+        return mGuide.mLayoutManager.getChildCount();
+    }
+}
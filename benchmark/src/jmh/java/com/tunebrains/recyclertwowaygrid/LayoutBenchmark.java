@@ -0,0 +1,78 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full layout passes and scroll steps of TwoWayGridLayoutManager on a headless host.
+ * Every scroll step moves by exactly one cell and back, so each invocation fills and recycles
+ * one row or column on both edges of the axis.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LayoutBenchmark {
+    @Param({"100x100", "1000x1000", "100000x10000"})
+    public String gridSize;
+
+    @Param({"480x800", "1080x1920", "2560x1600"})
+    public String viewportSize;
+
+    private BenchmarkGrid mGrid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mGrid = new BenchmarkGrid(gridSize, viewportSize);
+        mGrid.scrollToCenter();
+    }
+
+    /**
+     * Rebuilds the size index and the window from scratch, as after a data set change.
+     */
+    @Benchmark
+    public int fullLayout() {
+        mGrid.mLayoutManager.onItemsChanged(mGrid.mRecyclerView);
+        mGrid.mRecyclerView.dispatchLayout();
+        return mGrid.mLayoutManager.getChildCount();
+    }
+
+    @Benchmark
+    public int scrollDownAndUp() {
+        mGrid.mRecyclerView.scrollBy(0, BenchmarkGrid.CELL_HEIGHT);
+        mGrid.mRecyclerView.scrollBy(0, -BenchmarkGrid.CELL_HEIGHT);
+        return mGrid.mLayoutManager.getChildCount();
+    }
+
+    @Benchmark
+    public int scrollRightAndLeft() {
+        mGrid.mRecyclerView.scrollBy(BenchmarkGrid.CELL_WIDTH, 0);
+        mGrid.mRecyclerView.scrollBy(-BenchmarkGrid.CELL_WIDTH, 0);
+        return mGrid.mLayoutManager.getChildCount();
+    }
+
+    @Benchmark
+    public int scrollDiagonal() {
+        mGrid.mRecyclerView.scrollBy(BenchmarkGrid.CELL_WIDTH, BenchmarkGrid.CELL_HEIGHT);
+        mGrid.mRecyclerView.scrollBy(-BenchmarkGrid.CELL_WIDTH, -BenchmarkGrid.CELL_HEIGHT);
+        return mGrid.mLayoutManager.getChildCount();
+    }
+
+    /**
+     * Sub-cell steps only move attached views, no cell enters or leaves the window.
+     */
+    @Benchmark
+    public int scrollWithinCell() {
+        mGrid.mRecyclerView.scrollBy(1, 1);
+        mGrid.mRecyclerView.scrollBy(-1, -1);
+        return mGrid.mLayoutManager.getChildCount();
+    }
+}
@@ -0,0 +1,68 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Position to cell mapping with spanning cells, and the re-placement after an adapter change.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpanIndexBenchmark {
+    private static final int COLUMN_COUNT = 12;
+    private static final TwoWayGridLayoutManager.SpanLookup SPANS = new TwoWayGridLayoutManager.SpanLookup() {
+        @Override
+        public int getRowSpan(int pPosition) {
+            return pPosition % 7 == 0 ? 2 : 1;
+        }
+
+        @Override
+        public int getColumnSpan(int pPosition) {
+            return pPosition % 5 == 0 ? 3 : 1;
+        }
+    };
+
+    @Param({"1000", "100000"})
+    public int itemCount;
+
+    private final SpanIndex mIndex = new SpanIndex();
+    private int mNext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mIndex.reset(COLUMN_COUNT);
+        mIndex.ensurePlaced(itemCount, SPANS);
+    }
+
+    @Benchmark
+    public int positionAt() {
+        mNext = (mNext + 7919) % (mIndex.getRowCount() * COLUMN_COUNT);
+        return mIndex.positionAt(mNext / COLUMN_COUNT, mNext % COLUMN_COUNT);
+    }
+
+    @Benchmark
+    public int rowOfPosition() {
+        mNext = (mNext + 7919) % itemCount;
+        return mIndex.getRow(mNext);
+    }
+
+    /**
+     * Change near the end of the adapter, only the tail is placed again.
+     */
+    @Benchmark
+    public int replaceTail() {
+        mIndex.invalidateFrom(itemCount - 100);
+        mIndex.ensurePlaced(itemCount, SPANS);
+        return mIndex.getRowCount();
+    }
+}
@@ -0,0 +1,7 @@
+package android.content;
+
+/**
+ * Fake host: stands in for the framework class so the grid code runs on a plain JVM.
+ */
+public class Context {
+}
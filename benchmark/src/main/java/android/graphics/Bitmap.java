@@ -0,0 +1,57 @@
+package android.graphics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fake host: a bitmap without pixels, only its size, the memory it would take and
+ * the draws of canvases on it.
+ */
+public final class Bitmap {
+    public enum Config {
+        ARGB_8888(4), RGB_565(2);
+
+        final int mBytesPerPixel;
+
+        Config(int bytesPerPixel) {
+            mBytesPerPixel = bytesPerPixel;
+        }
+    }
+
+    private final int mWidth;
+    private final int mHeight;
+    private final Config mConfig;
+    final List<Canvas.Draw> mDraws = new ArrayList<>();
+
+    private Bitmap(int width, int height, Config config) {
+        mWidth = width;
+        mHeight = height;
+        mConfig = config;
+    }
+
+    public static Bitmap createBitmap(int width, int height, Config config) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width and height must be > 0");
+        }
+        return new Bitmap(width, height, config);
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public int getByteCount() {
+        return mWidth * mHeight * mConfig.mBytesPerPixel;
+    }
+
+    public List<Canvas.Draw> getDraws() {
+        return mDraws;
+    }
+
+    public void recycle() {
+    }
+}
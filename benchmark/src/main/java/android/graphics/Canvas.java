@@ -0,0 +1,91 @@
+package android.graphics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fake host: nothing is rasterized. Translations and scales are tracked so that views, bitmaps and
+ * rectangles drawn are recorded at their bounds in the target, the bitmap backing the canvas or the screen.
+ */
+public class Canvas {
+    private final List<Draw> mDraws;
+    //Translation and scale, saved as groups of four
+    private final List<Float> mSaved = new ArrayList<>();
+    private float mTranslateX;
+    private float mTranslateY;
+    private float mScaleX = 1f;
+    private float mScaleY = 1f;
+
+    /**
+     * Something drawn, a View, a Bitmap or the Paint of a rectangle, and where it ended up.
+     */
+    public static final class Draw {
+        public final Object target;
+        public final Rect bounds;
+
+        Draw(Object target, Rect bounds) {
+            this.target = target;
+            this.bounds = bounds;
+        }
+    }
+
+    public Canvas() {
+        mDraws = new ArrayList<>();
+    }
+
+    public Canvas(Bitmap bitmap) {
+        mDraws = bitmap.mDraws;
+    }
+
+    public int save() {
+        mSaved.add(mTranslateX);
+        mSaved.add(mTranslateY);
+        mSaved.add(mScaleX);
+        mSaved.add(mScaleY);
+        return mSaved.size() / 4;
+    }
+
+    public void restore() {
+        final int last = mSaved.size() - 4;
+        mTranslateX = mSaved.get(last);
+        mTranslateY = mSaved.get(last + 1);
+        mScaleX = mSaved.get(last + 2);
+        mScaleY = mSaved.get(last + 3);
+        mSaved.subList(last, last + 4).clear();
+    }
+
+    public void translate(float dx, float dy) {
+        mTranslateX += dx * mScaleX;
+        mTranslateY += dy * mScaleY;
+    }
+
+    public void scale(float sx, float sy) {
+        mScaleX *= sx;
+        mScaleY *= sy;
+    }
+
+    public boolean clipRect(int left, int top, int right, int bottom) {
+        return true;
+    }
+
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+        record(bitmap, dst.left, dst.top, dst.right, dst.bottom);
+    }
+
+    public void drawRect(Rect rect, Paint paint) {
+        record(paint, rect.left, rect.top, rect.right, rect.bottom);
+    }
+
+    /**
+     * Called by View.draw with the bounds of the view in its own coordinates.
+     */
+    public void record(Object target, int left, int top, int right, int bottom) {
+        mDraws.add(new Draw(target, new Rect(Math.round(mTranslateX + left * mScaleX),
+                Math.round(mTranslateY + top * mScaleY), Math.round(mTranslateX + right * mScaleX),
+                Math.round(mTranslateY + bottom * mScaleY))));
+    }
+
+    public List<Draw> getDraws() {
+        return mDraws;
+    }
+}
@@ -0,0 +1,17 @@
+package android.graphics;
+
+/**
+ * Fake host: stands in for the framework class so the grid code runs on a plain JVM.
+ */
+public class Paint {
+    public static final int FILTER_BITMAP_FLAG = 2;
+
+    public Paint() {
+    }
+
+    public Paint(int flags) {
+    }
+
+    public void setColor(int color) {
+    }
+}
@@ -0,0 +1,17 @@
+package android.graphics;
+
+/**
+ * Fake host: stands in for the framework class so the grid code runs on a plain JVM.
+ */
+public class PointF {
+    public float x;
+    public float y;
+
+    public PointF() {
+    }
+
+    public PointF(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+}
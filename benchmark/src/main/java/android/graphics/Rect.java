@@ -0,0 +1,63 @@
+package android.graphics;
+
+/**
+ * Fake host: stands in for the framework class so the grid code runs on a plain JVM.
+ */
+public final class Rect {
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public Rect() {
+    }
+
+    public Rect(int left, int top, int right, int bottom) {
+        set(left, top, right, bottom);
+    }
+
+    public void set(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public void setEmpty() {
+        left = top = right = bottom = 0;
+    }
+
+    public void offset(int dx, int dy) {
+        left += dx;
+        right += dx;
+        top += dy;
+        bottom += dy;
+    }
+
+    public int width() {
+        return right - left;
+    }
+
+    public int height() {
+        return bottom - top;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Rect)) {
+            return false;
+        }
+        final Rect r = (Rect) o;
+        return left == r.left && top == r.top && right == r.right && bottom == r.bottom;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * left + top) + right) + bottom;
+    }
+
+    @Override
+    public String toString() {
+        return "Rect(" + left + ", " + top + " - " + right + ", " + bottom + ")";
+    }
+}
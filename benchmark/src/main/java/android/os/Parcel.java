@@ -0,0 +1,33 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fake host: an in-memory parcel, values are read back in the order they were written.
+ */
+public final class Parcel {
+    private final List<Object> mValues = new ArrayList<>();
+    private int mReadPosition;
+
+    public static Parcel obtain() {
+        return new Parcel();
+    }
+
+    public void writeInt(int value) {
+        mValues.add(value);
+    }
+
+    public int readInt() {
+        return (Integer) mValues.get(mReadPosition++);
+    }
+
+    public void setDataPosition(int position) {
+        mReadPosition = position;
+    }
+
+    public void recycle() {
+        mValues.clear();
+        mReadPosition = 0;
+    }
+}
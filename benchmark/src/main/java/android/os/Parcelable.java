@@ -0,0 +1,16 @@
+package android.os;
+
+/**
+ * Fake host: stands in for the framework interface so the grid code runs on a plain JVM.
+ */
+public interface Parcelable {
+    int describeContents();
+
+    void writeToParcel(Parcel dest, int flags);
+
+    interface Creator<T> {
+        T createFromParcel(Parcel source);
+
+        T[] newArray(int size);
+    }
+}
@@ -0,0 +1,92 @@
+package android.support.v7.widget;
+
+import android.content.Context;
+import android.graphics.PointF;
+import android.view.View;
+
+/**
+ * Fake host: seeks and snaps like the framework, without the timing. Seek steps scroll a long
+ * interim target along the scroll vector, the found target is snapped by the side it came from.
+ */
+public class LinearSmoothScroller extends RecyclerView.SmoothScroller {
+    public static final int SNAP_TO_START = -1;
+    public static final int SNAP_TO_END = 1;
+    public static final int SNAP_TO_ANY = 0;
+    private static final int TARGET_SEEK_SCROLL_DISTANCE_PX = 10000;
+    private static final float TARGET_SEEK_EXTRA_SCROLL_RATIO = 1.2f;
+
+    protected PointF mTargetVector;
+
+    public LinearSmoothScroller(Context context) {
+    }
+
+    @Override
+    protected void onStart() {
+    }
+
+    @Override
+    protected void onStop() {
+    }
+
+    @Override
+    protected void onSeekTargetStep(int dx, int dy, RecyclerView.State state, Action action) {
+        if (getChildCount() == 0) {
+            stop();
+            return;
+        }
+        final PointF vector = computeScrollVectorForPosition(getTargetPosition());
+        if (vector == null || (vector.x == 0 && vector.y == 0)) {
+            action.jumpTo(getTargetPosition());
+            stop();
+            return;
+        }
+        final float magnitude = (float) Math.sqrt(vector.x * vector.x + vector.y * vector.y);
+        mTargetVector = new PointF(vector.x / magnitude, vector.y / magnitude);
+        action.setDx((int) (TARGET_SEEK_SCROLL_DISTANCE_PX * mTargetVector.x * TARGET_SEEK_EXTRA_SCROLL_RATIO));
+        action.setDy((int) (TARGET_SEEK_SCROLL_DISTANCE_PX * mTargetVector.y * TARGET_SEEK_EXTRA_SCROLL_RATIO));
+    }
+
+    @Override
+    protected void onTargetFound(View targetView, RecyclerView.State state, Action action) {
+        action.setDx(-calculateDxToMakeVisible(targetView, getHorizontalSnapPreference()));
+        action.setDy(-calculateDyToMakeVisible(targetView, getVerticalSnapPreference()));
+    }
+
+    protected int getHorizontalSnapPreference() {
+        return mTargetVector == null || mTargetVector.x == 0 ? SNAP_TO_ANY
+                : mTargetVector.x > 0 ? SNAP_TO_END : SNAP_TO_START;
+    }
+
+    protected int getVerticalSnapPreference() {
+        return mTargetVector == null || mTargetVector.y == 0 ? SNAP_TO_ANY
+                : mTargetVector.y > 0 ? SNAP_TO_END : SNAP_TO_START;
+    }
+
+    public PointF computeScrollVectorForPosition(int targetPosition) {
+        return null;
+    }
+
+    public int calculateDtToFit(int viewStart, int viewEnd, int boxStart, int boxEnd, int snapPreference) {
+        switch (snapPreference) {
+            case SNAP_TO_START:
+                return boxStart - viewStart;
+            case SNAP_TO_END:
+                return boxEnd - viewEnd;
+            default:
+                final int dtStart = boxStart - viewStart;
+                if (dtStart > 0) {
+                    return dtStart;
+                }
+                final int dtEnd = boxEnd - viewEnd;
+                return dtEnd < 0 ? dtEnd : 0;
+        }
+    }
+
+    public int calculateDxToMakeVisible(View view, int snapPreference) {
+        return 0;
+    }
+
+    public int calculateDyToMakeVisible(View view, int snapPreference) {
+        return 0;
+    }
+}
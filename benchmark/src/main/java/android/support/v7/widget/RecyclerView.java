@@ -0,0 +1,1478 @@
+package android.support.v7.widget;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.os.Parcelable;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fake host: a headless RecyclerView that runs a layout manager on a plain JVM.
+ * It keeps the child list, the attached scrap and a recycled view pool with the framework
+ * defaults, so binds, inflations and recycles happen where they would on a device.
+ * Adapter range notifications reach the layout manager and move the positions of attached
+ * views. The next layout runs a pre-layout pass first when an item animator is set: removals
+ * of items that were not attached are applied to pre-layout positions, every other update
+ * only after it, and disappearing views finish their animation as soon as the layout ends.
+ * Touch handling is limited to a single pointer drag that reaches the item touch listeners,
+ * smooth scrolls run when {@link #runSmoothScroll()} is called.
+ * Host work is tallied in {@link Counters} for the replay harness.
+ */
+public class RecyclerView extends ViewGroup {
+    public static final int NO_POSITION = -1;
+    public static final int INVALID_TYPE = -1;
+    public static final int SCROLL_STATE_IDLE = 0;
+    public static final int SCROLL_STATE_DRAGGING = 1;
+    public static final int SCROLL_STATE_SETTLING = 2;
+    //Farthest a smooth scroll moves on either axis in one frame
+    static final int SMOOTH_SCROLL_FRAME_PX = 300;
+    //A seek that circles its target this long never finds it
+    static final int SMOOTH_SCROLL_MAX_FRAMES = 10000;
+    private final List<View> mChildren = new ArrayList<>();
+    private final Recycler mRecycler = new Recycler();
+    private final State mState = new State();
+    private final Counters mCounters = new Counters();
+    private Adapter mAdapter;
+    private LayoutManager mLayout;
+    private final List<OnItemTouchListener> mOnItemTouchListeners = new ArrayList<>();
+    private final List<OnScrollListener> mOnScrollListeners = new ArrayList<>();
+    private final List<ItemDecoration> mItemDecorations = new ArrayList<>();
+    private int mScrollState = SCROLL_STATE_IDLE;
+    private long mDragTime;
+    private float mDragX;
+    private float mDragY;
+    private boolean mPendingLayout;
+    //No animator by default, unlike the framework, so benchmarks never run a pre-layout pass
+    private ItemAnimator mItemAnimator;
+    //Adapter updates since the last layout: the old position of every current item, -1 if inserted
+    private final List<Integer> mUpdatedItems = new ArrayList<>();
+    //Old positions removed while not attached, already gone in pre-layout
+    private boolean[] mConsumedRemovals = new boolean[0];
+    private boolean mPendingUpdates;
+    private int mOldItemCount;
+
+    public RecyclerView(Context context) {
+        super(context);
+    }
+
+    public void setLayoutManager(LayoutManager layout) {
+        if (mLayout != null) {
+            mLayout.removeAndRecycleAllViews(mRecycler);
+            mLayout.onDetachedFromWindow(this, mRecycler);
+            mLayout.mRecyclerView = null;
+        }
+        mRecycler.clear();
+        mLayout = layout;
+        if (layout != null) {
+            layout.mRecyclerView = this;
+            layout.onAttachedToWindow(this);
+        }
+    }
+
+    public LayoutManager getLayoutManager() {
+        return mLayout;
+    }
+
+    public void setAdapter(Adapter adapter) {
+        final Adapter oldAdapter = mAdapter;
+        if (mLayout != null) {
+            mLayout.removeAndRecycleAllViews(mRecycler);
+        }
+        mRecycler.clear();
+        if (oldAdapter != null) {
+            oldAdapter.mRecyclerView = null;
+            oldAdapter.onDetachedFromRecyclerView(this);
+        }
+        mAdapter = adapter;
+        mPendingUpdates = false;
+        if (adapter != null) {
+            adapter.mRecyclerView = this;
+            adapter.onAttachedToRecyclerView(this);
+        }
+        if (mLayout != null) {
+            mLayout.onAdapterChanged(oldAdapter, adapter);
+        }
+    }
+
+    public Adapter getAdapter() {
+        return mAdapter;
+    }
+
+    public Recycler getRecycler() {
+        return mRecycler;
+    }
+
+    public RecycledViewPool getRecycledViewPool() {
+        return mRecycler.getRecycledViewPool();
+    }
+
+    public State getState() {
+        return mState;
+    }
+
+    public Counters getCounters() {
+        return mCounters;
+    }
+
+    /**
+     * Sets the viewport and runs a full layout pass.
+     */
+    @Override
+    public void layout(int l, int t, int r, int b) {
+        super.layout(l, t, r, b);
+        dispatchLayout();
+    }
+
+    /**
+     * Runs on the next scroll or when scrolling stops, standing in for the traversal of the next frame.
+     */
+    public void requestLayout() {
+        mPendingLayout = true;
+    }
+
+    public void dispatchLayout() {
+        mPendingLayout = false;
+        if (mLayout == null || mAdapter == null) {
+            return;
+        }
+        mState.mRunPredictiveAnimations = mPendingUpdates && mItemAnimator != null
+                && mLayout.supportsPredictiveItemAnimations();
+        if (mPendingUpdates) {
+            applyUpdatedPositions();
+        }
+        if (mState.mRunPredictiveAnimations) {
+            mState.mItemCount = mOldItemCount - countConsumedRemovals(mOldItemCount);
+            mState.mInPreLayout = true;
+            for (int i = 0; i < mChildren.size(); i++) {
+                final ViewHolder holder = getChildViewHolder(mChildren.get(i));
+                holder.mPreLayoutPosition = toPreLayoutPosition(holder.mOldPosition);
+            }
+            mLayout.onLayoutChildren(mRecycler, mState);
+            for (int i = 0; i < mChildren.size(); i++) {
+                getChildViewHolder(mChildren.get(i)).mPreLayoutPosition = NO_POSITION;
+            }
+            for (ViewHolder holder : mRecycler.mAttachedScrap) {
+                holder.mPreLayoutPosition = NO_POSITION;
+            }
+        }
+        mState.mItemCount = mAdapter.getItemCount();
+        mState.mInPreLayout = false;
+        mLayout.onLayoutChildren(mRecycler, mState);
+        mRecycler.recycleScrap();
+        //Animations end right away, disappearing views go to the pool
+        for (int i = mChildren.size() - 1; i >= 0; i--) {
+            final View child = mChildren.get(i);
+            if (getChildViewHolder(child).mDisappearing) {
+                mLayout.removeAndRecycleView(child, mRecycler);
+            }
+        }
+        mState.mRunPredictiveAnimations = false;
+        mState.mStructureChanged = false;
+        mPendingUpdates = false;
+        mUpdatedItems.clear();
+    }
+
+    public void setItemAnimator(ItemAnimator animator) {
+        mItemAnimator = animator;
+    }
+
+    public ItemAnimator getItemAnimator() {
+        return mItemAnimator;
+    }
+
+    /**
+     * Starts tracking adapter updates, the attached views remember their position at the last layout.
+     */
+    private void beginUpdate() {
+        if (mPendingUpdates) {
+            return;
+        }
+        mPendingUpdates = true;
+        mOldItemCount = mState.mItemCount;
+        mUpdatedItems.clear();
+        for (int i = 0; i < mOldItemCount; i++) {
+            mUpdatedItems.add(i);
+        }
+        if (mConsumedRemovals.length < mOldItemCount) {
+            mConsumedRemovals = new boolean[mOldItemCount];
+        }
+        Arrays.fill(mConsumedRemovals, false);
+        for (int i = 0; i < mChildren.size(); i++) {
+            final ViewHolder holder = getChildViewHolder(mChildren.get(i));
+            holder.mOldPosition = holder.mPosition;
+        }
+    }
+
+    /**
+     * @return attached view holding the old position, null if it is not attached
+     */
+    private ViewHolder findAttachedHolder(int oldPosition) {
+        for (int i = 0; i < mChildren.size(); i++) {
+            final ViewHolder holder = getChildViewHolder(mChildren.get(i));
+            if (holder.mOldPosition == oldPosition && !holder.isRemoved()) {
+                return holder;
+            }
+        }
+        return null;
+    }
+
+    void onItemRangeInserted(int positionStart, int itemCount) {
+        beginUpdate();
+        for (int i = 0; i < itemCount; i++) {
+            mUpdatedItems.add(positionStart, -1);
+        }
+        mState.mStructureChanged = true;
+        if (mLayout != null) {
+            mLayout.onItemsAdded(this, positionStart, itemCount);
+        }
+        requestLayout();
+    }
+
+    void onItemRangeRemoved(int positionStart, int itemCount) {
+        beginUpdate();
+        for (int i = 0; i < itemCount; i++) {
+            final int oldPosition = mUpdatedItems.remove(positionStart);
+            if (oldPosition < 0) {
+                continue;
+            }
+            final ViewHolder holder = findAttachedHolder(oldPosition);
+            if (holder != null) {
+                holder.mFlags |= ViewHolder.FLAG_REMOVED;
+            } else {
+                mConsumedRemovals[oldPosition] = true;
+            }
+        }
+        mState.mStructureChanged = true;
+        if (mLayout != null) {
+            mLayout.onItemsRemoved(this, positionStart, itemCount);
+        }
+        requestLayout();
+    }
+
+    void onItemMoved(int fromPosition, int toPosition) {
+        beginUpdate();
+        mUpdatedItems.add(toPosition, mUpdatedItems.remove(fromPosition));
+        mState.mStructureChanged = true;
+        if (mLayout != null) {
+            mLayout.onItemsMoved(this, fromPosition, toPosition, 1);
+        }
+        requestLayout();
+    }
+
+    void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+        beginUpdate();
+        for (int i = positionStart; i < positionStart + itemCount; i++) {
+            final int oldPosition = mUpdatedItems.get(i);
+            final ViewHolder holder = oldPosition < 0 ? null : findAttachedHolder(oldPosition);
+            if (holder != null) {
+                holder.addPayload(payload);
+            }
+        }
+        if (mLayout != null) {
+            mLayout.onItemsUpdated(this, positionStart, itemCount);
+        }
+        requestLayout();
+    }
+
+    void onDataSetChanged() {
+        for (int i = 0; i < mChildren.size(); i++) {
+            getChildViewHolder(mChildren.get(i)).mFlags |= ViewHolder.FLAG_INVALID;
+        }
+        //Nothing is kept, the layout manager lays out from scratch
+        mPendingUpdates = false;
+        mUpdatedItems.clear();
+        mState.mStructureChanged = true;
+        if (mLayout != null) {
+            mLayout.onItemsChanged(this);
+        }
+        requestLayout();
+    }
+
+    /**
+     * Gives the attached views their positions after the updates.
+     */
+    private void applyUpdatedPositions() {
+        for (int i = 0; i < mChildren.size(); i++) {
+            final ViewHolder holder = getChildViewHolder(mChildren.get(i));
+            holder.mPosition = holder.isRemoved() ? NO_POSITION : mUpdatedItems.indexOf(holder.mOldPosition);
+        }
+    }
+
+    private int countConsumedRemovals(int oldPositionEnd) {
+        int count = 0;
+        for (int i = 0; i < oldPositionEnd; i++) {
+            if (mConsumedRemovals[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int toPreLayoutPosition(int oldPosition) {
+        return oldPosition - countConsumedRemovals(oldPosition);
+    }
+
+    /**
+     * @return position after the updates of the item at a pre-layout position, NO_POSITION if it was removed
+     */
+    int toPostLayoutPosition(int preLayoutPosition) {
+        if (!mPendingUpdates) {
+            return preLayoutPosition;
+        }
+        int oldPosition = 0;
+        for (int remaining = preLayoutPosition; ; oldPosition++) {
+            if (!mConsumedRemovals[oldPosition] && remaining-- == 0) {
+                break;
+            }
+        }
+        return mUpdatedItems.indexOf(oldPosition);
+    }
+
+    public int computeVerticalScrollOffset() {
+        return mLayout == null || mAdapter == null ? 0 : mLayout.computeVerticalScrollOffset(mState);
+    }
+
+    public int computeVerticalScrollExtent() {
+        return mLayout == null || mAdapter == null ? 0 : mLayout.computeVerticalScrollExtent(mState);
+    }
+
+    public int computeVerticalScrollRange() {
+        return mLayout == null || mAdapter == null ? 0 : mLayout.computeVerticalScrollRange(mState);
+    }
+
+    public int computeHorizontalScrollOffset() {
+        return mLayout == null || mAdapter == null ? 0 : mLayout.computeHorizontalScrollOffset(mState);
+    }
+
+    public int computeHorizontalScrollExtent() {
+        return mLayout == null || mAdapter == null ? 0 : mLayout.computeHorizontalScrollExtent(mState);
+    }
+
+    public int computeHorizontalScrollRange() {
+        return mLayout == null || mAdapter == null ? 0 : mLayout.computeHorizontalScrollRange(mState);
+    }
+
+    public void scrollBy(int x, int y) {
+        if (mPendingLayout) {
+            dispatchLayout();
+        }
+        if (mLayout == null || mAdapter == null) {
+            return;
+        }
+        mState.mItemCount = mAdapter.getItemCount();
+        int consumedX = 0;
+        int consumedY = 0;
+        if (x != 0 && mLayout.canScrollHorizontally()) {
+            consumedX = mLayout.scrollHorizontallyBy(x, mRecycler, mState);
+        }
+        if (y != 0 && mLayout.canScrollVertically()) {
+            consumedY = mLayout.scrollVerticallyBy(y, mRecycler, mState);
+        }
+        mRecycler.recycleScrap();
+        if (consumedX != 0 || consumedY != 0) {
+            for (int i = mOnScrollListeners.size() - 1; i >= 0; i--) {
+                mOnScrollListeners.get(i).onScrolled(this, consumedX, consumedY);
+            }
+        }
+    }
+
+    /**
+     * Puts a finger down in the middle of the viewport, the drag starts right away
+     * and catches a running fling.
+     */
+    public void startDrag() {
+        mDragX = getWidth() / 2f;
+        mDragY = getHeight() / 2f;
+        dispatchTouch(MotionEvent.ACTION_DOWN);
+        setScrollState(SCROLL_STATE_DRAGGING);
+    }
+
+    /**
+     * Moves the finger by one frame of a drag and scrolls like RecyclerView does for it.
+     */
+    public void dragBy(int x, int y) {
+        mDragX -= x;
+        mDragY -= y;
+        dispatchTouch(MotionEvent.ACTION_MOVE);
+        scrollBy(x, y);
+    }
+
+    /**
+     * Scrolls by one frame of a fling, a drag in progress is released into it.
+     */
+    public void flingBy(int x, int y) {
+        if (mScrollState == SCROLL_STATE_DRAGGING) {
+            dispatchTouch(MotionEvent.ACTION_UP);
+        }
+        if (mScrollState != SCROLL_STATE_SETTLING) {
+            setScrollState(SCROLL_STATE_SETTLING);
+        }
+        scrollBy(x, y);
+    }
+
+    public void smoothScrollToPosition(int position) {
+        if (mLayout != null) {
+            mLayout.smoothScrollToPosition(this, mState, position);
+        }
+    }
+
+    /**
+     * Runs the started smooth scroll frame by frame like the framework's flinger. Once the target
+     * is attached the scroller's final action is scrolled at once, until then every action of a
+     * seek step is scrolled at most {@link #SMOOTH_SCROLL_FRAME_PX} per axis and frame, and a
+     * jump is a {@link #scrollToPosition(int)}. Stops with the scroller or where nothing scrolls.
+     *
+     * @return frames run
+     * @throws IllegalStateException if the target is not found in {@link #SMOOTH_SCROLL_MAX_FRAMES}
+     */
+    public int runSmoothScroll() {
+        final SmoothScroller scroller = mLayout != null ? mLayout.mSmoothScroller : null;
+        if (scroller == null || !scroller.isRunning()) {
+            return 0;
+        }
+        setScrollState(SCROLL_STATE_SETTLING);
+        int frames = 0;
+        int lastDx = 0;
+        int lastDy = 0;
+        int remainingX = 0;
+        int remainingY = 0;
+        while (scroller.isRunning()) {
+            if (++frames > SMOOTH_SCROLL_MAX_FRAMES) {
+                scroller.stop();
+                setScrollState(SCROLL_STATE_IDLE);
+                throw new IllegalStateException("Smooth scroll to " + scroller.getTargetPosition()
+                        + " did not find its target in " + SMOOTH_SCROLL_MAX_FRAMES + " frames");
+            }
+            final SmoothScroller.Action action = new SmoothScroller.Action(0, 0);
+            final View target = scroller.findViewByPosition(scroller.getTargetPosition());
+            if (target != null) {
+                scroller.onTargetFound(target, mState, action);
+                scrollBy(action.getDx(), action.getDy());
+                scroller.stop();
+                break;
+            }
+            if (remainingX == 0 && remainingY == 0) {
+                scroller.onSeekTargetStep(lastDx, lastDy, mState, action);
+                if (action.mJumpToPosition != NO_POSITION) {
+                    scrollToPosition(action.mJumpToPosition);
+                    lastDx = 0;
+                    lastDy = 0;
+                    continue;
+                }
+                remainingX = action.getDx();
+                remainingY = action.getDy();
+                if (remainingX == 0 && remainingY == 0) {
+                    scroller.stop();
+                    break;
+                }
+            }
+            final int dx = Math.max(-SMOOTH_SCROLL_FRAME_PX, Math.min(SMOOTH_SCROLL_FRAME_PX, remainingX));
+            final int dy = Math.max(-SMOOTH_SCROLL_FRAME_PX, Math.min(SMOOTH_SCROLL_FRAME_PX, remainingY));
+            final int x = computeHorizontalScrollOffset();
+            final int y = computeVerticalScrollOffset();
+            scrollBy(dx, dy);
+            lastDx = computeHorizontalScrollOffset() - x;
+            lastDy = computeVerticalScrollOffset() - y;
+            remainingX -= dx;
+            remainingY -= dy;
+            if (lastDx == 0 && lastDy == 0) {
+                scroller.stop();
+            }
+        }
+        setScrollState(SCROLL_STATE_IDLE);
+        return frames;
+    }
+
+    public void stopScroll() {
+        if (mLayout != null && mLayout.mSmoothScroller != null) {
+            mLayout.mSmoothScroller.stop();
+        }
+        if (mScrollState == SCROLL_STATE_DRAGGING) {
+            dispatchTouch(MotionEvent.ACTION_UP);
+        }
+        if (mScrollState != SCROLL_STATE_IDLE) {
+            setScrollState(SCROLL_STATE_IDLE);
+        }
+        if (mPendingLayout) {
+            dispatchLayout();
+        }
+    }
+
+    private void dispatchTouch(int action) {
+        final MotionEvent event = MotionEvent.obtain(0, ++mDragTime, action, mDragX, mDragY, 0);
+        for (int i = 0; i < mOnItemTouchListeners.size(); i++) {
+            mOnItemTouchListeners.get(i).onInterceptTouchEvent(this, event);
+        }
+    }
+
+    private void setScrollState(int state) {
+        mScrollState = state;
+        if (mLayout != null) {
+            mLayout.onScrollStateChanged(state);
+        }
+        for (int i = mOnScrollListeners.size() - 1; i >= 0; i--) {
+            mOnScrollListeners.get(i).onScrollStateChanged(this, state);
+        }
+    }
+
+    public int getScrollState() {
+        return mScrollState;
+    }
+
+    public boolean hasNestedScrollingParent() {
+        return false;
+    }
+
+    /**
+     * Decorations draw in {@link #draw(Canvas)} only, no frame loop calls it.
+     */
+    public void addItemDecoration(ItemDecoration decor) {
+        mItemDecorations.add(decor);
+    }
+
+    public void removeItemDecoration(ItemDecoration decor) {
+        mItemDecorations.remove(decor);
+    }
+
+    /**
+     * Draws like a frame would: decorations below, children at their positions, decorations over.
+     */
+    @Override
+    public void draw(Canvas canvas) {
+        for (int i = 0; i < mItemDecorations.size(); i++) {
+            mItemDecorations.get(i).onDraw(canvas, this, mState);
+        }
+        for (int i = 0; i < mChildren.size(); i++) {
+            final View child = mChildren.get(i);
+            canvas.save();
+            canvas.translate(child.getLeft(), child.getTop());
+            child.draw(canvas);
+            canvas.restore();
+        }
+        for (int i = 0; i < mItemDecorations.size(); i++) {
+            mItemDecorations.get(i).onDrawOver(canvas, this, mState);
+        }
+    }
+
+    public void addOnItemTouchListener(OnItemTouchListener listener) {
+        mOnItemTouchListeners.add(listener);
+    }
+
+    public void removeOnItemTouchListener(OnItemTouchListener listener) {
+        mOnItemTouchListeners.remove(listener);
+    }
+
+    /**
+     * Listeners hear of scroll steps that moved, not of the ones layout passes dispatch.
+     */
+    public void addOnScrollListener(OnScrollListener listener) {
+        mOnScrollListeners.add(listener);
+    }
+
+    public void removeOnScrollListener(OnScrollListener listener) {
+        mOnScrollListeners.remove(listener);
+    }
+
+    public void scrollToPosition(int position) {
+        if (mLayout != null) {
+            mLayout.scrollToPosition(position);
+            dispatchLayout();
+        }
+    }
+
+    public int getChildCount() {
+        return mChildren.size();
+    }
+
+    public View getChildAt(int index) {
+        return mChildren.get(index);
+    }
+
+    public ViewHolder getChildViewHolder(View child) {
+        return ((LayoutParams) child.getLayoutParams()).mViewHolder;
+    }
+
+    /**
+     * Running totals of the work the layout manager asked of the host.
+     */
+    public static final class Counters {
+        public int inflations;
+        public int binds;
+        public int recycles;
+        public int attaches;
+        public int detaches;
+        //Views handed out during pre-layout passes and views added as disappearing
+        public int preLayoutViews;
+        public int disappearingViews;
+
+        public void reset() {
+            inflations = binds = recycles = attaches = detaches = preLayoutViews = disappearingViews = 0;
+        }
+    }
+
+    /**
+     * Only tells whether item animations run, animations themselves end as soon as a layout does.
+     */
+    public static abstract class ItemAnimator {
+    }
+
+    public static abstract class ItemDecoration {
+        public void onDraw(Canvas c, RecyclerView parent, State state) {
+        }
+
+        public void onDrawOver(Canvas c, RecyclerView parent, State state) {
+        }
+
+        public void getItemOffsets(Rect outRect, View view, RecyclerView parent, State state) {
+            outRect.setEmpty();
+        }
+    }
+
+    public static abstract class OnScrollListener {
+        public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+        }
+
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        }
+    }
+
+    public interface OnItemTouchListener {
+        boolean onInterceptTouchEvent(RecyclerView rv, MotionEvent e);
+
+        void onTouchEvent(RecyclerView rv, MotionEvent e);
+
+        void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept);
+    }
+
+    public static abstract class ViewHolder {
+        static final int FLAG_UPDATE = 1;
+        static final int FLAG_REMOVED = 1 << 1;
+        static final int FLAG_INVALID = 1 << 2;
+        public final View itemView;
+        int mPosition = NO_POSITION;
+        //Position at the last layout, tracked while adapter updates are pending
+        int mOldPosition = NO_POSITION;
+        //Position seen by the layout manager during pre-layout
+        int mPreLayoutPosition = NO_POSITION;
+        int mItemViewType = INVALID_TYPE;
+        int mFlags;
+        boolean mDisappearing;
+        //Partial update payloads, an update without one rebinds fully
+        final List<Object> mPayloads = new ArrayList<>();
+        boolean mFullUpdate;
+
+        public ViewHolder(View itemView) {
+            if (itemView == null) {
+                throw new IllegalArgumentException("itemView may not be null");
+            }
+            this.itemView = itemView;
+        }
+
+        public final int getItemViewType() {
+            return mItemViewType;
+        }
+
+        public final int getAdapterPosition() {
+            return mPosition;
+        }
+
+        public final int getLayoutPosition() {
+            return mPreLayoutPosition == NO_POSITION ? mPosition : mPreLayoutPosition;
+        }
+
+        public final int getPosition() {
+            return getLayoutPosition();
+        }
+
+        boolean isRemoved() {
+            return (mFlags & FLAG_REMOVED) != 0;
+        }
+
+        boolean needsBind() {
+            return (mFlags & (FLAG_UPDATE | FLAG_INVALID)) != 0;
+        }
+
+        void addPayload(Object payload) {
+            mFlags |= FLAG_UPDATE;
+            if (payload == null) {
+                mFullUpdate = true;
+                mPayloads.clear();
+            } else if (!mFullUpdate) {
+                mPayloads.add(payload);
+            }
+        }
+
+        void resetInternal() {
+            mPosition = mOldPosition = mPreLayoutPosition = NO_POSITION;
+            mFlags = 0;
+            mDisappearing = false;
+            mPayloads.clear();
+            mFullUpdate = false;
+        }
+    }
+
+    public static abstract class AdapterDataObserver {
+        public void onChanged() {
+        }
+
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+        }
+
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        }
+    }
+
+    public static abstract class Adapter<VH extends ViewHolder> {
+        private RecyclerView mRecyclerView;
+        private final List<AdapterDataObserver> mObservers = new ArrayList<>();
+
+        public abstract VH onCreateViewHolder(ViewGroup parent, int viewType);
+
+        public abstract void onBindViewHolder(VH holder, int position);
+
+        public void onBindViewHolder(VH holder, int position, List<Object> payloads) {
+            onBindViewHolder(holder, position);
+        }
+
+        public abstract int getItemCount();
+
+        public int getItemViewType(int position) {
+            return 0;
+        }
+
+        public long getItemId(int position) {
+            return NO_POSITION;
+        }
+
+        public void onViewRecycled(VH holder) {
+        }
+
+        public void onViewAttachedToWindow(VH holder) {
+        }
+
+        public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        }
+
+        public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        }
+
+        public final VH createViewHolder(ViewGroup parent, int viewType) {
+            final VH holder = onCreateViewHolder(parent, viewType);
+            holder.mItemViewType = viewType;
+            return holder;
+        }
+
+        public final void bindViewHolder(VH holder, int position) {
+            holder.mPosition = position;
+            onBindViewHolder(holder, position, holder.mPayloads);
+            holder.mFlags &= ~(ViewHolder.FLAG_UPDATE | ViewHolder.FLAG_INVALID);
+            holder.mPayloads.clear();
+            holder.mFullUpdate = false;
+        }
+
+        /**
+         * Observers hear of notifications after the RecyclerView the adapter is set on.
+         */
+        public void registerAdapterDataObserver(AdapterDataObserver observer) {
+            mObservers.add(observer);
+        }
+
+        public void unregisterAdapterDataObserver(AdapterDataObserver observer) {
+            mObservers.remove(observer);
+        }
+
+        public final void notifyDataSetChanged() {
+            if (mRecyclerView != null) {
+                mRecyclerView.onDataSetChanged();
+            }
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onChanged();
+            }
+        }
+
+        public final void notifyItemChanged(int position) {
+            notifyItemRangeChanged(position, 1, null);
+        }
+
+        public final void notifyItemRangeChanged(int positionStart, int itemCount) {
+            notifyItemRangeChanged(positionStart, itemCount, null);
+        }
+
+        public final void notifyItemChanged(int position, Object payload) {
+            notifyItemRangeChanged(position, 1, payload);
+        }
+
+        public final void notifyItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            if (mRecyclerView != null) {
+                mRecyclerView.onItemRangeChanged(positionStart, itemCount, payload);
+            }
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onItemRangeChanged(positionStart, itemCount, payload);
+            }
+        }
+
+        public final void notifyItemInserted(int position) {
+            notifyItemRangeInserted(position, 1);
+        }
+
+        public final void notifyItemRangeInserted(int positionStart, int itemCount) {
+            if (mRecyclerView != null) {
+                mRecyclerView.onItemRangeInserted(positionStart, itemCount);
+            }
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onItemRangeInserted(positionStart, itemCount);
+            }
+        }
+
+        public final void notifyItemRemoved(int position) {
+            notifyItemRangeRemoved(position, 1);
+        }
+
+        public final void notifyItemRangeRemoved(int positionStart, int itemCount) {
+            if (mRecyclerView != null) {
+                mRecyclerView.onItemRangeRemoved(positionStart, itemCount);
+            }
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onItemRangeRemoved(positionStart, itemCount);
+            }
+        }
+
+        public final void notifyItemMoved(int fromPosition, int toPosition) {
+            if (mRecyclerView != null) {
+                mRecyclerView.onItemMoved(fromPosition, toPosition);
+            }
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onItemRangeMoved(fromPosition, toPosition, 1);
+            }
+        }
+    }
+
+    public static class LayoutParams extends ViewGroup.MarginLayoutParams {
+        ViewHolder mViewHolder;
+
+        public LayoutParams(Context c, AttributeSet attrs) {
+            super(c, attrs);
+        }
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public LayoutParams(ViewGroup.MarginLayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(ViewGroup.LayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(LayoutParams source) {
+            super((ViewGroup.LayoutParams) source);
+        }
+
+        public boolean isItemRemoved() {
+            return mViewHolder.isRemoved();
+        }
+
+        public boolean isItemChanged() {
+            return (mViewHolder.mFlags & ViewHolder.FLAG_UPDATE) != 0;
+        }
+
+        public int getViewPosition() {
+            return mViewHolder.getLayoutPosition();
+        }
+
+        public int getViewLayoutPosition() {
+            return mViewHolder.getLayoutPosition();
+        }
+
+        public int getViewAdapterPosition() {
+            return mViewHolder.mPosition;
+        }
+    }
+
+    public static class RecycledViewPool {
+        private static final int DEFAULT_MAX_SCRAP = 5;
+        private final Map<Integer, List<ViewHolder>> mScrap = new HashMap<>();
+        private final Map<Integer, Integer> mMaxScrap = new HashMap<>();
+
+        public void setMaxRecycledViews(int viewType, int max) {
+            mMaxScrap.put(viewType, max);
+        }
+
+        public ViewHolder getRecycledView(int viewType) {
+            final List<ViewHolder> scrap = mScrap.get(viewType);
+            if (scrap == null || scrap.isEmpty()) {
+                return null;
+            }
+            return scrap.remove(scrap.size() - 1);
+        }
+
+        public void putRecycledView(ViewHolder scrap) {
+            List<ViewHolder> heap = mScrap.get(scrap.mItemViewType);
+            if (heap == null) {
+                heap = new ArrayList<>();
+                mScrap.put(scrap.mItemViewType, heap);
+            }
+            final Integer max = mMaxScrap.get(scrap.mItemViewType);
+            if (heap.size() < (max == null ? DEFAULT_MAX_SCRAP : max)) {
+                scrap.resetInternal();
+                heap.add(scrap);
+            }
+        }
+
+        public int getRecycledViewCount(int viewType) {
+            final List<ViewHolder> scrap = mScrap.get(viewType);
+            return scrap == null ? 0 : scrap.size();
+        }
+
+        public void clear() {
+            mScrap.clear();
+        }
+    }
+
+    public final class Recycler {
+        private final List<ViewHolder> mAttachedScrap = new ArrayList<>();
+        private final List<ViewHolder> mUnmodifiableAttachedScrap = Collections.unmodifiableList(mAttachedScrap);
+        private final RecycledViewPool mPool = new RecycledViewPool();
+
+        @SuppressWarnings("unchecked")
+        public View getViewForPosition(int position) {
+            if (position < 0 || position >= mState.getItemCount()) {
+                throw new IndexOutOfBoundsException("Invalid item position " + position);
+            }
+            if (mState.mInPreLayout) {
+                mCounters.preLayoutViews++;
+            }
+            for (int i = 0; i < mAttachedScrap.size(); i++) {
+                final ViewHolder holder = mAttachedScrap.get(i);
+                //Removed views only show up in pre-layout, invalid ones are never reused
+                if (holder.getLayoutPosition() == position && (holder.mFlags & ViewHolder.FLAG_INVALID) == 0
+                        && (mState.mInPreLayout || !holder.isRemoved())) {
+                    mAttachedScrap.remove(i);
+                    if (holder.needsBind() && !holder.isRemoved()) {
+                        mAdapter.bindViewHolder(holder, holder.mPosition);
+                        mCounters.binds++;
+                    }
+                    return holder.itemView;
+                }
+            }
+            final int adapterPosition = mState.mInPreLayout ? toPostLayoutPosition(position) : position;
+            if (adapterPosition == NO_POSITION) {
+                throw new IllegalStateException("Pre-layout position " + position + " was removed and is not in the scrap");
+            }
+            final int type = mAdapter.getItemViewType(adapterPosition);
+            ViewHolder holder = mPool.getRecycledView(type);
+            if (holder == null) {
+                holder = mAdapter.createViewHolder(RecyclerView.this, type);
+                mCounters.inflations++;
+            }
+            mAdapter.bindViewHolder(holder, adapterPosition);
+            mCounters.binds++;
+            if (mState.mInPreLayout) {
+                holder.mPreLayoutPosition = position;
+            }
+            final ViewGroup.LayoutParams lp = holder.itemView.getLayoutParams();
+            final LayoutParams rvLayoutParams;
+            if (lp == null) {
+                rvLayoutParams = mLayout.generateDefaultLayoutParams();
+                holder.itemView.setLayoutParams(rvLayoutParams);
+            } else if (!(lp instanceof LayoutParams) || !mLayout.checkLayoutParams((LayoutParams) lp)) {
+                rvLayoutParams = mLayout.generateLayoutParams(lp);
+                holder.itemView.setLayoutParams(rvLayoutParams);
+            } else {
+                rvLayoutParams = (LayoutParams) lp;
+            }
+            rvLayoutParams.mViewHolder = holder;
+            return holder.itemView;
+        }
+
+        @SuppressWarnings("unchecked")
+        public void recycleView(View view) {
+            final ViewHolder holder = getChildViewHolder(view);
+            mAttachedScrap.remove(holder);
+            mAdapter.onViewRecycled(holder);
+            mPool.putRecycledView(holder);
+            mCounters.recycles++;
+        }
+
+        public List<ViewHolder> getScrapList() {
+            return mUnmodifiableAttachedScrap;
+        }
+
+        public int convertPreLayoutPositionToPostLayout(int position) {
+            return mState.mInPreLayout ? toPostLayoutPosition(position) : position;
+        }
+
+        public RecycledViewPool getRecycledViewPool() {
+            return mPool;
+        }
+
+        void scrapView(View view) {
+            mAttachedScrap.add(getChildViewHolder(view));
+        }
+
+        void unscrapView(ViewHolder holder) {
+            mAttachedScrap.remove(holder);
+        }
+
+        /**
+         * Scrap left over after a layout pass goes to the pool, as at the end of a real pass.
+         */
+        void recycleScrap() {
+            for (int i = mAttachedScrap.size() - 1; i >= 0; i--) {
+                recycleView(mAttachedScrap.get(i).itemView);
+            }
+        }
+
+        void clear() {
+            mAttachedScrap.clear();
+            mPool.clear();
+        }
+    }
+
+    public static class State {
+        int mItemCount;
+        boolean mInPreLayout;
+        boolean mRunPredictiveAnimations;
+        boolean mStructureChanged;
+
+        public int getItemCount() {
+            return mItemCount;
+        }
+
+        public boolean isPreLayout() {
+            return mInPreLayout;
+        }
+
+        public boolean willRunPredictiveAnimations() {
+            return mRunPredictiveAnimations;
+        }
+
+        public boolean didStructureChange() {
+            return mStructureChanged;
+        }
+    }
+
+    public static abstract class SmoothScroller {
+        private int mTargetPosition = NO_POSITION;
+        private RecyclerView mRecyclerView;
+        private LayoutManager mLayoutManager;
+        private boolean mRunning;
+
+        void start(RecyclerView recyclerView, LayoutManager layoutManager) {
+            mRecyclerView = recyclerView;
+            mLayoutManager = layoutManager;
+            mRunning = true;
+            onStart();
+        }
+
+        public final void stop() {
+            if (!mRunning) {
+                return;
+            }
+            mRunning = false;
+            onStop();
+            if (mLayoutManager.mSmoothScroller == this) {
+                mLayoutManager.mSmoothScroller = null;
+            }
+        }
+
+        public boolean isRunning() {
+            return mRunning;
+        }
+
+        public int getChildCount() {
+            return mRecyclerView.getChildCount();
+        }
+
+        public View findViewByPosition(int position) {
+            return mLayoutManager.findViewByPosition(position);
+        }
+
+        public void setTargetPosition(int targetPosition) {
+            mTargetPosition = targetPosition;
+        }
+
+        public int getTargetPosition() {
+            return mTargetPosition;
+        }
+
+        public LayoutManager getLayoutManager() {
+            return mLayoutManager;
+        }
+
+        protected abstract void onStart();
+
+        protected abstract void onStop();
+
+        protected abstract void onSeekTargetStep(int dx, int dy, State state, Action action);
+
+        protected abstract void onTargetFound(View targetView, State state, Action action);
+
+        public static class Action {
+            private int mDx;
+            private int mDy;
+            private int mJumpToPosition = NO_POSITION;
+
+            public Action(int dx, int dy) {
+                mDx = dx;
+                mDy = dy;
+            }
+
+            public void jumpTo(int targetPosition) {
+                mJumpToPosition = targetPosition;
+            }
+
+            public int getDx() {
+                return mDx;
+            }
+
+            public void setDx(int dx) {
+                mDx = dx;
+            }
+
+            public int getDy() {
+                return mDy;
+            }
+
+            public void setDy(int dy) {
+                mDy = dy;
+            }
+        }
+
+        public interface ScrollVectorProvider {
+            PointF computeScrollVectorForPosition(int targetPosition);
+        }
+    }
+
+    public static abstract class LayoutManager {
+        RecyclerView mRecyclerView;
+        SmoothScroller mSmoothScroller;
+
+        public interface LayoutPrefetchRegistry {
+            void addPosition(int layoutPosition, int pixelDistance);
+        }
+
+        public void collectAdjacentPrefetchPositions(int dx, int dy, State state, LayoutPrefetchRegistry registry) {
+        }
+
+        public void collectInitialPrefetchPositions(int adapterItemCount, LayoutPrefetchRegistry registry) {
+        }
+
+        public abstract LayoutParams generateDefaultLayoutParams();
+
+        public LayoutParams generateLayoutParams(Context c, AttributeSet attrs) {
+            return new LayoutParams(c, attrs);
+        }
+
+        public LayoutParams generateLayoutParams(ViewGroup.LayoutParams lp) {
+            if (lp instanceof LayoutParams) {
+                return new LayoutParams((LayoutParams) lp);
+            } else if (lp instanceof MarginLayoutParams) {
+                return new LayoutParams((MarginLayoutParams) lp);
+            }
+            return new LayoutParams(lp);
+        }
+
+        public boolean checkLayoutParams(LayoutParams lp) {
+            return lp != null;
+        }
+
+        public void onLayoutChildren(Recycler recycler, State state) {
+        }
+
+        public int scrollHorizontallyBy(int dx, Recycler recycler, State state) {
+            return 0;
+        }
+
+        public int scrollVerticallyBy(int dy, Recycler recycler, State state) {
+            return 0;
+        }
+
+        public boolean canScrollHorizontally() {
+            return false;
+        }
+
+        public boolean canScrollVertically() {
+            return false;
+        }
+
+        public void scrollToPosition(int position) {
+        }
+
+        public void smoothScrollToPosition(RecyclerView recyclerView, State state, int position) {
+        }
+
+        /**
+         * Nothing moves until {@link RecyclerView#runSmoothScroll()} runs the frames.
+         */
+        public void startSmoothScroll(SmoothScroller smoothScroller) {
+            if (mSmoothScroller != null && mSmoothScroller != smoothScroller) {
+                mSmoothScroller.stop();
+            }
+            mSmoothScroller = smoothScroller;
+            smoothScroller.start(mRecyclerView, this);
+        }
+
+        public boolean isSmoothScrolling() {
+            return mSmoothScroller != null && mSmoothScroller.isRunning();
+        }
+
+        public boolean supportsPredictiveItemAnimations() {
+            return false;
+        }
+
+        public int getItemCount() {
+            final Adapter adapter = mRecyclerView != null ? mRecyclerView.getAdapter() : null;
+            return adapter != null ? adapter.getItemCount() : 0;
+        }
+
+        public int getChildCount() {
+            return mRecyclerView != null ? mRecyclerView.mChildren.size() : 0;
+        }
+
+        public View getChildAt(int index) {
+            return mRecyclerView != null ? mRecyclerView.mChildren.get(index) : null;
+        }
+
+        public int getWidth() {
+            return mRecyclerView != null ? mRecyclerView.getWidth() : 0;
+        }
+
+        public int getHeight() {
+            return mRecyclerView != null ? mRecyclerView.getHeight() : 0;
+        }
+
+        public int getPaddingLeft() {
+            return 0;
+        }
+
+        public int getPaddingTop() {
+            return 0;
+        }
+
+        public int getPaddingRight() {
+            return 0;
+        }
+
+        public int getPaddingBottom() {
+            return 0;
+        }
+
+        public void addView(View child) {
+            addView(child, -1);
+        }
+
+        public void addView(View child, int index) {
+            mRecyclerView.mRecycler.unscrapView(mRecyclerView.getChildViewHolder(child));
+            final List<View> children = mRecyclerView.mChildren;
+            children.add(index < 0 ? children.size() : index, child);
+            mRecyclerView.mCounters.attaches++;
+        }
+
+        public void addDisappearingView(View child) {
+            addDisappearingView(child, -1);
+        }
+
+        public void addDisappearingView(View child, int index) {
+            addView(child, index);
+            mRecyclerView.getChildViewHolder(child).mDisappearing = true;
+            mRecyclerView.mCounters.disappearingViews++;
+        }
+
+        public void removeView(View child) {
+            if (mRecyclerView.mChildren.remove(child)) {
+                mRecyclerView.mCounters.detaches++;
+            }
+        }
+
+        public void removeAndRecycleView(View child, Recycler recycler) {
+            removeView(child);
+            recycler.recycleView(child);
+        }
+
+        public void removeAndRecycleViewAt(int index, Recycler recycler) {
+            removeAndRecycleView(getChildAt(index), recycler);
+        }
+
+        public void removeAndRecycleAllViews(Recycler recycler) {
+            for (int i = getChildCount() - 1; i >= 0; i--) {
+                removeAndRecycleViewAt(i, recycler);
+            }
+        }
+
+        public void detachAndScrapView(View child, Recycler recycler) {
+            removeView(child);
+            recycler.scrapView(child);
+        }
+
+        public void detachAndScrapAttachedViews(Recycler recycler) {
+            for (int i = getChildCount() - 1; i >= 0; i--) {
+                detachAndScrapView(getChildAt(i), recycler);
+            }
+        }
+
+        public void removeAllViews() {
+            if (mRecyclerView != null) {
+                mRecyclerView.mCounters.detaches += mRecyclerView.mChildren.size();
+                mRecyclerView.mChildren.clear();
+            }
+        }
+
+        public void measureChildWithMargins(View child, int widthUsed, int heightUsed) {
+            measureChild(child, widthUsed, heightUsed);
+        }
+
+        public void measureChild(View child, int widthUsed, int heightUsed) {
+            final int unspecified = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+            child.measure(unspecified, unspecified);
+        }
+
+        public void calculateItemDecorationsForChild(View child, Rect outRect) {
+            outRect.setEmpty();
+        }
+
+        public void layoutDecorated(View child, int left, int top, int right, int bottom) {
+            child.layout(left, top, right, bottom);
+        }
+
+        public int getDecoratedMeasuredWidth(View child) {
+            return child.getMeasuredWidth();
+        }
+
+        public int getDecoratedMeasuredHeight(View child) {
+            return child.getMeasuredHeight();
+        }
+
+        public int getDecoratedLeft(View child) {
+            return child.getLeft();
+        }
+
+        public int getDecoratedTop(View child) {
+            return child.getTop();
+        }
+
+        public int getDecoratedRight(View child) {
+            return child.getRight();
+        }
+
+        public int getDecoratedBottom(View child) {
+            return child.getBottom();
+        }
+
+        public void offsetChildrenHorizontal(int dx) {
+            for (int i = 0; i < getChildCount(); i++) {
+                getChildAt(i).offsetLeftAndRight(dx);
+            }
+        }
+
+        public void offsetChildrenVertical(int dy) {
+            for (int i = 0; i < getChildCount(); i++) {
+                getChildAt(i).offsetTopAndBottom(dy);
+            }
+        }
+
+        public void requestLayout() {
+            if (mRecyclerView != null) {
+                mRecyclerView.requestLayout();
+            }
+        }
+
+        public void assertNotInLayoutOrScroll(String message) {
+        }
+
+        public int getPosition(View view) {
+            return ((LayoutParams) view.getLayoutParams()).getViewLayoutPosition();
+        }
+
+        public int getItemViewType(View view) {
+            return ((LayoutParams) view.getLayoutParams()).mViewHolder.getItemViewType();
+        }
+
+        public View findViewByPosition(int position) {
+            for (int i = 0; i < getChildCount(); i++) {
+                final View child = getChildAt(i);
+                if (getPosition(child) == position) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        public Parcelable onSaveInstanceState() {
+            return null;
+        }
+
+        public void onRestoreInstanceState(Parcelable state) {
+        }
+
+        public void onAdapterChanged(Adapter oldAdapter, Adapter newAdapter) {
+        }
+
+        public void onAttachedToWindow(RecyclerView view) {
+        }
+
+        public void onDetachedFromWindow(RecyclerView view, Recycler recycler) {
+        }
+
+        public void onItemsChanged(RecyclerView recyclerView) {
+        }
+
+        public void onItemsAdded(RecyclerView recyclerView, int positionStart, int itemCount) {
+        }
+
+        public void onItemsRemoved(RecyclerView recyclerView, int positionStart, int itemCount) {
+        }
+
+        public void onItemsUpdated(RecyclerView recyclerView, int positionStart, int itemCount) {
+        }
+
+        public void onItemsMoved(RecyclerView recyclerView, int from, int to, int itemCount) {
+        }
+
+        public void onScrollStateChanged(int state) {
+        }
+
+        public int computeHorizontalScrollOffset(State state) {
+            return 0;
+        }
+
+        public int computeHorizontalScrollExtent(State state) {
+            return 0;
+        }
+
+        public int computeHorizontalScrollRange(State state) {
+            return 0;
+        }
+
+        public int computeVerticalScrollOffset(State state) {
+            return 0;
+        }
+
+        public int computeVerticalScrollExtent(State state) {
+            return 0;
+        }
+
+        public int computeVerticalScrollRange(State state) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package android.util;
+
+/**
+ * Fake host: stands in for the framework interface so the grid code runs on a plain JVM.
+ */
+public interface AttributeSet {
+}
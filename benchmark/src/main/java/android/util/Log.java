@@ -0,0 +1,21 @@
+package android.util;
+
+/**
+ * Fake host: log calls are dropped so they never weigh on the measurements.
+ */
+public final class Log {
+    private Log() {
+    }
+
+    public static int d(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg) {
+        return 0;
+    }
+}
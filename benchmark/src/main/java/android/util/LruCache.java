@@ -0,0 +1,60 @@
+package android.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fake host: the framework cache, least recently used entries are evicted past the maximum size.
+ */
+public class LruCache<K, V> {
+    private final LinkedHashMap<K, V> mMap = new LinkedHashMap<>(0, 0.75f, true);
+    private final int mMaxSize;
+    private int mSize;
+
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        mMaxSize = maxSize;
+    }
+
+    public final V get(K key) {
+        return mMap.get(key);
+    }
+
+    public final V put(K key, V value) {
+        mSize += sizeOf(key, value);
+        final V previous = mMap.put(key, value);
+        if (previous != null) {
+            mSize -= sizeOf(key, previous);
+        }
+        trimToSize(mMaxSize);
+        return previous;
+    }
+
+    public void trimToSize(int maxSize) {
+        final Iterator<Map.Entry<K, V>> entries = mMap.entrySet().iterator();
+        while (mSize > maxSize && entries.hasNext()) {
+            final Map.Entry<K, V> eldest = entries.next();
+            mSize -= sizeOf(eldest.getKey(), eldest.getValue());
+            entries.remove();
+        }
+    }
+
+    public final void evictAll() {
+        trimToSize(-1);
+    }
+
+    public final int size() {
+        return mSize;
+    }
+
+    public final int maxSize() {
+        return mMaxSize;
+    }
+
+    protected int sizeOf(K key, V value) {
+        return 1;
+    }
+}
@@ -0,0 +1,68 @@
+package android.util;
+
+import java.util.Arrays;
+
+/**
+ * Fake host: the framework map of int keys to int values, keys kept sorted for binary search.
+ */
+public class SparseIntArray {
+    private int[] mKeys = new int[4];
+    private int[] mValues = new int[4];
+    private int mSize;
+
+    public int get(int key) {
+        return get(key, 0);
+    }
+
+    public int get(int key, int valueIfKeyNotFound) {
+        final int index = indexOfKey(key);
+        return index < 0 ? valueIfKeyNotFound : mValues[index];
+    }
+
+    public void put(int key, int value) {
+        int index = indexOfKey(key);
+        if (index >= 0) {
+            mValues[index] = value;
+            return;
+        }
+        index = ~index;
+        if (mSize == mKeys.length) {
+            mKeys = Arrays.copyOf(mKeys, mSize * 2);
+            mValues = Arrays.copyOf(mValues, mSize * 2);
+        }
+        System.arraycopy(mKeys, index, mKeys, index + 1, mSize - index);
+        System.arraycopy(mValues, index, mValues, index + 1, mSize - index);
+        mKeys[index] = key;
+        mValues[index] = value;
+        mSize++;
+    }
+
+    public void delete(int key) {
+        final int index = indexOfKey(key);
+        if (index >= 0) {
+            System.arraycopy(mKeys, index + 1, mKeys, index, mSize - index - 1);
+            System.arraycopy(mValues, index + 1, mValues, index, mSize - index - 1);
+            mSize--;
+        }
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public int keyAt(int index) {
+        return mKeys[index];
+    }
+
+    public int valueAt(int index) {
+        return mValues[index];
+    }
+
+    public int indexOfKey(int key) {
+        return Arrays.binarySearch(mKeys, 0, mSize, key);
+    }
+
+    public void clear() {
+        mSize = 0;
+    }
+}
@@ -0,0 +1,68 @@
+package android.view;
+
+/**
+ * Fake host: a single pointer event, enough for the listeners that follow drags.
+ */
+public final class MotionEvent {
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+    public static final int ACTION_POINTER_DOWN = 5;
+    public static final int ACTION_POINTER_UP = 6;
+
+    private final long mEventTime;
+    private final int mAction;
+    private final float mX;
+    private final float mY;
+
+    private MotionEvent(long eventTime, int action, float x, float y) {
+        mEventTime = eventTime;
+        mAction = action;
+        mX = x;
+        mY = y;
+    }
+
+    public static MotionEvent obtain(long downTime, long eventTime, int action, float x, float y, int metaState) {
+        return new MotionEvent(eventTime, action, x, y);
+    }
+
+    public long getEventTime() {
+        return mEventTime;
+    }
+
+    public int getActionMasked() {
+        return mAction;
+    }
+
+    public int getActionIndex() {
+        return 0;
+    }
+
+    public int getPointerId(int pointerIndex) {
+        return 0;
+    }
+
+    public int findPointerIndex(int pointerId) {
+        return pointerId == 0 ? 0 : -1;
+    }
+
+    public float getX() {
+        return mX;
+    }
+
+    public float getY() {
+        return mY;
+    }
+
+    public float getX(int pointerIndex) {
+        return mX;
+    }
+
+    public float getY(int pointerIndex) {
+        return mY;
+    }
+
+    public void recycle() {
+    }
+}
@@ -0,0 +1,196 @@
+package android.view;
+
+import android.content.Context;
+
+/**
+ * Fake host: keeps the bounds, the measured size and the layout params of a view.
+ * Measuring a view resolves to its minimum size unless the spec or the layout params fix it.
+ * Measure passes are counted for the replay harness.
+ */
+public class View {
+    //Measure passes of all views since the last reset
+    public static int sMeasureCount;
+
+    private final Context mContext;
+    private ViewGroup.LayoutParams mLayoutParams;
+    private int mLeft;
+    private int mTop;
+    private int mRight;
+    private int mBottom;
+    private int mMeasuredWidth;
+    private int mMeasuredHeight;
+    private int mMinWidth;
+    private int mMinHeight;
+    private boolean mLayoutRequested = true;
+    private float mScaleX = 1f;
+    private float mScaleY = 1f;
+    private float mPivotX;
+    private float mPivotY;
+    private float mTranslationX;
+    private float mTranslationY;
+
+    public static class MeasureSpec {
+        private static final int MODE_SHIFT = 30;
+        private static final int MODE_MASK = 0x3 << MODE_SHIFT;
+        public static final int UNSPECIFIED = 0;
+        public static final int EXACTLY = 1 << MODE_SHIFT;
+        public static final int AT_MOST = 2 << MODE_SHIFT;
+
+        public static int makeMeasureSpec(int size, int mode) {
+            return (size & ~MODE_MASK) | (mode & MODE_MASK);
+        }
+
+        public static int getMode(int measureSpec) {
+            return measureSpec & MODE_MASK;
+        }
+
+        public static int getSize(int measureSpec) {
+            return measureSpec & ~MODE_MASK;
+        }
+    }
+
+    public View(Context context) {
+        mContext = context;
+    }
+
+    public Context getContext() {
+        return mContext;
+    }
+
+    public ViewGroup.LayoutParams getLayoutParams() {
+        return mLayoutParams;
+    }
+
+    public void setLayoutParams(ViewGroup.LayoutParams params) {
+        mLayoutParams = params;
+    }
+
+    public void setMinimumWidth(int minWidth) {
+        mMinWidth = minWidth;
+    }
+
+    public void setMinimumHeight(int minHeight) {
+        mMinHeight = minHeight;
+    }
+
+    public final void measure(int widthMeasureSpec, int heightMeasureSpec) {
+        sMeasureCount++;
+        mMeasuredWidth = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.EXACTLY
+                ? MeasureSpec.getSize(widthMeasureSpec) : resolveWidth();
+        mMeasuredHeight = MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.EXACTLY
+                ? MeasureSpec.getSize(heightMeasureSpec) : resolveHeight();
+    }
+
+    private int resolveWidth() {
+        return mLayoutParams != null && mLayoutParams.width > 0 ? mLayoutParams.width : mMinWidth;
+    }
+
+    private int resolveHeight() {
+        return mLayoutParams != null && mLayoutParams.height > 0 ? mLayoutParams.height : mMinHeight;
+    }
+
+    public boolean isLayoutRequested() {
+        return mLayoutRequested;
+    }
+
+    public final int getMeasuredWidth() {
+        return mMeasuredWidth;
+    }
+
+    public final int getMeasuredHeight() {
+        return mMeasuredHeight;
+    }
+
+    public void draw(android.graphics.Canvas canvas) {
+        canvas.record(this, 0, 0, getWidth(), getHeight());
+    }
+
+    public void layout(int l, int t, int r, int b) {
+        mLayoutRequested = false;
+        mLeft = l;
+        mTop = t;
+        mRight = r;
+        mBottom = b;
+    }
+
+    public void offsetLeftAndRight(int offset) {
+        mLeft += offset;
+        mRight += offset;
+    }
+
+    public void offsetTopAndBottom(int offset) {
+        mTop += offset;
+        mBottom += offset;
+    }
+
+    public final int getLeft() {
+        return mLeft;
+    }
+
+    public final int getTop() {
+        return mTop;
+    }
+
+    public final int getRight() {
+        return mRight;
+    }
+
+    public final int getBottom() {
+        return mBottom;
+    }
+
+    public final int getWidth() {
+        return mRight - mLeft;
+    }
+
+    public final int getHeight() {
+        return mBottom - mTop;
+    }
+
+    public float getScaleX() {
+        return mScaleX;
+    }
+
+    public void setScaleX(float scaleX) {
+        mScaleX = scaleX;
+    }
+
+    public float getScaleY() {
+        return mScaleY;
+    }
+
+    public void setScaleY(float scaleY) {
+        mScaleY = scaleY;
+    }
+
+    public void setPivotX(float pivotX) {
+        mPivotX = pivotX;
+    }
+
+    public void setPivotY(float pivotY) {
+        mPivotY = pivotY;
+    }
+
+    public float getTranslationX() {
+        return mTranslationX;
+    }
+
+    public void setTranslationX(float translationX) {
+        mTranslationX = translationX;
+    }
+
+    public float getTranslationY() {
+        return mTranslationY;
+    }
+
+    public void setTranslationY(float translationY) {
+        mTranslationY = translationY;
+    }
+
+    public void requestLayout() {
+        mLayoutRequested = true;
+    }
+
+    public void invalidate() {
+    }
+}
@@ -0,0 +1,18 @@
+package android.view;
+
+import android.content.Context;
+
+/**
+ * Fake host: framework defaults at a density of 1.
+ */
+public class ViewConfiguration {
+    private static final ViewConfiguration sDefault = new ViewConfiguration();
+
+    public static ViewConfiguration get(Context context) {
+        return sDefault;
+    }
+
+    public int getScaledTouchSlop() {
+        return 8;
+    }
+}
@@ -0,0 +1,60 @@
+package android.view;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+/**
+ * Fake host: stands in for the framework class so the grid code runs on a plain JVM.
+ */
+public abstract class ViewGroup extends View {
+    public ViewGroup(Context context) {
+        super(context);
+    }
+
+    public static class LayoutParams {
+        public static final int MATCH_PARENT = -1;
+        public static final int WRAP_CONTENT = -2;
+        public int width;
+        public int height;
+
+        public LayoutParams(Context c, AttributeSet attrs) {
+            this(WRAP_CONTENT, WRAP_CONTENT);
+        }
+
+        public LayoutParams(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        public LayoutParams(LayoutParams source) {
+            this(source.width, source.height);
+        }
+    }
+
+    public static class MarginLayoutParams extends LayoutParams {
+        public int leftMargin;
+        public int topMargin;
+        public int rightMargin;
+        public int bottomMargin;
+
+        public MarginLayoutParams(Context c, AttributeSet attrs) {
+            super(c, attrs);
+        }
+
+        public MarginLayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public MarginLayoutParams(MarginLayoutParams source) {
+            super(source);
+            leftMargin = source.leftMargin;
+            topMargin = source.topMargin;
+            rightMargin = source.rightMargin;
+            bottomMargin = source.bottomMargin;
+        }
+
+        public MarginLayoutParams(LayoutParams source) {
+            super(source);
+        }
+    }
+}
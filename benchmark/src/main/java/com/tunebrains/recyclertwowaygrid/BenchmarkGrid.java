@@ -0,0 +1,107 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * A headless RecyclerView driven by TwoWayGridLayoutManager over a grid of fixed size cells.
+ */
+final class BenchmarkGrid {
+    static final int CELL_WIDTH = 200;
+    static final int CELL_HEIGHT = 120;
+    static final int TYPE_CELL = 0;
+    static final int TYPE_PLACEHOLDER = 1;
+    final RecyclerView mRecyclerView;
+    final TwoWayGridLayoutManager mLayoutManager;
+    final CellAdapter mAdapter;
+
+    BenchmarkGrid(String pGridSize, String pViewportSize) {
+        final int[] grid = parseSize(pGridSize);
+        final int[] viewport = parseSize(pViewportSize);
+        mRecyclerView = new RecyclerView(new Context());
+        mLayoutManager = new TwoWayGridLayoutManager();
+        mAdapter = new CellAdapter(grid[0], grid[1]);
+        mRecyclerView.setLayoutManager(mLayoutManager);
+        mRecyclerView.setAdapter(mAdapter);
+        mRecyclerView.layout(0, 0, viewport[0], viewport[1]);
+    }
+
+    /**
+     * Moves the window to the middle of the grid so steps in every direction have room.
+     */
+    void scrollToCenter() {
+        mRecyclerView.scrollToPosition(mAdapter.getPosition(mAdapter.getRowCount() / 2, mAdapter.getColumnCount() / 2));
+    }
+
+    /**
+     * @return width and height, or rows and columns, from a "WxH" string
+     */
+    static int[] parseSize(String pSize) {
+        final int separator = pSize.indexOf('x');
+        return new int[]{Integer.parseInt(pSize.substring(0, separator)), Integer.parseInt(pSize.substring(separator + 1))};
+    }
+
+    static final class CellHolder extends RecyclerView.ViewHolder {
+        int mRow;
+        int mColumn;
+        boolean mSelected;
+        //Full binds and selection only binds of this holder
+        int mBinds;
+        int mSelectionBinds;
+
+        CellHolder(View itemView) {
+            super(itemView);
+        }
+    }
+
+    static final class CellAdapter extends TwoWayGridAdapter<CellHolder> {
+        private final int mRowCount;
+        private final int mColumnCount;
+        //Rows come in bands of this many, every other band holds compact placeholders, 0 for one view type
+        int mPlaceholderBand;
+
+        CellAdapter(int pRowCount, int pColumnCount) {
+            mRowCount = pRowCount;
+            mColumnCount = pColumnCount;
+        }
+
+        @Override
+        public CellHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            View view = new View(parent.getContext());
+            view.setMinimumWidth(viewType == TYPE_PLACEHOLDER ? CELL_WIDTH / 2 : CELL_WIDTH);
+            view.setMinimumHeight(viewType == TYPE_PLACEHOLDER ? CELL_HEIGHT / 2 : CELL_HEIGHT);
+            return new CellHolder(view);
+        }
+
+        @Override
+        public int getCellViewType(int pRow, int pColumn) {
+            return mPlaceholderBand > 0 && pRow / mPlaceholderBand % 2 == 1 ? TYPE_PLACEHOLDER : TYPE_CELL;
+        }
+
+        @Override
+        public void onBindCell(CellHolder pHolder, int pRow, int pColumn) {
+            pHolder.mRow = pRow;
+            pHolder.mColumn = pColumn;
+            pHolder.mSelected = isCellSelected(pRow, pColumn);
+            pHolder.mBinds++;
+        }
+
+        @Override
+        public void onBindCellSelection(CellHolder pHolder, int pRow, int pColumn, boolean pSelected) {
+            pHolder.mSelected = pSelected;
+            pHolder.mSelectionBinds++;
+        }
+
+        @Override
+        public int getRowCount() {
+            return mRowCount;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return mColumnCount;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.Random;
+
+/**
+ * A headless RecyclerView driven by IntervalLayoutManager over a program guide:
+ * rows of back to back programs with random durations.
+ */
+final class BenchmarkGuide {
+    static final int ROW_HEIGHT = 120;
+    //Shortest and longest program in pixels
+    static final int MIN_DURATION = 50;
+    static final int MAX_DURATION = 600;
+    final RecyclerView mRecyclerView;
+    final IntervalLayoutManager mLayoutManager;
+    final ProgramAdapter mAdapter;
+
+    /**
+     * @param pGuideSize rows and programs per row as "RxN"
+     */
+    BenchmarkGuide(String pGuideSize, String pViewportSize) {
+        final int[] guide = BenchmarkGrid.parseSize(pGuideSize);
+        final int[] viewport = BenchmarkGrid.parseSize(pViewportSize);
+        mRecyclerView = new RecyclerView(new Context());
+        mLayoutManager = new IntervalLayoutManager(ROW_HEIGHT);
+        mAdapter = new ProgramAdapter(guide[0], guide[1], new Random(42));
+        mRecyclerView.setLayoutManager(mLayoutManager);
+        mRecyclerView.setAdapter(mAdapter);
+        mRecyclerView.layout(0, 0, viewport[0], viewport[1]);
+    }
+
+    /**
+     * Moves the window to the middle of the guide so steps in every direction have room.
+     */
+    void scrollToCenter() {
+        final int row = mAdapter.getRowCount() / 2;
+        mRecyclerView.scrollToPosition(mAdapter.getPosition(row, mAdapter.getRowItemCount(row) / 2));
+    }
+
+    static final class ProgramHolder extends RecyclerView.ViewHolder {
+        int mRow;
+        int mIndex;
+
+        ProgramHolder(View itemView) {
+            super(itemView);
+        }
+    }
+
+    static final class ProgramAdapter extends IntervalAdapter<ProgramHolder> {
+        //Program boundaries of every row, program i runs from mBounds[row][i] to mBounds[row][i + 1]
+        private final int[][] mBounds;
+
+        ProgramAdapter(int pRowCount, int pProgramCount, Random pRandom) {
+            mBounds = new int[pRowCount][pProgramCount + 1];
+            for (int[] bounds : mBounds) {
+                for (int i = 1; i <= pProgramCount; i++) {
+                    bounds[i] = bounds[i - 1] + MIN_DURATION + pRandom.nextInt(MAX_DURATION - MIN_DURATION);
+                }
+            }
+        }
+
+        @Override
+        public ProgramHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            return new ProgramHolder(new View(parent.getContext()));
+        }
+
+        @Override
+        public void onBindItem(ProgramHolder pHolder, int pRow, int pIndex) {
+            pHolder.mRow = pRow;
+            pHolder.mIndex = pIndex;
+        }
+
+        @Override
+        public int getRowCount() {
+            return mBounds.length;
+        }
+
+        @Override
+        public int getRowItemCount(int pRow) {
+            return mBounds[pRow].length - 1;
+        }
+
+        @Override
+        public int getItemStart(int pRow, int pIndex) {
+            return mBounds[pRow][pIndex];
+        }
+
+        @Override
+        public int getItemEnd(int pRow, int pIndex) {
+            return mBounds[pRow][pIndex + 1];
+        }
+    }
+}
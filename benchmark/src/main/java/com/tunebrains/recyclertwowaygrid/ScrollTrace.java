@@ -0,0 +1,144 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A recorded gesture as one entry per frame: a scroll by dx/dy, or a jump to an adapter position.
+ * Text traces hold one frame per line, "dx dy", "drag dx dy" or "jump position", blank lines
+ * and # comments are skipped. Drag frames are replayed with a finger down, the others as flings.
+ */
+final class ScrollTrace {
+    //Frame time of a 60 fps display
+    static final long FRAME_NANOS = 16666667L;
+    private static final float FLING_FRICTION = 0.95f;
+
+    static final class Frame {
+        final int mDx;
+        final int mDy;
+        //Adapter position for a jump, NO_POSITION for a scroll
+        final int mJumpPosition;
+        final boolean mDrag;
+
+        Frame(int pDx, int pDy, int pJumpPosition, boolean pDrag) {
+            mDx = pDx;
+            mDy = pDy;
+            mJumpPosition = pJumpPosition;
+            mDrag = pDrag;
+        }
+
+        boolean isJump() {
+            return mJumpPosition >= 0;
+        }
+    }
+
+    private final String mName;
+    private final List<Frame> mFrames = new ArrayList<>();
+
+    ScrollTrace(String pName) {
+        mName = pName;
+    }
+
+    String getName() {
+        return mName;
+    }
+
+    List<Frame> getFrames() {
+        return Collections.unmodifiableList(mFrames);
+    }
+
+    ScrollTrace scroll(int pDx, int pDy) {
+        mFrames.add(new Frame(pDx, pDy, -1, false));
+        return this;
+    }
+
+    ScrollTrace dragStep(int pDx, int pDy) {
+        mFrames.add(new Frame(pDx, pDy, -1, true));
+        return this;
+    }
+
+    ScrollTrace jump(int pPosition) {
+        mFrames.add(new Frame(0, 0, pPosition, false));
+        return this;
+    }
+
+    /**
+     * A constant speed drag, in pixels per frame.
+     */
+    ScrollTrace drag(int pDx, int pDy, int pFrameCount) {
+        for (int i = 0; i < pFrameCount; i++) {
+            dragStep(pDx, pDy);
+        }
+        return this;
+    }
+
+    /**
+     * A fling decelerating from the initial velocity, in pixels per second, until it stops.
+     */
+    ScrollTrace fling(float pVelocityX, float pVelocityY) {
+        float velocityX = pVelocityX / 60f;
+        float velocityY = pVelocityY / 60f;
+        float remainderX = 0;
+        float remainderY = 0;
+        while (Math.abs(velocityX) >= 1f || Math.abs(velocityY) >= 1f) {
+            remainderX += velocityX;
+            remainderY += velocityY;
+            int dx = (int) remainderX;
+            int dy = (int) remainderY;
+            remainderX -= dx;
+            remainderY -= dy;
+            scroll(dx, dy);
+            velocityX *= FLING_FRICTION;
+            velocityY *= FLING_FRICTION;
+        }
+        return this;
+    }
+
+    static ScrollTrace read(String pName, Reader pReader) throws IOException {
+        final ScrollTrace trace = new ScrollTrace(pName);
+        final BufferedReader reader = new BufferedReader(pReader);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            final String[] parts = line.split("\\s+");
+            try {
+                if (parts.length == 2 && "jump".equals(parts[0])) {
+                    trace.jump(Integer.parseInt(parts[1]));
+                } else if (parts.length == 3 && "drag".equals(parts[0])) {
+                    trace.dragStep(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                } else if (parts.length == 2) {
+                    trace.scroll(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+                } else {
+                    throw new IOException(pName + ":" + lineNumber + ": expected \"dx dy\", \"drag dx dy\" or \"jump position\"");
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException(pName + ":" + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * Flings on both axes, diagonal drags and long jumps over a grid of the given size.
+     */
+    static ScrollTrace standard(int pRowCount, int pColumnCount) {
+        final ScrollTrace trace = new ScrollTrace("standard");
+        trace.fling(0, 12000).fling(0, -12000);
+        trace.fling(9000, 0).fling(-9000, 0);
+        trace.drag(25, 40, 120).drag(-25, -40, 120);
+        trace.fling(8000, 8000).fling(-8000, -8000);
+        trace.jump(pRowCount / 2 * pColumnCount + pColumnCount / 2).fling(-6000, 10000);
+        trace.jump(pRowCount * pColumnCount - 1).fling(-12000, -12000);
+        trace.jump(0);
+        return trace;
+    }
+}
@@ -0,0 +1,147 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays scroll traces against every grid setup and prints the per-setup summaries.
+ * Usage: [--grid RxC] [--viewport WxH] [--frames] [--warmup N] [trace files...]
+ * Without trace files the standard trace of flings, diagonal drags and jumps is replayed.
+ */
+public final class TraceReplayMain {
+    //Layout strategies compared on identical inputs
+    private enum GridSetup {
+        UNIFORM {
+            @Override
+            void apply(BenchmarkGrid pGrid) {
+            }
+        },
+        VARIABLE_SIZES {
+            @Override
+            void apply(BenchmarkGrid pGrid) {
+                pGrid.mLayoutManager.setRowHeightLookup(new TwoWayGridLayoutManager.SizeLookup() {
+                    @Override
+                    public int getSize(int pIndex) {
+                        return BenchmarkGrid.CELL_HEIGHT / 2 + pIndex % BenchmarkGrid.CELL_HEIGHT;
+                    }
+                });
+                pGrid.mLayoutManager.setColumnWidthLookup(new TwoWayGridLayoutManager.SizeLookup() {
+                    @Override
+                    public int getSize(int pIndex) {
+                        return BenchmarkGrid.CELL_WIDTH / 2 + pIndex % BenchmarkGrid.CELL_WIDTH;
+                    }
+                });
+            }
+        },
+        FROZEN_HEADERS {
+            @Override
+            void apply(BenchmarkGrid pGrid) {
+                pGrid.mLayoutManager.setFrozenRowCount(1);
+                pGrid.mLayoutManager.setFrozenColumnCount(1);
+            }
+        },
+        FIXED_CELL_SIZE {
+            @Override
+            void apply(BenchmarkGrid pGrid) {
+                pGrid.mLayoutManager.setFixedCellSize(BenchmarkGrid.CELL_WIDTH, BenchmarkGrid.CELL_HEIGHT);
+            }
+        },
+        ZOOMED_OUT {
+            @Override
+            void apply(BenchmarkGrid pGrid) {
+                pGrid.mLayoutManager.setZoom(0.25f);
+            }
+        },
+        NO_PREFETCH {
+            @Override
+            void apply(BenchmarkGrid pGrid) {
+                pGrid.mLayoutManager.setPrefetchDepth(0);
+            }
+        },
+        AXIS_LOCK {
+            @Override
+            void apply(BenchmarkGrid pGrid) {
+                pGrid.mLayoutManager.setAxisLockEnabled(true);
+            }
+        },
+        FLING_SNAPSHOTS {
+            @Override
+            void apply(BenchmarkGrid pGrid) {
+                pGrid.mLayoutManager.setFlingSnapshots(6000f, 16 * 1024 * 1024);
+            }
+        },
+        MIXED_VIEW_TYPES {
+            @Override
+            void apply(BenchmarkGrid pGrid) {
+                //The first band holds regular cells, the layout made before the setup stays valid
+                pGrid.mAdapter.mPlaceholderBand = 40;
+                pGrid.mLayoutManager.setViewTypeCellSize(BenchmarkGrid.TYPE_CELL,
+                        BenchmarkGrid.CELL_WIDTH, BenchmarkGrid.CELL_HEIGHT);
+                pGrid.mLayoutManager.setViewTypeCellSize(BenchmarkGrid.TYPE_PLACEHOLDER,
+                        BenchmarkGrid.CELL_WIDTH / 2, BenchmarkGrid.CELL_HEIGHT / 2);
+            }
+        };
+
+        abstract void apply(BenchmarkGrid pGrid);
+    }
+
+    private TraceReplayMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String gridSize = "10000x1000";
+        String viewportSize = "1080x1920";
+        boolean printFrames = false;
+        int warmup = 3;
+        final List<String> traceFiles = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--grid".equals(args[i])) {
+                gridSize = args[++i];
+            } else if ("--viewport".equals(args[i])) {
+                viewportSize = args[++i];
+            } else if ("--frames".equals(args[i])) {
+                printFrames = true;
+            } else if ("--warmup".equals(args[i])) {
+                warmup = Integer.parseInt(args[++i]);
+            } else {
+                traceFiles.add(args[i]);
+            }
+        }
+        final int[] grid = BenchmarkGrid.parseSize(gridSize);
+        final List<ScrollTrace> traces = new ArrayList<>();
+        if (traceFiles.isEmpty()) {
+            traces.add(ScrollTrace.standard(grid[0], grid[1]));
+        }
+        for (String file : traceFiles) {
+            try (Reader reader = new FileReader(file)) {
+                traces.add(ScrollTrace.read(file, reader));
+            }
+        }
+
+        System.out.println("grid " + gridSize + ", viewport " + viewportSize);
+        for (ScrollTrace trace : traces) {
+            for (GridSetup setup : GridSetup.values()) {
+                //Warm the JIT on the same input so the reported run is not dominated by compilation
+                for (int i = 0; i < warmup; i++) {
+                    TraceReplayer.replay(setup.name(), createGrid(setup, gridSize, viewportSize), trace);
+                }
+                final TraceReplayer.Report report = TraceReplayer.replay(trace.getName() + "/" + setup.name(),
+                        createGrid(setup, gridSize, viewportSize), trace);
+                report.printSummary(System.out);
+                if (printFrames) {
+                    report.printFrames(System.out);
+                }
+            }
+        }
+    }
+
+    private static BenchmarkGrid createGrid(GridSetup pSetup, String pGridSize, String pViewportSize) {
+        final BenchmarkGrid grid = new BenchmarkGrid(pGridSize, pViewportSize);
+        pSetup.apply(grid);
+        grid.mRecyclerView.dispatchLayout();
+        return grid;
+    }
+}
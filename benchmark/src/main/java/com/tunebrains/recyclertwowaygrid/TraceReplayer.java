@@ -0,0 +1,145 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Replays a scroll trace frame by frame against a headless grid and reports the host work
+ * and the layout time of every frame.
+ */
+final class TraceReplayer {
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 100};
+
+    static final class FrameReport {
+        int mDx;
+        int mDy;
+        int mJumpPosition;
+        long mNanos;
+        int mInflations;
+        int mBinds;
+        int mRecycles;
+        int mAttaches;
+        int mDetaches;
+        int mMeasures;
+        int mChildCount;
+    }
+
+    static final class Report {
+        final String mName;
+        final List<FrameReport> mFrames = new ArrayList<>();
+
+        Report(String pName) {
+            mName = pName;
+        }
+
+        long percentileNanos(double pPercentile) {
+            if (mFrames.isEmpty()) {
+                return 0;
+            }
+            final long[] nanos = new long[mFrames.size()];
+            for (int i = 0; i < nanos.length; i++) {
+                nanos[i] = mFrames.get(i).mNanos;
+            }
+            Arrays.sort(nanos);
+            final int index = (int) Math.ceil(pPercentile / 100 * nanos.length) - 1;
+            return nanos[Math.max(0, Math.min(nanos.length - 1, index))];
+        }
+
+        int framesOverBudget() {
+            int count = 0;
+            for (FrameReport frame : mFrames) {
+                if (frame.mNanos > ScrollTrace.FRAME_NANOS) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        void printFrames(PrintStream pOut) {
+            pOut.println("frame,dx,dy,jump,micros,inflations,binds,recycles,attaches,detaches,measures,children");
+            for (int i = 0; i < mFrames.size(); i++) {
+                final FrameReport frame = mFrames.get(i);
+                pOut.println(i + "," + frame.mDx + "," + frame.mDy + "," + frame.mJumpPosition + ","
+                        + frame.mNanos / 1000 + "," + frame.mInflations + "," + frame.mBinds + ","
+                        + frame.mRecycles + "," + frame.mAttaches + "," + frame.mDetaches + ","
+                        + frame.mMeasures + "," + frame.mChildCount);
+            }
+        }
+
+        void printSummary(PrintStream pOut) {
+            int inflations = 0;
+            int binds = 0;
+            int recycles = 0;
+            int attaches = 0;
+            int detaches = 0;
+            int measures = 0;
+            for (FrameReport frame : mFrames) {
+                inflations += frame.mInflations;
+                binds += frame.mBinds;
+                recycles += frame.mRecycles;
+                attaches += frame.mAttaches;
+                detaches += frame.mDetaches;
+                measures += frame.mMeasures;
+            }
+            final StringBuilder line = new StringBuilder(mName).append(": ").append(mFrames.size()).append(" frames");
+            for (double percentile : PERCENTILES) {
+                line.append(percentile == 100 ? ", max " : ", p" + (int) percentile + " ")
+                        .append(percentileNanos(percentile) / 1000).append("us");
+            }
+            line.append(", over 16ms ").append(framesOverBudget());
+            line.append(" | inflations ").append(inflations).append(", binds ").append(binds)
+                    .append(", recycles ").append(recycles).append(", attaches ").append(attaches)
+                    .append(", detaches ").append(detaches).append(", measures ").append(measures);
+            pOut.println(line);
+        }
+    }
+
+    private TraceReplayer() {
+    }
+
+    /**
+     * The grid is expected to be laid out already, counters are reset before the first frame.
+     */
+    static Report replay(String pName, BenchmarkGrid pGrid, ScrollTrace pTrace) {
+        final RecyclerView recyclerView = pGrid.mRecyclerView;
+        final RecyclerView.Counters counters = recyclerView.getCounters();
+        final Report report = new Report(pName);
+        for (ScrollTrace.Frame frame : pTrace.getFrames()) {
+            if (frame.isJump()) {
+                recyclerView.stopScroll();
+            } else if (frame.mDrag && recyclerView.getScrollState() != RecyclerView.SCROLL_STATE_DRAGGING) {
+                recyclerView.startDrag();
+            }
+            counters.reset();
+            View.sMeasureCount = 0;
+            final long start = System.nanoTime();
+            if (frame.isJump()) {
+                recyclerView.scrollToPosition(Math.min(frame.mJumpPosition, pGrid.mAdapter.getItemCount() - 1));
+            } else if (frame.mDrag) {
+                recyclerView.dragBy(frame.mDx, frame.mDy);
+            } else {
+                recyclerView.flingBy(frame.mDx, frame.mDy);
+            }
+            final FrameReport frameReport = new FrameReport();
+            frameReport.mNanos = System.nanoTime() - start;
+            frameReport.mDx = frame.mDx;
+            frameReport.mDy = frame.mDy;
+            frameReport.mJumpPosition = frame.mJumpPosition;
+            frameReport.mInflations = counters.inflations;
+            frameReport.mBinds = counters.binds;
+            frameReport.mRecycles = counters.recycles;
+            frameReport.mAttaches = counters.attaches;
+            frameReport.mDetaches = counters.detaches;
+            frameReport.mMeasures = View.sMeasureCount;
+            frameReport.mChildCount = pGrid.mLayoutManager.getChildCount();
+            report.mFrames.add(frameReport);
+        }
+        recyclerView.stopScroll();
+        return report;
+    }
+}
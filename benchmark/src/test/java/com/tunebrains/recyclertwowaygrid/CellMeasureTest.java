@@ -0,0 +1,93 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Cells laid out at a size other than their natural one are measured at that size.
+ */
+public class CellMeasureTest {
+    private static final TwoWayGridLayoutManager.SizeLookup ROW_HEIGHTS = new TwoWayGridLayoutManager.SizeLookup() {
+        @Override
+        public int getSize(int pIndex) {
+            return BenchmarkGrid.CELL_HEIGHT / 2 + pIndex % 3 * BenchmarkGrid.CELL_HEIGHT / 2;
+        }
+    };
+    private static final TwoWayGridLayoutManager.SizeLookup COLUMN_WIDTHS = new TwoWayGridLayoutManager.SizeLookup() {
+        @Override
+        public int getSize(int pIndex) {
+            return BenchmarkGrid.CELL_WIDTH + pIndex % 4 * 40;
+        }
+    };
+
+    @Test
+    public void rowAndColumnLookupsMeasureExactly() {
+        final BenchmarkGrid grid = new BenchmarkGrid("200x200", "1080x1920");
+        grid.mLayoutManager.setRowHeightLookup(ROW_HEIGHTS);
+        grid.mLayoutManager.setColumnWidthLookup(COLUMN_WIDTHS);
+        assertMeasuredWhileScrolling(grid);
+    }
+
+    @Test
+    public void rowLookupAloneMeasuresExactly() {
+        final BenchmarkGrid grid = new BenchmarkGrid("200x200", "1080x1920");
+        grid.mLayoutManager.setRowHeightLookup(ROW_HEIGHTS);
+        assertMeasuredWhileScrolling(grid);
+    }
+
+    @Test
+    public void zoomedCellsMeasureExactly() {
+        final BenchmarkGrid grid = new BenchmarkGrid("200x200", "1080x1920");
+        //Cells attached at full size are measured again too
+        grid.mRecyclerView.dispatchLayout();
+        grid.mLayoutManager.setZoom(0.5f);
+        assertMeasuredWhileScrolling(grid);
+    }
+
+    @Test
+    public void spanningCellsMeasureExactly() {
+        final BenchmarkGrid grid = new BenchmarkGrid("200x200", "1080x1920");
+        grid.mLayoutManager.setSpanLookup(new TwoWayGridLayoutManager.SpanLookup() {
+            @Override
+            public int getRowSpan(int pPosition) {
+                return pPosition % 7 == 0 ? 2 : 1;
+            }
+
+            @Override
+            public int getColumnSpan(int pPosition) {
+                return pPosition % 5 == 0 ? 2 : 1;
+            }
+        });
+        assertMeasuredWhileScrolling(grid);
+    }
+
+    @Test
+    public void resizedRowIsMeasuredAgain() {
+        final int[] heights = {BenchmarkGrid.CELL_HEIGHT};
+        final BenchmarkGrid grid = new BenchmarkGrid("200x200", "1080x1920");
+        grid.mLayoutManager.setRowHeightLookup(new TwoWayGridLayoutManager.SizeLookup() {
+            @Override
+            public int getSize(int pIndex) {
+                return pIndex == 2 ? heights[0] : BenchmarkGrid.CELL_HEIGHT;
+            }
+        });
+        grid.mRecyclerView.dispatchLayout();
+        heights[0] = BenchmarkGrid.CELL_HEIGHT * 2;
+        grid.mLayoutManager.notifyRowHeightChanged(2);
+        grid.mRecyclerView.dispatchLayout();
+        LayoutAssert.assertMeasuredAsLaidOut("after resizing row 2", grid.mRecyclerView);
+    }
+
+    static void assertMeasuredWhileScrolling(BenchmarkGrid pGrid) {
+        pGrid.mRecyclerView.dispatchLayout();
+        LayoutAssert.assertMeasuredAsLaidOut("first layout", pGrid.mRecyclerView);
+        final Random random = new Random(4);
+        for (int step = 0; step < 500; step++) {
+            final int dx = random.nextInt(4 * BenchmarkGrid.CELL_WIDTH) - 2 * BenchmarkGrid.CELL_WIDTH;
+            final int dy = random.nextInt(4 * BenchmarkGrid.CELL_HEIGHT) - 2 * BenchmarkGrid.CELL_HEIGHT;
+            pGrid.mRecyclerView.scrollBy(dx, dy);
+            LayoutAssert.assertMeasuredAsLaidOut("step " + step, pGrid.mRecyclerView);
+        }
+    }
+}
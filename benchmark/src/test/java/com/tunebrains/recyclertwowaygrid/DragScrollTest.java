@@ -0,0 +1,71 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Drags run through the gesture tracker, which locks near axis gestures onto their axis and
+ * lets the two halves of a diagonal step share one fill pass.
+ */
+public class DragScrollTest {
+    private BenchmarkGrid mGrid;
+    private RecyclerView mRecyclerView;
+
+    @Before
+    public void setUp() {
+        mGrid = new BenchmarkGrid("400x300", "1080x1920");
+        mGrid.mLayoutManager.setAxisLockEnabled(true);
+        mRecyclerView = mGrid.mRecyclerView;
+        mRecyclerView.dispatchLayout();
+    }
+
+    @Test
+    public void lockEndsWhenScrollingSettles() {
+        mRecyclerView.startDrag();
+        mRecyclerView.dragBy(BenchmarkGrid.CELL_WIDTH, 0);
+        mRecyclerView.dragBy(BenchmarkGrid.CELL_WIDTH, BenchmarkGrid.CELL_HEIGHT);
+        assertEquals("horizontal offset while locked", 2 * BenchmarkGrid.CELL_WIDTH,
+                mRecyclerView.computeHorizontalScrollOffset());
+        assertEquals("vertical offset while locked", 0, mRecyclerView.computeVerticalScrollOffset());
+
+        mRecyclerView.stopScroll();
+        mRecyclerView.scrollBy(0, BenchmarkGrid.CELL_HEIGHT);
+        assertEquals("vertical offset once idle", BenchmarkGrid.CELL_HEIGHT, mRecyclerView.computeVerticalScrollOffset());
+    }
+
+    /**
+     * Whichever halves of a step RecyclerView runs, the grid has to be complete after every event.
+     */
+    @Test
+    public void diagonalDragMatchesFullLayout() {
+        final BenchmarkGrid reference = new BenchmarkGrid("400x300", "1080x1920");
+        final Random random = new Random(3);
+        mRecyclerView.startDrag();
+        //Diagonal enough to stay free of the lock
+        mRecyclerView.dragBy(BenchmarkGrid.CELL_WIDTH / 2, BenchmarkGrid.CELL_HEIGHT / 2);
+        reference.mRecyclerView.scrollBy(BenchmarkGrid.CELL_WIDTH / 2, BenchmarkGrid.CELL_HEIGHT / 2);
+        LayoutAssert.assertMatchesFullLayout("first step", mGrid, reference);
+        for (int step = 0; step < 500; step++) {
+            final int dx = random.nextInt(BenchmarkGrid.CELL_WIDTH) - BenchmarkGrid.CELL_WIDTH / 2;
+            final int dy = random.nextInt(BenchmarkGrid.CELL_HEIGHT) - BenchmarkGrid.CELL_HEIGHT / 2;
+            if (random.nextInt(5) == 0) {
+                //The tracker sees the finger move both ways, a nested parent would take the vertical half
+                mGrid.mLayoutManager.onDragStep(dx, dy);
+                mRecyclerView.scrollBy(dx, 0);
+                reference.mRecyclerView.scrollBy(dx, 0);
+            } else {
+                mRecyclerView.dragBy(dx, dy);
+                reference.mRecyclerView.scrollBy(dx, dy);
+            }
+            LayoutAssert.assertMatchesFullLayout("step " + step + " by " + dx + "," + dy, mGrid, reference);
+        }
+        mRecyclerView.stopScroll();
+        LayoutAssert.assertMatchesFullLayout("released", mGrid, reference);
+    }
+}
@@ -0,0 +1,67 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.view.View;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * With a fixed cell size, views already measured at their cell size and not asking for layout
+ * are not measured again when they are reused or rebound.
+ */
+public class FixedCellSizeTest {
+    private static final int STEPS = 40;
+
+    @Test
+    public void reusedViewsAreNotMeasuredAgain() {
+        final BenchmarkGrid grid = createGrid();
+        View.sMeasureCount = 0;
+        for (int i = 0; i < STEPS; i++) {
+            grid.mRecyclerView.scrollBy(0, BenchmarkGrid.CELL_HEIGHT);
+            grid.mRecyclerView.scrollBy(BenchmarkGrid.CELL_WIDTH, 0);
+        }
+        assertEquals("measures over " + 2 * STEPS + " scroll steps", 0, View.sMeasureCount);
+        LayoutAssert.assertMeasuredAsLaidOut("after scrolling", grid.mRecyclerView);
+    }
+
+    @Test
+    public void measuredCellsWithoutFixedSize() {
+        //The same steps in measured mode, one row of 6 and one column of 16 cells per step
+        final BenchmarkGrid grid = new BenchmarkGrid("1000x1000", "1080x1920");
+        grid.mRecyclerView.dispatchLayout();
+        View.sMeasureCount = 0;
+        for (int i = 0; i < STEPS; i++) {
+            grid.mRecyclerView.scrollBy(0, BenchmarkGrid.CELL_HEIGHT);
+            grid.mRecyclerView.scrollBy(BenchmarkGrid.CELL_WIDTH, 0);
+        }
+        assertEquals("measures over " + 2 * STEPS + " scroll steps", STEPS * (6 + 16), View.sMeasureCount);
+    }
+
+    @Test
+    public void reboundViewIsMeasuredOnlyWhenItAsksForLayout() {
+        final BenchmarkGrid grid = createGrid();
+        final View child = grid.mRecyclerView.getChildAt(0);
+        final int position = grid.mLayoutManager.getPosition(child);
+
+        View.sMeasureCount = 0;
+        grid.mRecyclerView.getCounters().reset();
+        grid.mAdapter.notifyItemChanged(position);
+        grid.mRecyclerView.dispatchLayout();
+        assertEquals("binds", 1, grid.mRecyclerView.getCounters().binds);
+        assertEquals("measures of a rebind", 0, View.sMeasureCount);
+
+        child.requestLayout();
+        grid.mAdapter.notifyItemChanged(position);
+        grid.mRecyclerView.dispatchLayout();
+        assertEquals("measures of a rebind asking for layout", 1, View.sMeasureCount);
+        LayoutAssert.assertMeasuredAsLaidOut("after rebinding", grid.mRecyclerView);
+    }
+
+    private static BenchmarkGrid createGrid() {
+        final BenchmarkGrid grid = new BenchmarkGrid("1000x1000", "1080x1920");
+        grid.mLayoutManager.setFixedCellSize(BenchmarkGrid.CELL_WIDTH, BenchmarkGrid.CELL_HEIGHT);
+        grid.mRecyclerView.dispatchLayout();
+        return grid;
+    }
+}
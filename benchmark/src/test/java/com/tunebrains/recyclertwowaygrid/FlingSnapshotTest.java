@@ -0,0 +1,140 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.View;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A fast fling draws snapshots of cell blocks instead of binding cells. Every block drawn has
+ * to show the cells a full layout puts under it, in the same places.
+ */
+public class FlingSnapshotTest {
+    private static final float SNAPSHOT_VELOCITY = 6000f;
+
+    private static final TwoWayGridLayoutManager.SizeLookup ROW_HEIGHTS = new TwoWayGridLayoutManager.SizeLookup() {
+        @Override
+        public int getSize(int pIndex) {
+            return BenchmarkGrid.CELL_HEIGHT / 2 + pIndex % 5 * BenchmarkGrid.CELL_HEIGHT / 4;
+        }
+    };
+    private static final TwoWayGridLayoutManager.SizeLookup COLUMN_WIDTHS = new TwoWayGridLayoutManager.SizeLookup() {
+        @Override
+        public int getSize(int pIndex) {
+            return BenchmarkGrid.CELL_WIDTH / 2 + pIndex % 3 * BenchmarkGrid.CELL_WIDTH / 2;
+        }
+    };
+
+    @Test
+    public void verticalFlingDrawsBlocksAsLaidOut() {
+        assertSnapshotsMatchCells(0, BenchmarkGrid.CELL_HEIGHT * 3 / 2, false);
+    }
+
+    @Test
+    public void diagonalFlingDrawsBlocksAsLaidOut() {
+        assertSnapshotsMatchCells(BenchmarkGrid.CELL_WIDTH / 3, BenchmarkGrid.CELL_HEIGHT / 2, false);
+    }
+
+    @Test
+    public void variableSizesDrawBlocksAsLaidOut() {
+        assertSnapshotsMatchCells(BenchmarkGrid.CELL_WIDTH / 3, BenchmarkGrid.CELL_HEIGHT, true);
+    }
+
+    /**
+     * Captures the blocks of the first window, flings by a few fast steps and compares the
+     * cells drawn in the blocks with the cells of a grid laid out at the same offsets.
+     */
+    private static void assertSnapshotsMatchCells(int pDx, int pDy, boolean pVariableSizes) {
+        final BenchmarkGrid grid = createGrid(pVariableSizes);
+        grid.mLayoutManager.setFlingSnapshots(SNAPSHOT_VELOCITY, 64 * 1024 * 1024);
+        grid.mRecyclerView.dispatchLayout();
+        //Going idle captures the blocks of the window
+        grid.mRecyclerView.startDrag();
+        grid.mRecyclerView.stopScroll();
+
+        //The first step only starts the velocity estimate, the next ones come right after it
+        final int steps = 3;
+        for (int i = 0; i < steps; i++) {
+            grid.mRecyclerView.flingBy(pDx, pDy);
+        }
+        assertEquals("body cells bound during a fast fling", 0, grid.mRecyclerView.getChildCount());
+
+        final BenchmarkGrid reference = createGrid(pVariableSizes);
+        reference.mRecyclerView.dispatchLayout();
+        reference.mRecyclerView.scrollBy(steps * pDx, steps * pDy);
+
+        final Canvas screen = new Canvas();
+        grid.mRecyclerView.draw(screen);
+        final Rect viewport = new Rect(0, 0, grid.mRecyclerView.getWidth(), grid.mRecyclerView.getHeight());
+        final List<Rect> blocks = new ArrayList<>();
+        final List<String> drawn = new ArrayList<>();
+        for (Canvas.Draw draw : screen.getDraws()) {
+            assertTrue("drawn on screen: " + draw.target, draw.target instanceof Bitmap);
+            final Bitmap snapshot = (Bitmap) draw.target;
+            final Rect block = draw.bounds;
+            blocks.add(block);
+            for (Canvas.Draw cell : snapshot.getDraws()) {
+                //From the reduced scale of the snapshot to where the block is drawn
+                final Rect bounds = new Rect(block.left + cell.bounds.left * block.width() / snapshot.getWidth(),
+                        block.top + cell.bounds.top * block.height() / snapshot.getHeight(),
+                        block.left + cell.bounds.right * block.width() / snapshot.getWidth(),
+                        block.top + cell.bounds.bottom * block.height() / snapshot.getHeight());
+                //Blocks reach past the screen, the reference only lays out the cells on it
+                if (intersects(bounds, viewport)) {
+                    drawn.add(describe(bounds));
+                }
+            }
+        }
+        assertFalse("no snapshots drawn", blocks.isEmpty());
+
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < reference.mRecyclerView.getChildCount(); i++) {
+            final View child = reference.mRecyclerView.getChildAt(i);
+            final Rect bounds = new Rect(child.getLeft(), child.getTop(), child.getRight(), child.getBottom());
+            if (insideAny(bounds, blocks)) {
+                expected.add(describe(bounds));
+            }
+        }
+        Collections.sort(expected);
+        Collections.sort(drawn);
+        assertEquals(expected, drawn);
+    }
+
+    private static BenchmarkGrid createGrid(boolean pVariableSizes) {
+        final BenchmarkGrid grid = new BenchmarkGrid("1000x1000", "1080x1920");
+        if (pVariableSizes) {
+            grid.mLayoutManager.setRowHeightLookup(ROW_HEIGHTS);
+            grid.mLayoutManager.setColumnWidthLookup(COLUMN_WIDTHS);
+        }
+        return grid;
+    }
+
+    private static boolean insideAny(Rect pBounds, List<Rect> pBlocks) {
+        for (Rect block : pBlocks) {
+            if (pBounds.left >= block.left && pBounds.right <= block.right
+                    && pBounds.top >= block.top && pBounds.bottom <= block.bottom) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean intersects(Rect pBounds, Rect pOther) {
+        return pBounds.left < pOther.right && pBounds.right > pOther.left
+                && pBounds.top < pOther.bottom && pBounds.bottom > pOther.top;
+    }
+
+    private static String describe(Rect pBounds) {
+        return "[" + pBounds.left + "," + pBounds.top + "," + pBounds.right + "," + pBounds.bottom + "]";
+    }
+}
@@ -0,0 +1,329 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Notifications of a diff replayed on a copy of the old snapshot have to turn it into the new one.
+ */
+public class GridDiffTest {
+    private static final int PAIRS = 500;
+
+    @Test
+    public void randomSnapshotsReplayToNew() {
+        assertRandomSnapshotsReplay(new Random(7), true);
+    }
+
+    @Test
+    public void randomSnapshotsReplayToNewWithoutMoves() {
+        assertRandomSnapshotsReplay(new Random(8), false);
+    }
+
+    @Test
+    public void tooManyOperationsFallBackToDataSetChanged() {
+        //Every other cell changes, no two changes are adjacent
+        final Snapshot oldSnapshot = Snapshot.create(100, 100);
+        final Snapshot newSnapshot = oldSnapshot.copy();
+        for (int row = 0; row < 100; row++) {
+            for (int column = row % 2; column < 100; column += 2) {
+                newSnapshot.mVersions[row][column]++;
+            }
+        }
+        final GridDiff.Result result = GridDiff.calculate(new SnapshotCallback(oldSnapshot, newSnapshot));
+        assertTrue("full rebind", result.isFullRebind());
+        assertEquals("operations", 1, result.getOperationCount());
+
+        final Replay replay = new Replay(oldSnapshot, newSnapshot);
+        result.dispatchUpdatesTo(replay.mAdapter);
+        assertEquals("data set changes", 1, replay.mDataSetChanges);
+        assertEquals("other notifications", 0, replay.mNotifications);
+    }
+
+    private static void assertRandomSnapshotsReplay(Random pRandom, boolean pDetectMoves) {
+        for (int pair = 0; pair < PAIRS; pair++) {
+            final Snapshot oldSnapshot = Snapshot.create(pRandom.nextInt(12), pRandom.nextInt(12));
+            final Snapshot newSnapshot = oldSnapshot.edit(pRandom);
+            final GridDiff.Result result = GridDiff.calculate(new SnapshotCallback(oldSnapshot, newSnapshot), pDetectMoves);
+            final String message = "pair " + pair + " " + oldSnapshot + " -> " + newSnapshot;
+            assertFalse(message + ": full rebind", result.isFullRebind());
+
+            final Replay replay = new Replay(oldSnapshot, newSnapshot);
+            result.dispatchUpdatesTo(replay.mAdapter);
+            assertEquals(message + ": operations", result.getOperationCount(), replay.mNotifications);
+            final List<String> expected = newSnapshot.cells();
+            for (int position = 0; position < replay.mCells.size(); position++) {
+                if (replay.mCells.get(position) != null) {
+                    continue;
+                }
+                //Only cells of rows or columns the old snapshot did not have are inserted, once moves are matched
+                final String cell = expected.get(position);
+                if (pDetectMoves) {
+                    assertFalse(message + ": inserted " + cell, oldSnapshot.hasRow(Snapshot.rowId(cell))
+                            && oldSnapshot.hasColumn(Snapshot.columnId(cell)));
+                }
+                replay.mCells.set(position, cell);
+            }
+            assertEquals(message, expected, replay.mCells);
+
+            for (int oldRow = 0; oldRow < oldSnapshot.mRowIds.length; oldRow++) {
+                final int newRow = result.convertOldRowToNew(oldRow);
+                if (newRow != RecyclerView.NO_POSITION) {
+                    assertEquals(message + ": row " + oldRow, oldSnapshot.mRowIds[oldRow], newSnapshot.mRowIds[newRow]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rows and columns have stable ids, each cell a content version.
+     */
+    private static final class Snapshot {
+        private static int sNextId;
+        final int[] mRowIds;
+        final int[] mColumnIds;
+        final int[][] mVersions;
+
+        Snapshot(int[] pRowIds, int[] pColumnIds) {
+            mRowIds = pRowIds;
+            mColumnIds = pColumnIds;
+            mVersions = new int[pRowIds.length][pColumnIds.length];
+        }
+
+        static Snapshot create(int pRows, int pColumns) {
+            final int[] rowIds = new int[pRows];
+            for (int i = 0; i < pRows; i++) {
+                rowIds[i] = sNextId++;
+            }
+            final int[] columnIds = new int[pColumns];
+            for (int i = 0; i < pColumns; i++) {
+                columnIds[i] = sNextId++;
+            }
+            return new Snapshot(rowIds, columnIds);
+        }
+
+        Snapshot copy() {
+            final Snapshot copy = new Snapshot(mRowIds.clone(), mColumnIds.clone());
+            for (int row = 0; row < mRowIds.length; row++) {
+                copy.mVersions[row] = mVersions[row].clone();
+            }
+            return copy;
+        }
+
+        /**
+         * @return snapshot with rows and columns removed, inserted and moved, and some kept cells changed
+         */
+        Snapshot edit(Random pRandom) {
+            final Snapshot edited = new Snapshot(editIds(mRowIds, pRandom), editIds(mColumnIds, pRandom));
+            for (int row = 0; row < edited.mRowIds.length; row++) {
+                final int oldRow = indexOf(mRowIds, edited.mRowIds[row]);
+                for (int column = 0; column < edited.mColumnIds.length; column++) {
+                    final int oldColumn = indexOf(mColumnIds, edited.mColumnIds[column]);
+                    if (oldRow >= 0 && oldColumn >= 0) {
+                        edited.mVersions[row][column] = mVersions[oldRow][oldColumn] + (pRandom.nextInt(8) == 0 ? 1 : 0);
+                    }
+                }
+            }
+            return edited;
+        }
+
+        private static int[] editIds(int[] pIds, Random pRandom) {
+            final List<Integer> ids = new ArrayList<>();
+            for (int id : pIds) {
+                ids.add(id);
+            }
+            final int edits = pRandom.nextInt(5);
+            for (int i = 0; i < edits; i++) {
+                switch (pRandom.nextInt(3)) {
+                    case 0:
+                        if (!ids.isEmpty()) {
+                            ids.remove(pRandom.nextInt(ids.size()));
+                        }
+                        break;
+                    case 1:
+                        ids.add(pRandom.nextInt(ids.size() + 1), sNextId++);
+                        break;
+                    default:
+                        if (!ids.isEmpty()) {
+                            final Integer id = ids.remove(pRandom.nextInt(ids.size()));
+                            ids.add(pRandom.nextInt(ids.size() + 1), id);
+                        }
+                        break;
+                }
+            }
+            final int[] edited = new int[ids.size()];
+            for (int i = 0; i < edited.length; i++) {
+                edited[i] = ids.get(i);
+            }
+            return edited;
+        }
+
+        boolean hasRow(int pId) {
+            return indexOf(mRowIds, pId) >= 0;
+        }
+
+        boolean hasColumn(int pId) {
+            return indexOf(mColumnIds, pId) >= 0;
+        }
+
+        /**
+         * @return every cell as "row id:column id:version", in adapter order
+         */
+        List<String> cells() {
+            final List<String> cells = new ArrayList<>();
+            for (int row = 0; row < mRowIds.length; row++) {
+                for (int column = 0; column < mColumnIds.length; column++) {
+                    cells.add(mRowIds[row] + ":" + mColumnIds[column] + ":" + mVersions[row][column]);
+                }
+            }
+            return cells;
+        }
+
+        static int rowId(String pCell) {
+            return Integer.parseInt(pCell.split(":")[0]);
+        }
+
+        static int columnId(String pCell) {
+            return Integer.parseInt(pCell.split(":")[1]);
+        }
+
+        private static int indexOf(int[] pIds, int pId) {
+            for (int i = 0; i < pIds.length; i++) {
+                if (pIds[i] == pId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(mRowIds) + "x" + Arrays.toString(mColumnIds);
+        }
+    }
+
+    private static final class SnapshotCallback extends GridDiff.Callback {
+        private final Snapshot mOld;
+        private final Snapshot mNew;
+
+        SnapshotCallback(Snapshot pOld, Snapshot pNew) {
+            mOld = pOld;
+            mNew = pNew;
+        }
+
+        @Override
+        public int getOldRowCount() {
+            return mOld.mRowIds.length;
+        }
+
+        @Override
+        public int getOldColumnCount() {
+            return mOld.mColumnIds.length;
+        }
+
+        @Override
+        public int getNewRowCount() {
+            return mNew.mRowIds.length;
+        }
+
+        @Override
+        public int getNewColumnCount() {
+            return mNew.mColumnIds.length;
+        }
+
+        @Override
+        public boolean areRowsTheSame(int pOldRow, int pNewRow) {
+            return mOld.mRowIds[pOldRow] == mNew.mRowIds[pNewRow];
+        }
+
+        @Override
+        public boolean areColumnsTheSame(int pOldColumn, int pNewColumn) {
+            return mOld.mColumnIds[pOldColumn] == mNew.mColumnIds[pNewColumn];
+        }
+
+        @Override
+        public boolean areCellContentsTheSame(int pOldRow, int pOldColumn, int pNewRow, int pNewColumn) {
+            return mOld.mVersions[pOldRow][pOldColumn] == mNew.mVersions[pNewRow][pNewColumn];
+        }
+    }
+
+    /**
+     * Applies the notifications to a copy of the old cells. Inserted cells are null, changed cells
+     * take their new contents and have to be kept cells whose contents did change.
+     */
+    private static final class Replay {
+        final List<String> mCells;
+        int mNotifications;
+        int mDataSetChanges;
+        final RecyclerView.Adapter<RecyclerView.ViewHolder> mAdapter = new RecyclerView.Adapter<RecyclerView.ViewHolder>() {
+            @Override
+            public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+                return null;
+            }
+
+            @Override
+            public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            }
+
+            @Override
+            public int getItemCount() {
+                return mCells.size();
+            }
+        };
+
+        Replay(Snapshot pOld, final Snapshot pNew) {
+            mCells = pOld.cells();
+            final List<String> newCells = pNew.cells();
+            mAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+                @Override
+                public void onChanged() {
+                    mDataSetChanges++;
+                }
+
+                @Override
+                public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                    mNotifications++;
+                    for (int position = positionStart; position < positionStart + itemCount; position++) {
+                        final String cell = mCells.get(position);
+                        final String newCell = newCells.get(position);
+                        assertNotNull("changed inserted cell at " + position, cell);
+                        assertEquals("changed cell at " + position, cell.substring(0, cell.lastIndexOf(':')),
+                                newCell.substring(0, newCell.lastIndexOf(':')));
+                        assertFalse("unchanged cell notified at " + position, cell.equals(newCell));
+                        mCells.set(position, newCell);
+                    }
+                }
+
+                @Override
+                public void onItemRangeInserted(int positionStart, int itemCount) {
+                    mNotifications++;
+                    mCells.addAll(positionStart, Collections.<String>nCopies(itemCount, null));
+                }
+
+                @Override
+                public void onItemRangeRemoved(int positionStart, int itemCount) {
+                    mNotifications++;
+                    mCells.subList(positionStart, positionStart + itemCount).clear();
+                }
+
+                @Override
+                public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                    mNotifications++;
+                    mCells.add(toPosition, mCells.remove(fromPosition));
+                }
+            });
+        }
+    }
+}
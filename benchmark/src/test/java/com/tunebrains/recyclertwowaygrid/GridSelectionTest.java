@@ -0,0 +1,182 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Test;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The paged bitset has to answer like a plain boolean grid, inverted or not, and a change of
+ * the selection only rebinds the selection state of the attached cells it flips.
+ */
+public class GridSelectionTest {
+    //Several pages of cells, whole pages are written by row ranges
+    private static final int ROWS = 150;
+    private static final int COLUMNS = 70;
+
+    @Test
+    public void randomChangesMatchOracle() {
+        final GridSelection selection = new GridSelection(ROWS, COLUMNS);
+        final boolean[][] oracle = new boolean[ROWS][COLUMNS];
+        final Random random = new Random(21);
+        for (int step = 0; step < 300; step++) {
+            final boolean selected = random.nextBoolean();
+            final String message;
+            switch (random.nextInt(6)) {
+                case 0: {
+                    final int row = random.nextInt(ROWS);
+                    final int column = random.nextInt(COLUMNS);
+                    selection.toggle(row, column);
+                    oracle[row][column] = !oracle[row][column];
+                    message = "toggle " + row + "," + column;
+                    break;
+                }
+                case 1: {
+                    final int firstRow = random.nextInt(ROWS + 20) - 10;
+                    final int rowCount = random.nextInt(ROWS);
+                    selection.setRowsSelected(firstRow, rowCount, selected);
+                    setRange(oracle, firstRow, 0, rowCount, COLUMNS, selected);
+                    message = "rows " + firstRow + "+" + rowCount + " " + selected;
+                    break;
+                }
+                case 2: {
+                    final int firstColumn = random.nextInt(COLUMNS + 20) - 10;
+                    final int columnCount = random.nextInt(COLUMNS);
+                    selection.setColumnsSelected(firstColumn, columnCount, selected);
+                    setRange(oracle, 0, firstColumn, ROWS, columnCount, selected);
+                    message = "columns " + firstColumn + "+" + columnCount + " " + selected;
+                    break;
+                }
+                case 3: {
+                    if (selected) {
+                        selection.selectAll();
+                    } else {
+                        selection.clear();
+                    }
+                    setRange(oracle, 0, 0, ROWS, COLUMNS, selected);
+                    message = selected ? "select all" : "clear";
+                    break;
+                }
+                default: {
+                    //Rectangles, clipped when they reach past the grid
+                    final int firstRow = random.nextInt(ROWS + 20) - 10;
+                    final int firstColumn = random.nextInt(COLUMNS + 20) - 10;
+                    final int rowCount = random.nextInt(ROWS / 2);
+                    final int columnCount = random.nextInt(COLUMNS / 2);
+                    selection.setRangeSelected(firstRow, firstColumn, rowCount, columnCount, selected);
+                    setRange(oracle, firstRow, firstColumn, rowCount, columnCount, selected);
+                    message = "range " + firstRow + "," + firstColumn + " " + rowCount + "x" + columnCount + " " + selected;
+                    break;
+                }
+            }
+            assertMatches("step " + step + " " + message, selection, oracle);
+        }
+    }
+
+    @Test
+    public void deselectingAfterSelectAllMatchesOracle() {
+        final GridSelection selection = new GridSelection(ROWS, COLUMNS);
+        final boolean[][] oracle = new boolean[ROWS][COLUMNS];
+        selection.setRangeSelected(3, 4, 5, 6, true);
+        setRange(oracle, 3, 4, 5, 6, true);
+        selection.selectAll();
+        setRange(oracle, 0, 0, ROWS, COLUMNS, true);
+        assertMatches("select all", selection, oracle);
+
+        final Random random = new Random(22);
+        for (int step = 0; step < 100; step++) {
+            final int firstRow = random.nextInt(ROWS);
+            final int firstColumn = random.nextInt(COLUMNS);
+            final int rowCount = 1 + random.nextInt(step % 10 == 0 ? ROWS : 3);
+            final int columnCount = 1 + random.nextInt(step % 10 == 0 ? COLUMNS : 3);
+            //Mostly deselects, now and then a cell comes back
+            final boolean selected = step % 4 == 3;
+            selection.setRangeSelected(firstRow, firstColumn, rowCount, columnCount, selected);
+            setRange(oracle, firstRow, firstColumn, rowCount, columnCount, selected);
+            assertMatches("step " + step, selection, oracle);
+        }
+        selection.clear();
+        setRange(oracle, 0, 0, ROWS, COLUMNS, false);
+        assertMatches("cleared", selection, oracle);
+    }
+
+    @Test
+    public void onlyFlippedAttachedCellsRebindSelection() {
+        final BenchmarkGrid grid = new BenchmarkGrid("400x300", "1080x1920");
+        final GridSelection selection = new GridSelection(400, 300);
+        grid.mAdapter.setSelection(selection);
+        final RecyclerView recyclerView = grid.mRecyclerView;
+        recyclerView.dispatchLayout();
+        recyclerView.scrollBy(BenchmarkGrid.CELL_WIDTH * 3 / 2, BenchmarkGrid.CELL_HEIGHT * 5 / 2);
+
+        final Random random = new Random(23);
+        for (int step = 0; step < 100; step++) {
+            //Selected state, full binds and selection binds of every attached holder, layouts may reorder them
+            final Map<BenchmarkGrid.CellHolder, int[]> before = new IdentityHashMap<>();
+            for (int i = 0; i < recyclerView.getChildCount(); i++) {
+                final BenchmarkGrid.CellHolder holder = holderAt(recyclerView, i);
+                before.put(holder, new int[]{holder.mSelected ? 1 : 0, holder.mBinds, holder.mSelectionBinds});
+            }
+            //Rectangles around the window, some cells flip and some already have the state
+            final int firstRow = random.nextInt(24);
+            final int firstColumn = random.nextInt(12);
+            final boolean selected = random.nextInt(3) != 0;
+            if (random.nextInt(10) == 0) {
+                selection.setRangeSelected(0, 0, 400, 300, selected);
+            } else {
+                selection.setRangeSelected(firstRow, firstColumn, 1 + random.nextInt(8), 1 + random.nextInt(5), selected);
+            }
+            recyclerView.dispatchLayout();
+
+            final String message = "step " + step;
+            assertEquals(message + ": children", before.size(), recyclerView.getChildCount());
+            for (int i = 0; i < recyclerView.getChildCount(); i++) {
+                final BenchmarkGrid.CellHolder holder = holderAt(recyclerView, i);
+                final String cell = message + ": cell " + holder.mRow + "," + holder.mColumn;
+                final int[] state = before.get(holder);
+                assertTrue(cell + " was not attached", state != null);
+                final boolean isSelected = selection.isSelected(holder.mRow, holder.mColumn);
+                assertEquals(cell + " selected", isSelected, holder.mSelected);
+                assertEquals(cell + " full binds", state[1], holder.mBinds);
+                assertEquals(cell + " selection binds", state[2] + (isSelected != (state[0] == 1) ? 1 : 0),
+                        holder.mSelectionBinds);
+            }
+        }
+    }
+
+    private static BenchmarkGrid.CellHolder holderAt(RecyclerView pRecyclerView, int pIndex) {
+        return (BenchmarkGrid.CellHolder) pRecyclerView.getChildViewHolder(pRecyclerView.getChildAt(pIndex));
+    }
+
+    private static void setRange(boolean[][] pOracle, int pFirstRow, int pFirstColumn, int pRowCount, int pColumnCount,
+                                 boolean pSelected) {
+        for (int row = Math.max(0, pFirstRow); row < Math.min(ROWS, pFirstRow + pRowCount); row++) {
+            for (int column = Math.max(0, pFirstColumn); column < Math.min(COLUMNS, pFirstColumn + pColumnCount); column++) {
+                pOracle[row][column] = pSelected;
+            }
+        }
+    }
+
+    private static void assertMatches(String pMessage, GridSelection pSelection, boolean[][] pOracle) {
+        int count = 0;
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                if (pOracle[row][column]) {
+                    count++;
+                }
+                if (pSelection.isSelected(row, column) != pOracle[row][column]) {
+                    assertEquals(pMessage + ": cell " + row + "," + column, pOracle[row][column],
+                            pSelection.isSelected(row, column));
+                }
+            }
+        }
+        assertEquals(pMessage + ": selected count", count, pSelection.getSelectedCount());
+        assertTrue(pMessage + ": outside the grid", !pSelection.isSelected(-1, 0) && !pSelection.isSelected(ROWS, 0));
+    }
+}
@@ -0,0 +1,128 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The interval index finds the items of a row in view by binary search and rows keep them as they
+ * scroll. After every step the attached items have to be the ones a scan of every item of every
+ * row finds in view, in the same places.
+ */
+public class IntervalLayoutTest {
+    private static final int STEPS = 1000;
+    private static final TwoWayGridLayoutManager.SizeLookup ROW_HEIGHTS = new TwoWayGridLayoutManager.SizeLookup() {
+        @Override
+        public int getSize(int pIndex) {
+            return BenchmarkGuide.ROW_HEIGHT / 2 + pIndex % 4 * BenchmarkGuide.ROW_HEIGHT / 2;
+        }
+    };
+
+    @Test
+    public void randomStepsMatchScan() {
+        scrollRandomly(new BenchmarkGuide("200x300", "1080x1920"), null, new Random(11));
+    }
+
+    @Test
+    public void rowHeightLookupMatchesScan() {
+        final BenchmarkGuide guide = new BenchmarkGuide("200x300", "1080x1920");
+        guide.mLayoutManager.setRowHeightLookup(ROW_HEIGHTS);
+        scrollRandomly(guide, ROW_HEIGHTS, new Random(12));
+    }
+
+    @Test
+    public void jumpsMatchScan() {
+        final BenchmarkGuide guide = new BenchmarkGuide("200x300", "1080x1920");
+        final Random random = new Random(13);
+        for (int i = 0; i < 50; i++) {
+            final int position = random.nextInt(guide.mAdapter.getItemCount());
+            guide.mRecyclerView.scrollToPosition(position);
+            assertMatchesScan("jump to " + position, guide, null);
+        }
+    }
+
+    /**
+     * @param pRowHeights lookup set on the guide, null for rows of ROW_HEIGHT
+     */
+    private static void scrollRandomly(BenchmarkGuide pGuide, TwoWayGridLayoutManager.SizeLookup pRowHeights,
+                                       Random pRandom) {
+        final RecyclerView recyclerView = pGuide.mRecyclerView;
+        recyclerView.dispatchLayout();
+        final int maxX = contentWidth(pGuide) - recyclerView.getWidth();
+        final int maxY = recyclerView.computeVerticalScrollRange() - recyclerView.getHeight();
+        int x = 0;
+        int y = 0;
+        for (int step = 0; step < STEPS; step++) {
+            //Mostly steps under a program, now and then a jump over several screens
+            final int range = pRandom.nextInt(10) == 0 ? 20 : 2;
+            final int dx = (int) ((pRandom.nextFloat() * 2 - 1) * range * BenchmarkGuide.MAX_DURATION / 2);
+            final int dy = (int) ((pRandom.nextFloat() * 2 - 1) * range * BenchmarkGuide.ROW_HEIGHT);
+            recyclerView.scrollBy(dx, dy);
+            x = Math.max(0, Math.min(maxX, x + dx));
+            y = Math.max(0, Math.min(maxY, y + dy));
+            final String message = "step " + step + " by " + dx + "," + dy;
+            assertEquals(message + ": horizontal offset", x, recyclerView.computeHorizontalScrollOffset());
+            assertEquals(message + ": vertical offset", y, recyclerView.computeVerticalScrollOffset());
+            assertMatchesScan(message, pGuide, pRowHeights);
+        }
+    }
+
+    /**
+     * Scans every program of every row for the ones intersecting the viewport at the current offsets.
+     */
+    private static void assertMatchesScan(String pMessage, BenchmarkGuide pGuide,
+                                          TwoWayGridLayoutManager.SizeLookup pRowHeights) {
+        final RecyclerView recyclerView = pGuide.mRecyclerView;
+        final BenchmarkGuide.ProgramAdapter adapter = pGuide.mAdapter;
+        final int left = recyclerView.computeHorizontalScrollOffset();
+        final int top = recyclerView.computeVerticalScrollOffset();
+        final List<String> expected = new ArrayList<>();
+        int rowTop = 0;
+        for (int row = 0; row < adapter.getRowCount(); row++) {
+            final int height = pRowHeights == null ? BenchmarkGuide.ROW_HEIGHT : pRowHeights.getSize(row);
+            if (rowTop < top + recyclerView.getHeight() && rowTop + height > top) {
+                for (int index = 0; index < adapter.getRowItemCount(row); index++) {
+                    final int start = adapter.getItemStart(row, index);
+                    final int end = adapter.getItemEnd(row, index);
+                    if (start < left + recyclerView.getWidth() && end > left) {
+                        expected.add(describe(row, index, start - left, rowTop - top, end - left, rowTop + height - top));
+                    }
+                }
+            }
+            rowTop += height;
+        }
+
+        final List<String> attached = new ArrayList<>();
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            final View child = recyclerView.getChildAt(i);
+            final BenchmarkGuide.ProgramHolder holder = (BenchmarkGuide.ProgramHolder) recyclerView.getChildViewHolder(child);
+            assertEquals(pMessage + ": position of " + holder.mRow + "," + holder.mIndex,
+                    adapter.getPosition(holder.mRow, holder.mIndex), pGuide.mLayoutManager.getPosition(child));
+            attached.add(describe(holder.mRow, holder.mIndex, child.getLeft(), child.getTop(), child.getRight(), child.getBottom()));
+        }
+        Collections.sort(expected);
+        Collections.sort(attached);
+        assertEquals(pMessage, expected, attached);
+    }
+
+    private static int contentWidth(BenchmarkGuide pGuide) {
+        final BenchmarkGuide.ProgramAdapter adapter = pGuide.mAdapter;
+        int width = 0;
+        for (int row = 0; row < adapter.getRowCount(); row++) {
+            width = Math.max(width, adapter.getItemEnd(row, adapter.getRowItemCount(row) - 1));
+        }
+        return width;
+    }
+
+    private static String describe(int pRow, int pIndex, int pLeft, int pTop, int pRight, int pBottom) {
+        return pRow + "," + pIndex + " [" + pLeft + "," + pTop + "][" + pRight + "," + pBottom + "]";
+    }
+}
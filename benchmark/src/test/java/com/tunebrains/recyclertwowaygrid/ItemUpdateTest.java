@@ -0,0 +1,246 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Adapter range updates keep, shift and rebind attached cells instead of rebuilding the window.
+ * After every update the children have to show the current items in the cells a full layout
+ * pass would put them in.
+ */
+public class ItemUpdateTest {
+    private static final int COLUMNS = 20;
+    private static final int UPDATES = 400;
+    private static final Object PAYLOAD = new Object();
+
+    @Test
+    public void updatesMatchFullLayout() {
+        final Fixture fixture = applyRandomUpdates(null, new Random(7));
+        assertEquals("pre-layout without an item animator", 0, fixture.mAppearingViews);
+    }
+
+    @Test
+    public void predictiveUpdatesMatchFullLayout() {
+        final Fixture fixture = applyRandomUpdates(new RecyclerView.ItemAnimator() {
+        }, new Random(8));
+        assertTrue("no appearing cells laid out", fixture.mAppearingViews > 0);
+        assertTrue("no disappearing cells laid out", fixture.mDisappearingViews > 0);
+    }
+
+    @Test
+    public void changedItemIsReboundInPlace() {
+        final Fixture fixture = new Fixture(null);
+        final int position = fixture.firstAttachedPosition();
+        fixture.mRecyclerView.getCounters().reset();
+        fixture.mAdapter.mItems.set(position, -1);
+        fixture.mAdapter.notifyItemChanged(position, PAYLOAD);
+        fixture.layout();
+        assertEquals("binds", 1, fixture.mRecyclerView.getCounters().binds);
+        assertEquals("inflations", 0, fixture.mRecyclerView.getCounters().inflations);
+        fixture.assertLaidOut("changed item");
+    }
+
+    @Test
+    public void changedItemKeepsSpanPlacement() {
+        final Fixture fixture = new Fixture(null);
+        final CountingSpans spans = new CountingSpans();
+        fixture.mLayoutManager.setSpanLookup(spans);
+        fixture.layout();
+        final int position = fixture.firstAttachedPosition();
+        spans.mLookups = 0;
+        fixture.mAdapter.mItems.set(position, -1);
+        fixture.mAdapter.notifyItemRangeChanged(position, COLUMNS);
+        fixture.layout();
+        assertEquals("span lookups after a change", 0, spans.mLookups);
+        fixture.assertLaidOut("changed items");
+
+        //Spans changing with the items are placed again on request
+        spans.mWideFrom = position;
+        fixture.mLayoutManager.notifySpansChanged();
+        fixture.layout();
+        assertTrue("spans were not placed again", spans.mLookups > 0);
+        fixture.assertLaidOut("changed spans");
+    }
+
+    /**
+     * Applies inserts, removals, moves and changes around the window, one or several per layout.
+     */
+    private static Fixture applyRandomUpdates(RecyclerView.ItemAnimator pAnimator, Random pRandom) {
+        final Fixture fixture = new Fixture(pAnimator);
+        final ItemAdapter adapter = fixture.mAdapter;
+        int nextItem = adapter.mItems.size();
+        final StringBuilder batch = new StringBuilder();
+        for (int update = 0; update < UPDATES; update++) {
+            //Mostly around the window, where kept, shifted and appearing cells meet
+            final int anchor = Math.max(0, Math.min(adapter.mItems.size() - 1,
+                    fixture.firstAttachedPosition() + pRandom.nextInt(8 * COLUMNS) - 2 * COLUMNS));
+            final int count = 1 + pRandom.nextInt(pRandom.nextBoolean() ? 3 : 2 * COLUMNS);
+            final String description;
+            switch (pRandom.nextInt(4)) {
+                case 0:
+                    for (int i = 0; i < count; i++) {
+                        adapter.mItems.add(anchor, nextItem++);
+                    }
+                    adapter.notifyItemRangeInserted(anchor, count);
+                    description = "insert " + count + " at " + anchor;
+                    break;
+                case 1: {
+                    final int removed = Math.min(count, adapter.mItems.size() - anchor - 1);
+                    for (int i = 0; i < removed; i++) {
+                        adapter.mItems.remove(anchor);
+                    }
+                    adapter.notifyItemRangeRemoved(anchor, removed);
+                    description = "remove " + removed + " at " + anchor;
+                    break;
+                }
+                case 2: {
+                    final int to = Math.max(0, Math.min(adapter.mItems.size() - 1, anchor + count - COLUMNS));
+                    adapter.mItems.add(to, adapter.mItems.remove(anchor));
+                    adapter.notifyItemMoved(anchor, to);
+                    description = "move " + anchor + " to " + to;
+                    break;
+                }
+                default: {
+                    final int changed = Math.min(count, adapter.mItems.size() - anchor);
+                    for (int i = anchor; i < anchor + changed; i++) {
+                        adapter.mItems.set(i, nextItem++);
+                    }
+                    adapter.notifyItemRangeChanged(anchor, changed, pRandom.nextBoolean() ? PAYLOAD : null);
+                    description = "change " + changed + " at " + anchor;
+                    break;
+                }
+            }
+            batch.append(description).append("; ");
+            if (pRandom.nextInt(3) == 0) {
+                //Batched with the next update into one layout
+                continue;
+            }
+            fixture.layout();
+            fixture.assertLaidOut("update " + update + ": " + batch);
+            batch.setLength(0);
+            fixture.mRecyclerView.scrollBy(pRandom.nextInt(2 * BenchmarkGrid.CELL_WIDTH) - BenchmarkGrid.CELL_WIDTH,
+                    pRandom.nextInt(2 * BenchmarkGrid.CELL_HEIGHT) - BenchmarkGrid.CELL_HEIGHT);
+        }
+        return fixture;
+    }
+
+    private static final class Fixture {
+        final RecyclerView mRecyclerView = new RecyclerView(new Context());
+        final ItemAdapter mAdapter = new ItemAdapter(200 * COLUMNS);
+        final TwoWayGridLayoutManager mLayoutManager = new TwoWayGridLayoutManager(COLUMNS);
+        int mAppearingViews;
+        int mDisappearingViews;
+
+        Fixture(RecyclerView.ItemAnimator pAnimator) {
+            mRecyclerView.setItemAnimator(pAnimator);
+            mRecyclerView.setLayoutManager(mLayoutManager);
+            mRecyclerView.setAdapter(mAdapter);
+            mRecyclerView.layout(0, 0, 1080, 1920);
+            mRecyclerView.scrollToPosition(100 * COLUMNS + COLUMNS / 2);
+        }
+
+        /**
+         * Runs the layout of the pending updates and tallies the animated cells.
+         */
+        void layout() {
+            final RecyclerView.Counters counters = mRecyclerView.getCounters();
+            counters.reset();
+            mRecyclerView.dispatchLayout();
+            mAppearingViews += counters.preLayoutViews;
+            mDisappearingViews += counters.disappearingViews;
+        }
+
+        int firstAttachedPosition() {
+            int first = Integer.MAX_VALUE;
+            for (int i = 0; i < mRecyclerView.getChildCount(); i++) {
+                first = Math.min(first, mRecyclerView.getLayoutManager().getPosition(mRecyclerView.getChildAt(i)));
+            }
+            return first;
+        }
+
+        /**
+         * Expects every child to show the item at its position and the window to match a full layout.
+         */
+        void assertLaidOut(String pMessage) {
+            LayoutAssert.assertNoDuplicatePositions(pMessage, mRecyclerView);
+            assertEquals(pMessage + ": scrap left", 0, mRecyclerView.getRecycler().getScrapList().size());
+            for (int i = 0; i < mRecyclerView.getChildCount(); i++) {
+                final View child = mRecyclerView.getChildAt(i);
+                final int position = mRecyclerView.getLayoutManager().getPosition(child);
+                final ItemHolder holder = (ItemHolder) mRecyclerView.getChildViewHolder(child);
+                assertEquals(pMessage + ": item at " + position, (int) mAdapter.mItems.get(position), holder.mItem);
+            }
+            final List<String> incremental = LayoutAssert.describeCells(mRecyclerView);
+            mAdapter.notifyDataSetChanged();
+            mRecyclerView.dispatchLayout();
+            assertEquals(pMessage, LayoutAssert.describeCells(mRecyclerView), incremental);
+        }
+    }
+
+    /**
+     * Every 5th item spans two rows, from mWideFrom on every 3rd spans two columns as well.
+     */
+    static final class CountingSpans implements TwoWayGridLayoutManager.SpanLookup {
+        int mLookups;
+        int mWideFrom = Integer.MAX_VALUE;
+
+        @Override
+        public int getRowSpan(int pPosition) {
+            mLookups++;
+            return pPosition % 5 == 0 ? 2 : 1;
+        }
+
+        @Override
+        public int getColumnSpan(int pPosition) {
+            mLookups++;
+            return pPosition >= mWideFrom && pPosition % 3 == 0 ? 2 : 1;
+        }
+    }
+
+    static final class ItemHolder extends RecyclerView.ViewHolder {
+        int mItem;
+
+        ItemHolder(View itemView) {
+            super(itemView);
+        }
+    }
+
+    static final class ItemAdapter extends RecyclerView.Adapter<ItemHolder> {
+        final List<Integer> mItems = new ArrayList<>();
+
+        ItemAdapter(int pCount) {
+            for (int i = 0; i < pCount; i++) {
+                mItems.add(i);
+            }
+        }
+
+        @Override
+        public ItemHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            final View view = new View(parent.getContext());
+            view.setMinimumWidth(BenchmarkGrid.CELL_WIDTH);
+            view.setMinimumHeight(BenchmarkGrid.CELL_HEIGHT);
+            return new ItemHolder(view);
+        }
+
+        @Override
+        public void onBindViewHolder(ItemHolder holder, int position) {
+            holder.mItem = mItems.get(position);
+        }
+
+        @Override
+        public int getItemCount() {
+            return mItems.size();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks of the attached children of a headless grid.
+ */
+final class LayoutAssert {
+    private LayoutAssert() {
+    }
+
+    /**
+     * @return every attached child as "position row,column span bounds", sorted
+     */
+    static List<String> describeCells(RecyclerView pRecyclerView) {
+        final RecyclerView.LayoutManager layoutManager = pRecyclerView.getLayoutManager();
+        final List<String> cells = new ArrayList<>(pRecyclerView.getChildCount());
+        for (int i = 0; i < pRecyclerView.getChildCount(); i++) {
+            final View child = pRecyclerView.getChildAt(i);
+            final TwoWayGridLayoutManager.LayoutParams lp = (TwoWayGridLayoutManager.LayoutParams) child.getLayoutParams();
+            cells.add(layoutManager.getPosition(child) + " " + lp.row + "," + lp.column + " " + lp.rowSpan + "x"
+                    + lp.columnSpan + " [" + layoutManager.getDecoratedLeft(child) + "," + layoutManager.getDecoratedTop(child)
+                    + "][" + layoutManager.getDecoratedRight(child) + "," + layoutManager.getDecoratedBottom(child) + "]");
+        }
+        Collections.sort(cells);
+        return cells;
+    }
+
+    static void assertNoDuplicatePositions(String pMessage, RecyclerView pRecyclerView) {
+        final Set<Integer> positions = new HashSet<>();
+        for (int i = 0; i < pRecyclerView.getChildCount(); i++) {
+            final int position = pRecyclerView.getLayoutManager().getPosition(pRecyclerView.getChildAt(i));
+            if (!positions.add(position)) {
+                fail(pMessage + ": position " + position + " is attached twice");
+            }
+        }
+    }
+
+    /**
+     * Expects every child to be measured at the size it was laid out at, or its content would be clipped.
+     */
+    static void assertMeasuredAsLaidOut(String pMessage, RecyclerView pRecyclerView) {
+        for (int i = 0; i < pRecyclerView.getChildCount(); i++) {
+            final View child = pRecyclerView.getChildAt(i);
+            if (child.getMeasuredWidth() != child.getWidth() || child.getMeasuredHeight() != child.getHeight()) {
+                fail(pMessage + ": position " + pRecyclerView.getLayoutManager().getPosition(child) + " measured "
+                        + child.getMeasuredWidth() + "x" + child.getMeasuredHeight() + ", laid out "
+                        + child.getWidth() + "x" + child.getHeight());
+            }
+        }
+    }
+
+    /**
+     * Lays the reference out from scratch at its current offsets and expects the grid to have
+     * the same children in the same places. The grid keeps its incrementally built window.
+     */
+    static void assertMatchesFullLayout(String pMessage, BenchmarkGrid pGrid, BenchmarkGrid pReference) {
+        assertNoDuplicatePositions(pMessage, pGrid.mRecyclerView);
+        pReference.mLayoutManager.onItemsChanged(pReference.mRecyclerView);
+        pReference.mRecyclerView.dispatchLayout();
+        assertEquals(pMessage, describeCells(pReference.mRecyclerView), describeCells(pGrid.mRecyclerView));
+    }
+}
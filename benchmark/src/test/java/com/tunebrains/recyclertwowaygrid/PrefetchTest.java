@@ -0,0 +1,141 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A scroll registers the cells of the next rows or columns past the attached window on the side
+ * it moves to, up to the prefetch depth, each once and with its distance from the viewport.
+ */
+public class PrefetchTest {
+    private static final int ROWS = 400;
+    private static final int COLUMNS = 300;
+    private static final int DEPTH = 2;
+    //Steps of the directions RecyclerView reports, diagonals included
+    private static final int[][] DIRECTIONS = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}, {1, 1}, {-1, -1}, {1, -1}};
+
+    private BenchmarkGrid mGrid;
+    private RecyclerView mRecyclerView;
+
+    @Before
+    public void setUp() {
+        mGrid = new BenchmarkGrid(ROWS + "x" + COLUMNS, "1080x1920");
+        mGrid.mLayoutManager.setPrefetchDepth(DEPTH);
+        mRecyclerView = mGrid.mRecyclerView;
+        mRecyclerView.dispatchLayout();
+    }
+
+    @Test
+    public void everyDirectionRegistersTheNextCells() {
+        mRecyclerView.scrollBy(BenchmarkGrid.CELL_WIDTH * 50 + 70, BenchmarkGrid.CELL_HEIGHT * 100 + 30);
+        assertDirections("middle", 0, 0);
+    }
+
+    @Test
+    public void frozenHeadersPrefetchWithTheirRowsAndColumns() {
+        mGrid.mLayoutManager.setFrozenRowCount(2);
+        mGrid.mLayoutManager.setFrozenColumnCount(1);
+        mRecyclerView.dispatchLayout();
+        mRecyclerView.scrollBy(BenchmarkGrid.CELL_WIDTH * 50 + 70, BenchmarkGrid.CELL_HEIGHT * 100 + 30);
+        assertDirections("frozen middle", 2, 1);
+        //The first body rows and columns border the headers, nothing is left to prefetch before them
+        mRecyclerView.scrollBy(-mRecyclerView.computeHorizontalScrollOffset(), -mRecyclerView.computeVerticalScrollOffset());
+        assertDirections("frozen start", 2, 1);
+    }
+
+    @Test
+    public void edgesStopThePrefetch() {
+        assertDirections("start", 0, 0);
+        mRecyclerView.scrollBy(BenchmarkGrid.CELL_WIDTH * COLUMNS, BenchmarkGrid.CELL_HEIGHT * ROWS);
+        assertDirections("end", 0, 0);
+        //One row and one column short of the end, the depth is cut to what is left
+        mRecyclerView.scrollBy(-BenchmarkGrid.CELL_WIDTH, -BenchmarkGrid.CELL_HEIGHT);
+        assertDirections("one short of the end", 0, 0);
+    }
+
+    @Test
+    public void zeroDepthRegistersNothing() {
+        mGrid.mLayoutManager.setPrefetchDepth(0);
+        mRecyclerView.scrollBy(BenchmarkGrid.CELL_WIDTH * 50, BenchmarkGrid.CELL_HEIGHT * 100);
+        for (int[] direction : DIRECTIONS) {
+            assertEquals("registered", Collections.<String>emptyList(), collect(direction[0], direction[1]));
+        }
+    }
+
+    private void assertDirections(String pMessage, int pFrozenRows, int pFrozenColumns) {
+        for (int[] direction : DIRECTIONS) {
+            final String message = pMessage + " towards " + direction[0] + "," + direction[1];
+            assertEquals(message, expected(direction[0], direction[1], pFrozenRows, pFrozenColumns),
+                    collect(direction[0], direction[1]));
+        }
+    }
+
+    /**
+     * @return "position distance" of every registered cell, sorted, a cell registered twice fails
+     */
+    private List<String> collect(int pDx, int pDy) {
+        final List<String> registered = new ArrayList<>();
+        final TreeSet<Integer> positions = new TreeSet<>();
+        mGrid.mLayoutManager.collectAdjacentPrefetchPositions(pDx, pDy, null,
+                new RecyclerView.LayoutManager.LayoutPrefetchRegistry() {
+                    @Override
+                    public void addPosition(int layoutPosition, int pixelDistance) {
+                        assertTrue("position " + layoutPosition + " registered twice", positions.add(layoutPosition));
+                        registered.add(layoutPosition + " " + pixelDistance);
+                    }
+                });
+        Collections.sort(registered);
+        return registered;
+    }
+
+    /**
+     * Rows and columns past the attached cells, for every attached column or row, headers included.
+     */
+    private List<String> expected(int pDx, int pDy, int pFrozenRows, int pFrozenColumns) {
+        final TreeSet<Integer> rows = new TreeSet<>();
+        final TreeSet<Integer> columns = new TreeSet<>();
+        for (int i = 0; i < mRecyclerView.getChildCount(); i++) {
+            final TwoWayGridLayoutManager.LayoutParams lp =
+                    (TwoWayGridLayoutManager.LayoutParams) mRecyclerView.getChildAt(i).getLayoutParams();
+            rows.add(lp.row);
+            columns.add(lp.column);
+        }
+        final int top = mRecyclerView.computeVerticalScrollOffset() + pFrozenRows * BenchmarkGrid.CELL_HEIGHT;
+        final int bottom = mRecyclerView.computeVerticalScrollOffset() + mRecyclerView.getHeight();
+        final int left = mRecyclerView.computeHorizontalScrollOffset() + pFrozenColumns * BenchmarkGrid.CELL_WIDTH;
+        final int right = mRecyclerView.computeHorizontalScrollOffset() + mRecyclerView.getWidth();
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < DEPTH && pDy != 0; i++) {
+            final int row = pDy > 0 ? rows.last() + 1 + i : rows.ceiling(pFrozenRows) - 1 - i;
+            if (row < pFrozenRows || row >= ROWS) {
+                break;
+            }
+            final int distance = pDy > 0 ? row * BenchmarkGrid.CELL_HEIGHT - bottom : top - (row + 1) * BenchmarkGrid.CELL_HEIGHT;
+            for (int column : columns) {
+                expected.add(mGrid.mAdapter.getPosition(row, column) + " " + distance);
+            }
+        }
+        for (int i = 0; i < DEPTH && pDx != 0; i++) {
+            final int column = pDx > 0 ? columns.last() + 1 + i : columns.ceiling(pFrozenColumns) - 1 - i;
+            if (column < pFrozenColumns || column >= COLUMNS) {
+                break;
+            }
+            final int distance = pDx > 0 ? column * BenchmarkGrid.CELL_WIDTH - right : left - (column + 1) * BenchmarkGrid.CELL_WIDTH;
+            for (int row : rows) {
+                expected.add(mGrid.mAdapter.getPosition(row, column) + " " + distance);
+            }
+        }
+        Collections.sort(expected);
+        return expected;
+    }
+}
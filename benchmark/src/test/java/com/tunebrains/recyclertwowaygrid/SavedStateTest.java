@@ -0,0 +1,93 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The saved anchors survive a parcel and put a new grid of the same sizes back at the same
+ * first visible cell and offsets.
+ */
+public class SavedStateTest {
+    private static final int ROWS = 300;
+    private static final int COLUMNS = 200;
+    private static final TwoWayGridLayoutManager.SizeLookup ROW_HEIGHTS = new TwoWayGridLayoutManager.SizeLookup() {
+        @Override
+        public int getSize(int pIndex) {
+            return BenchmarkGrid.CELL_HEIGHT / 2 + pIndex % 5 * BenchmarkGrid.CELL_HEIGHT / 3;
+        }
+    };
+    private static final TwoWayGridLayoutManager.SizeLookup COLUMN_WIDTHS = new TwoWayGridLayoutManager.SizeLookup() {
+        @Override
+        public int getSize(int pIndex) {
+            return BenchmarkGrid.CELL_WIDTH + pIndex % 3 * 50;
+        }
+    };
+
+    @Test
+    public void roundTripRestoresFirstVisibleCellAndOffsets() {
+        final Random random = new Random(31);
+        for (int trial = 0; trial < 30; trial++) {
+            final BenchmarkGrid grid = createGrid();
+            grid.mRecyclerView.dispatchLayout();
+            final RecyclerView recyclerView = grid.mRecyclerView;
+            recyclerView.scrollBy(random.nextInt(recyclerView.computeHorizontalScrollRange()),
+                    random.nextInt(recyclerView.computeVerticalScrollRange()));
+
+            final BenchmarkGrid restored = createGrid();
+            restored.mLayoutManager.onRestoreInstanceState(parcel(grid.mLayoutManager.onSaveInstanceState()));
+            restored.mRecyclerView.dispatchLayout();
+            assertRestored("trial " + trial, grid, restored);
+        }
+    }
+
+    @Test
+    public void savingBeforeTheLayoutKeepsTheRestoredAnchors() {
+        final BenchmarkGrid grid = createGrid();
+        grid.mRecyclerView.dispatchLayout();
+        grid.mRecyclerView.scrollBy(12345, 23456);
+
+        final BenchmarkGrid restored = createGrid();
+        restored.mLayoutManager.onRestoreInstanceState(grid.mLayoutManager.onSaveInstanceState());
+        //Saved again before any layout, as an activity stopped right after its restore is
+        final BenchmarkGrid again = createGrid();
+        again.mLayoutManager.onRestoreInstanceState(parcel(restored.mLayoutManager.onSaveInstanceState()));
+        again.mRecyclerView.dispatchLayout();
+        assertRestored("saved again", grid, again);
+    }
+
+    private static BenchmarkGrid createGrid() {
+        final BenchmarkGrid grid = new BenchmarkGrid(ROWS + "x" + COLUMNS, "1080x1920");
+        grid.mLayoutManager.setRowHeightLookup(ROW_HEIGHTS);
+        grid.mLayoutManager.setColumnWidthLookup(COLUMN_WIDTHS);
+        return grid;
+    }
+
+    private static Parcelable parcel(Parcelable pState) {
+        final Parcel parcel = Parcel.obtain();
+        pState.writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        final Parcelable state = TwoWayGridLayoutManager.SavedState.CREATOR.createFromParcel(parcel);
+        parcel.recycle();
+        return state;
+    }
+
+    private static void assertRestored(String pMessage, BenchmarkGrid pGrid, BenchmarkGrid pRestored) {
+        final TwoWayGridLayoutManager layoutManager = pGrid.mLayoutManager;
+        final TwoWayGridLayoutManager restored = pRestored.mLayoutManager;
+        assertEquals(pMessage + ": first visible row", layoutManager.findFirstVisibleRow(), restored.findFirstVisibleRow());
+        assertEquals(pMessage + ": first visible column", layoutManager.findFirstVisibleColumn(),
+                restored.findFirstVisibleColumn());
+        assertEquals(pMessage + ": horizontal offset", pGrid.mRecyclerView.computeHorizontalScrollOffset(),
+                pRestored.mRecyclerView.computeHorizontalScrollOffset());
+        assertEquals(pMessage + ": vertical offset", pGrid.mRecyclerView.computeVerticalScrollOffset(),
+                pRestored.mRecyclerView.computeVerticalScrollOffset());
+        assertEquals(pMessage, LayoutAssert.describeCells(pGrid.mRecyclerView), LayoutAssert.describeCells(pRestored.mRecyclerView));
+    }
+}
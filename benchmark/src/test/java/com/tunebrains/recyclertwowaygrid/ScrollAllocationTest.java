@@ -0,0 +1,50 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Once the window buffer fits and the pool is warm, scroll steps reuse the slots and views
+ * of the leaving edge and allocate nothing.
+ */
+public class ScrollAllocationTest {
+    private static final int STEPS = 4000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void uniformScrollStepsDoNotAllocate() {
+        final BenchmarkGrid grid = new BenchmarkGrid("1000x1000", "1080x1920");
+        grid.scrollToCenter();
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue("allocation counting is not supported", threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        final long threadId = Thread.currentThread().getId();
+        scrollSteps(grid, STEPS);
+
+        //The JIT may deoptimize mid round and materialize objects it had eliminated, a real
+        //allocation in the step path shows in every round
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS && allocated != 0; round++) {
+            final long before = threads.getThreadAllocatedBytes(threadId);
+            scrollSteps(grid, STEPS);
+            allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        }
+        assertEquals("bytes allocated over " + STEPS + " scroll steps", 0, allocated);
+    }
+
+    /**
+     * Moves down and back up by one row, and right and back left by one column.
+     */
+    private static void scrollSteps(BenchmarkGrid pGrid, int pSteps) {
+        for (int i = 0; i < pSteps / 4; i++) {
+            pGrid.mRecyclerView.scrollBy(0, BenchmarkGrid.CELL_HEIGHT);
+            pGrid.mRecyclerView.scrollBy(0, -BenchmarkGrid.CELL_HEIGHT);
+            pGrid.mRecyclerView.scrollBy(BenchmarkGrid.CELL_WIDTH, 0);
+            pGrid.mRecyclerView.scrollBy(-BenchmarkGrid.CELL_WIDTH, 0);
+        }
+    }
+}
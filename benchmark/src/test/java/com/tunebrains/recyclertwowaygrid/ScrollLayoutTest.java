@@ -0,0 +1,72 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Scroll steps only bind and recycle the edges of the window, the children they leave behind
+ * have to be the ones a full layout pass would attach at the same offsets.
+ */
+public class ScrollLayoutTest {
+    private static final int STEPS = 3000;
+    //Every 7th cell spans two rows, every 11th three columns
+    private static final TwoWayGridLayoutManager.SpanLookup SPANS = new TwoWayGridLayoutManager.SpanLookup() {
+        @Override
+        public int getRowSpan(int pPosition) {
+            return pPosition % 7 == 0 ? 2 : 1;
+        }
+
+        @Override
+        public int getColumnSpan(int pPosition) {
+            return pPosition % 11 == 0 ? 3 : 1;
+        }
+    };
+
+    @Test
+    public void randomStepsMatchFullLayout() {
+        scrollRandomly(new BenchmarkGrid("400x300", "1080x1920"), new BenchmarkGrid("400x300", "1080x1920"),
+                new Random(1));
+    }
+
+    /**
+     * Spanning cells leaving the window through one of their cells may still be visible through another.
+     */
+    @Test
+    public void randomStepsWithSpansMatchFullLayout() {
+        final BenchmarkGrid grid = new BenchmarkGrid("400x300", "1080x1920");
+        final BenchmarkGrid reference = new BenchmarkGrid("400x300", "1080x1920");
+        grid.mLayoutManager.setSpanLookup(SPANS);
+        reference.mLayoutManager.setSpanLookup(SPANS);
+        scrollRandomly(grid, reference, new Random(2));
+    }
+
+    /**
+     * Frozen rows only scroll horizontally and frozen columns only vertically, the corner stays put.
+     */
+    @Test
+    public void randomStepsWithFrozenHeadersMatchFullLayout() {
+        final BenchmarkGrid grid = new BenchmarkGrid("400x300", "1080x1920");
+        final BenchmarkGrid reference = new BenchmarkGrid("400x300", "1080x1920");
+        for (BenchmarkGrid frozen : new BenchmarkGrid[]{grid, reference}) {
+            frozen.mLayoutManager.setFrozenRowCount(2);
+            frozen.mLayoutManager.setFrozenColumnCount(1);
+        }
+        scrollRandomly(grid, reference, new Random(3));
+    }
+
+    /**
+     * Scrolls both grids alike, the reference is laid out from scratch after every step.
+     */
+    static void scrollRandomly(BenchmarkGrid pGrid, BenchmarkGrid pReference, Random pRandom) {
+        for (int step = 0; step < STEPS; step++) {
+            //Mostly steps under a cell, now and then a jump over several windows
+            final int range = pRandom.nextInt(10) == 0 ? 20 : 2;
+            final int dx = (int) ((pRandom.nextFloat() * 2 - 1) * range * BenchmarkGrid.CELL_WIDTH);
+            final int dy = (int) ((pRandom.nextFloat() * 2 - 1) * range * BenchmarkGrid.CELL_HEIGHT);
+            pGrid.mRecyclerView.scrollBy(dx, dy);
+            pReference.mRecyclerView.scrollBy(dx, dy);
+            LayoutAssert.assertMatchesFullLayout("step " + step + " by " + dx + "," + dy, pGrid, pReference);
+        }
+    }
+}
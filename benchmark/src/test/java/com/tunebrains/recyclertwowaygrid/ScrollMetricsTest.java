@@ -0,0 +1,173 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Scroll offset, extent and range are content pixels of the row and column sizes, exact with
+ * lookups too, and the fast scroller places and drags its thumbs from them.
+ */
+public class ScrollMetricsTest {
+    private static final int ROWS = 300;
+    private static final int COLUMNS = 200;
+    private static final int THICKNESS = 20;
+    private static final int MIN_THUMB = 60;
+    private static final TwoWayGridLayoutManager.SizeLookup ROW_HEIGHTS = new TwoWayGridLayoutManager.SizeLookup() {
+        @Override
+        public int getSize(int pIndex) {
+            return BenchmarkGrid.CELL_HEIGHT / 2 + pIndex % 3 * BenchmarkGrid.CELL_HEIGHT / 2;
+        }
+    };
+    private static final TwoWayGridLayoutManager.SizeLookup COLUMN_WIDTHS = new TwoWayGridLayoutManager.SizeLookup() {
+        @Override
+        public int getSize(int pIndex) {
+            return BenchmarkGrid.CELL_WIDTH + pIndex % 4 * 40;
+        }
+    };
+
+    private BenchmarkGrid mGrid;
+    private RecyclerView mRecyclerView;
+    //Content offset of every row and column, brute force sums of the lookups
+    private final int[] mRowOffsets = new int[ROWS + 1];
+    private final int[] mColumnOffsets = new int[COLUMNS + 1];
+
+    @Before
+    public void setUp() {
+        mGrid = new BenchmarkGrid(ROWS + "x" + COLUMNS, "1080x1920");
+        mGrid.mLayoutManager.setRowHeightLookup(ROW_HEIGHTS);
+        mGrid.mLayoutManager.setColumnWidthLookup(COLUMN_WIDTHS);
+        mRecyclerView = mGrid.mRecyclerView;
+        mRecyclerView.dispatchLayout();
+        for (int row = 0; row < ROWS; row++) {
+            mRowOffsets[row + 1] = mRowOffsets[row] + ROW_HEIGHTS.getSize(row);
+        }
+        for (int column = 0; column < COLUMNS; column++) {
+            mColumnOffsets[column + 1] = mColumnOffsets[column] + COLUMN_WIDTHS.getSize(column);
+        }
+    }
+
+    @Test
+    public void rangeAndExtentAreExact() {
+        assertEquals("vertical range", mRowOffsets[ROWS], mRecyclerView.computeVerticalScrollRange());
+        assertEquals("horizontal range", mColumnOffsets[COLUMNS], mRecyclerView.computeHorizontalScrollRange());
+        assertEquals("vertical extent", 1920, mRecyclerView.computeVerticalScrollExtent());
+        assertEquals("horizontal extent", 1080, mRecyclerView.computeHorizontalScrollExtent());
+    }
+
+    @Test
+    public void offsetFollowsScrollingAndClamps() {
+        final int maxY = mRowOffsets[ROWS] - 1920;
+        final int maxX = mColumnOffsets[COLUMNS] - 1080;
+        int y = 0;
+        int x = 0;
+        final Random random = new Random(5);
+        for (int step = 0; step < 500; step++) {
+            //Now and then far past either end
+            final int range = random.nextInt(20) == 0 ? 4 * maxY : 3 * BenchmarkGrid.CELL_HEIGHT;
+            final int dx = random.nextInt(2 * range) - range;
+            final int dy = random.nextInt(2 * range) - range;
+            mRecyclerView.scrollBy(dx, dy);
+            x = Math.max(0, Math.min(maxX, x + dx));
+            y = Math.max(0, Math.min(maxY, y + dy));
+            assertScrolledTo("step " + step, x, y);
+        }
+    }
+
+    @Test
+    public void thumbsFollowTheOffset() {
+        final GridFastScroller scroller = new GridFastScroller(0xff000000, THICKNESS, MIN_THUMB);
+        scroller.attachToRecyclerView(mRecyclerView);
+        mRecyclerView.scrollBy(mColumnOffsets[COLUMNS] / 3, mRowOffsets[ROWS] / 2);
+        final Rect[] thumbs = drawThumbs();
+        assertEquals("vertical thumb", expectedVerticalThumb(), thumbs[0]);
+        assertEquals("horizontal thumb", expectedHorizontalThumb(), thumbs[1]);
+    }
+
+    @Test
+    public void thumbDragJumpsToTheOffset() {
+        final GridFastScroller scroller = new GridFastScroller(0xff000000, THICKNESS, MIN_THUMB);
+        scroller.attachToRecyclerView(mRecyclerView);
+        final int track = 1920 - THICKNESS;
+        final int range = mRowOffsets[ROWS];
+        final int thumb = Math.max(MIN_THUMB, (int) ((long) track * 1920 / range));
+        final Rect start = drawThumbs()[0];
+        final float grabY = start.top + thumb / 2f;
+        assertTrue("thumb not grabbed", scroller.onInterceptTouchEvent(mRecyclerView, touch(MotionEvent.ACTION_DOWN, 1070, grabY)));
+
+        //Halfway down the free part of the track, then past its end
+        mRecyclerView.getCounters().reset();
+        final float half = (track - thumb) / 2f;
+        scroller.onTouchEvent(mRecyclerView, touch(MotionEvent.ACTION_MOVE, 1070, grabY + half));
+        final int target = Math.round(half / (track - thumb) * (range - 1920));
+        assertScrolledTo("dragged halfway", 0, target);
+        assertEquals("cells bound by the jump", mRecyclerView.getChildCount(), mRecyclerView.getCounters().binds);
+
+        scroller.onTouchEvent(mRecyclerView, touch(MotionEvent.ACTION_MOVE, 1070, grabY + track));
+        assertScrolledTo("dragged past the end", 0, range - 1920);
+        scroller.onTouchEvent(mRecyclerView, touch(MotionEvent.ACTION_UP, 1070, grabY + track));
+    }
+
+    /**
+     * Expects the reported offsets and every child placed at its brute force content offset.
+     */
+    private void assertScrolledTo(String pMessage, int pX, int pY) {
+        assertEquals(pMessage + ": horizontal offset", pX, mRecyclerView.computeHorizontalScrollOffset());
+        assertEquals(pMessage + ": vertical offset", pY, mRecyclerView.computeVerticalScrollOffset());
+        for (int i = 0; i < mRecyclerView.getChildCount(); i++) {
+            final View child = mRecyclerView.getChildAt(i);
+            final TwoWayGridLayoutManager.LayoutParams lp = (TwoWayGridLayoutManager.LayoutParams) child.getLayoutParams();
+            assertEquals(pMessage + ": left of column " + lp.column, mColumnOffsets[lp.column] - pX, child.getLeft());
+            assertEquals(pMessage + ": top of row " + lp.row, mRowOffsets[lp.row] - pY, child.getTop());
+        }
+    }
+
+    /**
+     * @return vertical and horizontal thumb as drawn
+     */
+    private Rect[] drawThumbs() {
+        final Canvas canvas = new Canvas();
+        mRecyclerView.draw(canvas);
+        final List<Rect> thumbs = new ArrayList<>();
+        for (Canvas.Draw draw : canvas.getDraws()) {
+            if (draw.target instanceof Paint) {
+                thumbs.add(draw.bounds);
+            }
+        }
+        assertEquals("thumbs drawn", 2, thumbs.size());
+        return thumbs.toArray(new Rect[2]);
+    }
+
+    private Rect expectedVerticalThumb() {
+        final int track = 1920 - THICKNESS;
+        final int range = mRowOffsets[ROWS];
+        final int length = Math.max(MIN_THUMB, (int) ((long) track * 1920 / range));
+        final int start = (int) ((long) (track - length) * mRecyclerView.computeVerticalScrollOffset() / (range - 1920));
+        return new Rect(1080 - THICKNESS, start, 1080, start + length);
+    }
+
+    private Rect expectedHorizontalThumb() {
+        final int track = 1080 - THICKNESS;
+        final int range = mColumnOffsets[COLUMNS];
+        final int length = Math.max(MIN_THUMB, (int) ((long) track * 1080 / range));
+        final int start = (int) ((long) (track - length) * mRecyclerView.computeHorizontalScrollOffset() / (range - 1080));
+        return new Rect(start, 1920 - THICKNESS, start + length, 1920);
+    }
+
+    private static MotionEvent touch(int pAction, float pX, float pY) {
+        return MotionEvent.obtain(0, 0, pAction, pX, pY, 0);
+    }
+}
@@ -0,0 +1,122 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Smooth scrolls jump to a window next to a far target and only scroll the final stretch, a near
+ * target is scrolled all the way. Either way the target lands on the edge it came in from.
+ */
+public class SmoothScrollTest {
+    private BenchmarkGrid mGrid;
+    private RecyclerView mRecyclerView;
+    //Net pixels the smooth scroll moved by scrolling, jumps move without reporting a scroll
+    private int mScrolledX;
+    private int mScrolledY;
+
+    @Before
+    public void setUp() {
+        mGrid = new BenchmarkGrid("1000x200", "1080x1920");
+        mRecyclerView = mGrid.mRecyclerView;
+        mRecyclerView.dispatchLayout();
+        mRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                mScrolledX += dx;
+                mScrolledY += dy;
+            }
+        });
+    }
+
+    @Test
+    public void farTargetJumpsThenLandsAtItsEnd() {
+        mRecyclerView.getCounters().reset();
+        final View target = smoothScrollTo(500, 150);
+        //Coming from above and left, the target snaps to the bottom right corner
+        assertEquals("right", mRecyclerView.getWidth(), target.getRight());
+        assertEquals("bottom", mRecyclerView.getHeight(), target.getBottom());
+        assertEquals("horizontal offset", 151 * BenchmarkGrid.CELL_WIDTH - mRecyclerView.getWidth(),
+                mRecyclerView.computeHorizontalScrollOffset());
+        assertEquals("vertical offset", 501 * BenchmarkGrid.CELL_HEIGHT - mRecyclerView.getHeight(),
+                mRecyclerView.computeVerticalScrollOffset());
+        //Only the last window or so is scrolled and bound, not the 60000 pixels before it
+        assertTrue("scrolled " + mScrolledX, mScrolledX <= 2 * mRecyclerView.getWidth());
+        assertTrue("scrolled " + mScrolledY, mScrolledY <= 2 * mRecyclerView.getHeight());
+        assertTrue("binds " + mRecyclerView.getCounters().binds, mRecyclerView.getCounters().binds < 4 * 7 * 17);
+        assertMatchesFullLayout("landed");
+    }
+
+    @Test
+    public void farTargetBackwardsLandsAtItsStart() {
+        mRecyclerView.scrollToPosition(mGrid.mAdapter.getPosition(900, 180));
+        final View target = smoothScrollTo(100, 20);
+        assertEquals("left", 0, target.getLeft());
+        assertEquals("top", 0, target.getTop());
+        assertEquals("horizontal offset", 20 * BenchmarkGrid.CELL_WIDTH, mRecyclerView.computeHorizontalScrollOffset());
+        assertEquals("vertical offset", 100 * BenchmarkGrid.CELL_HEIGHT, mRecyclerView.computeVerticalScrollOffset());
+        assertTrue("scrolled " + mScrolledX, -mScrolledX <= 2 * mRecyclerView.getWidth());
+        assertTrue("scrolled " + mScrolledY, -mScrolledY <= 2 * mRecyclerView.getHeight());
+        assertMatchesFullLayout("landed");
+    }
+
+    @Test
+    public void nearTargetScrollsAllTheWay() {
+        final View target = smoothScrollTo(25, 8);
+        assertEquals("right", mRecyclerView.getWidth(), target.getRight());
+        assertEquals("bottom", mRecyclerView.getHeight(), target.getBottom());
+        //Nothing was skipped, the seek overshoots the column and comes back but every pixel was scrolled
+        assertEquals("scrolled horizontally", mRecyclerView.computeHorizontalScrollOffset(), mScrolledX);
+        assertEquals("scrolled vertically", mRecyclerView.computeVerticalScrollOffset(), mScrolledY);
+        assertEquals("vertical offset", 26 * BenchmarkGrid.CELL_HEIGHT - mRecyclerView.getHeight(), mScrolledY);
+        assertMatchesFullLayout("landed");
+    }
+
+    @Test
+    public void frozenHeadersDoNotCoverTheTarget() {
+        mGrid.mLayoutManager.setFrozenRowCount(2);
+        mGrid.mLayoutManager.setFrozenColumnCount(1);
+        mRecyclerView.scrollToPosition(mGrid.mAdapter.getPosition(900, 180));
+        final View target = smoothScrollTo(100, 20);
+        assertEquals("left", BenchmarkGrid.CELL_WIDTH, target.getLeft());
+        assertEquals("top", 2 * BenchmarkGrid.CELL_HEIGHT, target.getTop());
+    }
+
+    @Test
+    public void stopScrollEndsTheSmoothScroll() {
+        mRecyclerView.smoothScrollToPosition(mGrid.mAdapter.getPosition(500, 150));
+        assertTrue("smooth scrolling", mGrid.mLayoutManager.isSmoothScrolling());
+        mRecyclerView.stopScroll();
+        assertFalse("smooth scrolling", mGrid.mLayoutManager.isSmoothScrolling());
+        assertEquals("frames", 0, mRecyclerView.runSmoothScroll());
+        assertEquals("vertical offset", 0, mRecyclerView.computeVerticalScrollOffset());
+    }
+
+    private View smoothScrollTo(int pRow, int pColumn) {
+        final int position = mGrid.mAdapter.getPosition(pRow, pColumn);
+        mScrolledX = 0;
+        mScrolledY = 0;
+        mRecyclerView.smoothScrollToPosition(position);
+        assertTrue("smooth scrolling", mGrid.mLayoutManager.isSmoothScrolling());
+        mRecyclerView.runSmoothScroll();
+        assertFalse("still smooth scrolling", mGrid.mLayoutManager.isSmoothScrolling());
+        final View target = mGrid.mLayoutManager.findViewByPosition(position);
+        assertNotNull("target " + pRow + "," + pColumn + " not attached", target);
+        return target;
+    }
+
+    private void assertMatchesFullLayout(String pMessage) {
+        final BenchmarkGrid reference = new BenchmarkGrid("1000x200", "1080x1920");
+        reference.mRecyclerView.dispatchLayout();
+        reference.mRecyclerView.scrollBy(mRecyclerView.computeHorizontalScrollOffset(),
+                mRecyclerView.computeVerticalScrollOffset());
+        LayoutAssert.assertMatchesFullLayout(pMessage, mGrid, reference);
+    }
+}
@@ -0,0 +1,120 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The replay reports the host work of every frame, a scroll by whole rows or columns binds
+ * and recycles exactly the cells of one row or column.
+ */
+public class TraceReplayTest {
+    //A 1080x1920 viewport at offset 0 shows 6 columns of 16 rows
+    private static final int VISIBLE_ROWS = 16;
+    private static final int VISIBLE_COLUMNS = 6;
+
+    @Test
+    public void rowAndColumnStepsReportOneLineOfCells() {
+        final BenchmarkGrid grid = new BenchmarkGrid("1000x100", "1080x1920");
+        grid.mRecyclerView.dispatchLayout();
+        final ScrollTrace trace = new ScrollTrace("steps")
+                .drag(0, BenchmarkGrid.CELL_HEIGHT, 10)
+                .drag(BenchmarkGrid.CELL_WIDTH, 0, 5);
+        final TraceReplayer.Report report = TraceReplayer.replay("steps", grid, trace);
+        assertEquals("frames", 15, report.mFrames.size());
+        for (int i = 0; i < report.mFrames.size(); i++) {
+            final TraceReplayer.FrameReport frame = report.mFrames.get(i);
+            final int cells = i < 10 ? VISIBLE_COLUMNS : VISIBLE_ROWS;
+            assertEquals("inflations of frame " + i, 0, frame.mInflations);
+            assertEquals("binds of frame " + i, cells, frame.mBinds);
+            assertEquals("recycles of frame " + i, cells, frame.mRecycles);
+            assertEquals("attaches of frame " + i, cells, frame.mAttaches);
+            assertEquals("detaches of frame " + i, cells, frame.mDetaches);
+            assertEquals("measures of frame " + i, cells, frame.mMeasures);
+            assertEquals("children of frame " + i, VISIBLE_ROWS * VISIBLE_COLUMNS, frame.mChildCount);
+        }
+
+        final ByteArrayOutputStream summary = new ByteArrayOutputStream();
+        report.printSummary(new PrintStream(summary, true));
+        final int binds = 10 * VISIBLE_COLUMNS + 5 * VISIBLE_ROWS;
+        assertContains(summary.toString(), "steps: 15 frames");
+        assertContains(summary.toString(), "| inflations 0, binds " + binds + ", recycles " + binds
+                + ", attaches " + binds + ", detaches " + binds + ", measures " + binds);
+    }
+
+    @Test
+    public void jumpBindsTheWholeWindow() {
+        final BenchmarkGrid grid = new BenchmarkGrid("1000x100", "1080x1920");
+        grid.mRecyclerView.dispatchLayout();
+        final TraceReplayer.Report report = TraceReplayer.replay("jump", grid,
+                new ScrollTrace("jump").jump(500 * 100 + 50).drag(0, -BenchmarkGrid.CELL_HEIGHT, 3));
+        final TraceReplayer.FrameReport jump = report.mFrames.get(0);
+        assertEquals("jump position", 500 * 100 + 50, jump.mJumpPosition);
+        //Position 0 is fetched to learn the cell size on top of the window
+        assertEquals("binds of the jump", VISIBLE_ROWS * VISIBLE_COLUMNS + 1, jump.mBinds);
+        assertEquals("children after the jump", VISIBLE_ROWS * VISIBLE_COLUMNS, jump.mChildCount);
+        for (int i = 1; i < report.mFrames.size(); i++) {
+            assertEquals("binds of frame " + i, VISIBLE_COLUMNS, report.mFrames.get(i).mBinds);
+            assertEquals("inflations of frame " + i, 0, report.mFrames.get(i).mInflations);
+        }
+    }
+
+    @Test
+    public void percentilesAndBudget() {
+        final TraceReplayer.Report report = new TraceReplayer.Report("nanos");
+        for (int i = 1; i <= 100; i++) {
+            final TraceReplayer.FrameReport frame = new TraceReplayer.FrameReport();
+            frame.mNanos = i * 1000000L;
+            report.mFrames.add(frame);
+        }
+        assertEquals(50000000L, report.percentileNanos(50));
+        assertEquals(90000000L, report.percentileNanos(90));
+        assertEquals(99000000L, report.percentileNanos(99));
+        assertEquals(100000000L, report.percentileNanos(100));
+        //Frames of 17ms and longer miss a 60 fps frame
+        assertEquals(84, report.framesOverBudget());
+        assertEquals(0, new TraceReplayer.Report("empty").percentileNanos(50));
+    }
+
+    @Test
+    public void flingCoversItsDistance() {
+        final ScrollTrace trace = new ScrollTrace("fling").fling(0, 12000);
+        int distance = 0;
+        for (ScrollTrace.Frame frame : trace.getFrames()) {
+            assertEquals("dx", 0, frame.mDx);
+            distance += frame.mDy;
+        }
+        //200 pixels in the first frame decaying by 0.95, the tail under a pixel per frame is dropped
+        assertTrue("fling distance " + distance, distance >= 3975 && distance <= 4000);
+    }
+
+    @Test
+    public void readsTextTraces() throws IOException {
+        final ScrollTrace trace = ScrollTrace.read("trace", new StringReader("# comment\n\n10 -20\ndrag 3 4\njump 42\n"));
+        assertEquals(3, trace.getFrames().size());
+        final ScrollTrace.Frame fling = trace.getFrames().get(0);
+        assertEquals(10, fling.mDx);
+        assertEquals(-20, fling.mDy);
+        assertFalse(fling.mDrag || fling.isJump());
+        assertTrue(trace.getFrames().get(1).mDrag);
+        assertEquals(42, trace.getFrames().get(2).mJumpPosition);
+        try {
+            ScrollTrace.read("broken", new StringReader("10 20\ndrag 1\n"));
+            fail("malformed line accepted");
+        } catch (IOException e) {
+            assertContains(e.getMessage(), "broken:2");
+        }
+    }
+
+    private static void assertContains(String pText, String pExpected) {
+        assertTrue("\"" + pText + "\" lacks \"" + pExpected + "\"", pText.contains(pExpected));
+    }
+}
@@ -0,0 +1,97 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Views of a type leaving the window are parked in the pool, which grows per type to the most
+ * views of that type ever attached at once. Cells of sized types are laid out at their size.
+ */
+public class ViewTypePoolTest {
+    private static final int BAND = 40;
+    //A 1080x1920 viewport at offset 0 shows 6 columns of 16 rows
+    private static final int WINDOW_CELLS = 6 * 16;
+
+    private BenchmarkGrid mGrid;
+    private RecyclerView mRecyclerView;
+
+    @Before
+    public void setUp() {
+        mGrid = new BenchmarkGrid("1000x100", "1080x1920");
+        mGrid.mAdapter.mPlaceholderBand = BAND;
+        mGrid.mLayoutManager.setViewTypeCellSize(BenchmarkGrid.TYPE_CELL, BenchmarkGrid.CELL_WIDTH, BenchmarkGrid.CELL_HEIGHT);
+        mGrid.mLayoutManager.setViewTypeCellSize(BenchmarkGrid.TYPE_PLACEHOLDER,
+                BenchmarkGrid.CELL_WIDTH / 2, BenchmarkGrid.CELL_HEIGHT / 2);
+        mRecyclerView = mGrid.mRecyclerView;
+        mRecyclerView.dispatchLayout();
+    }
+
+    @Test
+    public void jumpBetweenBandsParksEveryLeavingView() {
+        final RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        //Into the placeholder band and back, every view of the band left is kept
+        scrollToRow(BAND);
+        assertEquals("cells in the pool", WINDOW_CELLS, pool.getRecycledViewCount(BenchmarkGrid.TYPE_CELL));
+        assertEquals("placeholders in the pool", 0, pool.getRecycledViewCount(BenchmarkGrid.TYPE_PLACEHOLDER));
+        mRecyclerView.getCounters().reset();
+        scrollToRow(0);
+        assertEquals("inflations coming back", 0, mRecyclerView.getCounters().inflations);
+        assertEquals("cells in the pool", 0, pool.getRecycledViewCount(BenchmarkGrid.TYPE_CELL));
+        assertEquals("placeholders in the pool", WINDOW_CELLS, pool.getRecycledViewCount(BenchmarkGrid.TYPE_PLACEHOLDER));
+        assertCellsSizedByType();
+    }
+
+    @Test
+    public void rowStepsAcrossBandsInflateOnlyTheFirstTime() {
+        final RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        //Down through a placeholder band into the next band of cells, one row per step
+        stepRows(2 * BAND);
+        assertCellsSizedByType();
+        //Cells of the next band come from the pool, the window held only placeholders in between
+        assertEquals("inflations", WINDOW_CELLS, mRecyclerView.getCounters().inflations);
+        assertEquals("cells in the pool", 0, pool.getRecycledViewCount(BenchmarkGrid.TYPE_CELL));
+        assertEquals("placeholders in the pool", WINDOW_CELLS, pool.getRecycledViewCount(BenchmarkGrid.TYPE_PLACEHOLDER));
+        mRecyclerView.getCounters().reset();
+        stepRows(-2 * BAND);
+        assertEquals("inflations on the way back", 0, mRecyclerView.getCounters().inflations);
+    }
+
+    private void scrollToRow(int pRow) {
+        mRecyclerView.scrollBy(0, pRow * BenchmarkGrid.CELL_HEIGHT - mRecyclerView.computeVerticalScrollOffset());
+    }
+
+    private void stepRows(int pRows) {
+        mRecyclerView.getCounters().reset();
+        final int step = pRows > 0 ? BenchmarkGrid.CELL_HEIGHT : -BenchmarkGrid.CELL_HEIGHT;
+        for (int i = 0; i < Math.abs(pRows); i++) {
+            mRecyclerView.scrollBy(0, step);
+        }
+    }
+
+    /**
+     * Expects cells at their full size and placeholders at half size, centered in their cell.
+     */
+    private void assertCellsSizedByType() {
+        for (int i = 0; i < mRecyclerView.getChildCount(); i++) {
+            final View child = mRecyclerView.getChildAt(i);
+            final boolean placeholder = mGrid.mLayoutManager.getItemViewType(child) == BenchmarkGrid.TYPE_PLACEHOLDER;
+            final int width = placeholder ? BenchmarkGrid.CELL_WIDTH / 2 : BenchmarkGrid.CELL_WIDTH;
+            final int height = placeholder ? BenchmarkGrid.CELL_HEIGHT / 2 : BenchmarkGrid.CELL_HEIGHT;
+            final TwoWayGridLayoutManager.LayoutParams lp = (TwoWayGridLayoutManager.LayoutParams) child.getLayoutParams();
+            assertEquals("width at " + lp.row + "," + lp.column, width, child.getWidth());
+            assertEquals("height at " + lp.row + "," + lp.column, height, child.getHeight());
+            assertEquals("left at " + lp.row + "," + lp.column,
+                    lp.column * BenchmarkGrid.CELL_WIDTH + (BenchmarkGrid.CELL_WIDTH - width) / 2
+                            - mRecyclerView.computeHorizontalScrollOffset(), child.getLeft());
+            assertEquals("top at " + lp.row + "," + lp.column,
+                    lp.row * BenchmarkGrid.CELL_HEIGHT + (BenchmarkGrid.CELL_HEIGHT - height) / 2
+                            - mRecyclerView.computeVerticalScrollOffset(), child.getTop());
+        }
+        LayoutAssert.assertMeasuredAsLaidOut("sized by type", mRecyclerView);
+    }
+}
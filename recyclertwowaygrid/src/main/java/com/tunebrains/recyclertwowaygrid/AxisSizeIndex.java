@@ -0,0 +1,124 @@
+package com.tunebrains.recyclertwowaygrid;
+
+/**
+ * Pixel offsets of the rows or the columns of the grid.
+ * Uniform axes are plain arithmetic, variable axes are backed by a Fenwick tree so
+ * offset lookups and single size updates are O(log n).
+ */
+final class AxisSizeIndex {
+    private int mCount;
+    private int mUniformSize;
+    //Null while the axis is uniform
+    private int[] mSizes;
+    //1-based Fenwick tree over mSizes
+    private int[] mTree;
+    private int mTotalSize;
+
+    void setUniform(int pCount, int pSize) {
+        mCount = pCount;
+        mUniformSize = pSize;
+        mSizes = null;
+        mTotalSize = pCount * pSize;
+    }
+
+    /**
+     * Rebuilds the index from the lookup in O(n). Arrays are reused while they are large enough.
+     */
+    void setSizes(int pCount, TwoWayGridLayoutManager.SizeLookup pLookup) {
+        mCount = pCount;
+        if (mSizes == null || mSizes.length < pCount) {
+            mSizes = new int[pCount];
+            mTree = new int[pCount + 1];
+        }
+        mTotalSize = 0;
+        mTree[0] = 0;
+        for (int i = 0; i < pCount; i++) {
+            int size = pLookup.getSize(i);
+            mSizes[i] = size;
+            mTree[i + 1] = size;
+            mTotalSize += size;
+        }
+        for (int i = 1; i <= pCount; i++) {
+            int parent = i + (i & -i);
+            if (parent <= pCount) {
+                mTree[parent] += mTree[i];
+            }
+        }
+    }
+
+    boolean isUniform() {
+        return mSizes == null;
+    }
+
+    int getCount() {
+        return mCount;
+    }
+
+    int getTotalSize() {
+        return mTotalSize;
+    }
+
+    int sizeOf(int pIndex) {
+        if (mSizes == null) {
+            return mUniformSize;
+        }
+        return mSizes[pIndex];
+    }
+
+    /**
+     * Updates one entry without rebuilding the index.
+     */
+    void updateSize(int pIndex, int pSize) {
+        if (mSizes == null || pIndex < 0 || pIndex >= mCount) {
+            return;
+        }
+        int delta = pSize - mSizes[pIndex];
+        if (delta == 0) {
+            return;
+        }
+        mSizes[pIndex] = pSize;
+        mTotalSize += delta;
+        for (int i = pIndex + 1; i <= mCount; i += i & -i) {
+            mTree[i] += delta;
+        }
+    }
+
+    /**
+     * @return offset of the leading edge of the entry, {@link #getTotalSize()} for the end of the axis
+     */
+    int offsetOf(int pIndex) {
+        if (mSizes == null) {
+            return pIndex * mUniformSize;
+        }
+        int offset = 0;
+        for (int i = Math.min(pIndex, mCount); i > 0; i -= i & -i) {
+            offset += mTree[i];
+        }
+        return offset;
+    }
+
+    /**
+     * @return entry covering the offset, clamped to the axis bounds
+     */
+    int indexAt(int pOffset) {
+        if (mCount == 0 || pOffset < 0) {
+            return 0;
+        }
+        int index;
+        if (mSizes == null) {
+            index = mUniformSize == 0 ? 0 : pOffset / mUniformSize;
+        } else {
+            //Binary lifting over the tree, finds the number of entries ending at or before the offset
+            index = 0;
+            int remaining = pOffset;
+            for (int step = Integer.highestOneBit(mCount); step > 0; step >>= 1) {
+                int next = index + step;
+                if (next <= mCount && mTree[next] <= remaining) {
+                    index = next;
+                    remaining -= mTree[next];
+                }
+            }
+        }
+        return Math.min(index, mCount - 1);
+    }
+}
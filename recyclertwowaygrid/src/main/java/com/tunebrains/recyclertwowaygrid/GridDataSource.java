@@ -0,0 +1,12 @@
+package com.tunebrains.recyclertwowaygrid;
+
+/**
+ * Adapter data addressed by row and column instead of a linear position.
+ * When the adapter of the RecyclerView implements it, {@link TwoWayGridLayoutManager}
+ * takes the grid shape from here and lays cells out by (row, column) directly.
+ */
+public interface GridDataSource {
+    int getRowCount();
+
+    int getColumnCount();
+}
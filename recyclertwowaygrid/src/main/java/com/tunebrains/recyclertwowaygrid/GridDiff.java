@@ -0,0 +1,481 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes the adapter notifications turning one grid snapshot into another.
+ * Rows and columns are matched on their own axis with Myers' algorithm, so inserted, removed
+ * and moved rows or columns become whole-row and whole-column operations. Only cells of
+ * matched rows and columns whose contents differ are notified as changed.
+ * The computation touches no views and is meant for a worker thread, the result is
+ * dispatched on the main thread right after the adapter starts serving the new snapshot.
+ */
+public final class GridDiff {
+    /**
+     * Beyond this many notifications replaying them costs more than rebinding the window,
+     * the result falls back to notifyDataSetChanged.
+     */
+    public static final int MAX_OPERATIONS = 2048;
+
+    private GridDiff() {
+    }
+
+    /**
+     * Describes both snapshots. Called from the thread running {@link #calculate(Callback)},
+     * the snapshots must not change while the diff runs.
+     */
+    public static abstract class Callback {
+        public abstract int getOldRowCount();
+
+        public abstract int getOldColumnCount();
+
+        public abstract int getNewRowCount();
+
+        public abstract int getNewColumnCount();
+
+        public abstract boolean areRowsTheSame(int pOldRow, int pNewRow);
+
+        public abstract boolean areColumnsTheSame(int pOldColumn, int pNewColumn);
+
+        public abstract boolean areCellContentsTheSame(int pOldRow, int pOldColumn, int pNewRow, int pNewColumn);
+
+        /**
+         * Lets a matched row skip the cell by cell comparison, for rows known to be unchanged.
+         */
+        public boolean areRowContentsTheSame(int pOldRow, int pNewRow) {
+            return false;
+        }
+    }
+
+    public static Result calculate(Callback pCallback) {
+        return calculate(pCallback, true);
+    }
+
+    /**
+     * @param pDetectMoves match removed rows and columns with inserted ones, costs a comparison
+     *                     per removed and inserted pair
+     */
+    public static Result calculate(Callback pCallback, boolean pDetectMoves) {
+        final int oldRowCount = pCallback.getOldRowCount();
+        final int oldColumnCount = pCallback.getOldColumnCount();
+        final int newRowCount = pCallback.getNewRowCount();
+        final int newColumnCount = pCallback.getNewColumnCount();
+        final Axis rows = diffAxis(pCallback, true, oldRowCount, newRowCount, pDetectMoves);
+        final Axis columns = diffAxis(pCallback, false, oldColumnCount, newColumnCount, pDetectMoves);
+        final Result result = new Result(rows.mOldToNew, columns.mOldToNew);
+
+        //Rows first, every row still has the old column count
+        final List<int[]> rowOperations = rows.operations();
+        for (int i = 0; i < rowOperations.size() && !result.mTooManyOperations; i++) {
+            final int[] operation = rowOperations.get(i);
+            if (operation[0] == Result.TYPE_MOVE) {
+                moveRow(result, operation[1], operation[2], oldColumnCount);
+            } else {
+                result.add(operation[0], operation[1] * oldColumnCount, operation[2] * oldColumnCount);
+            }
+        }
+        //Then columns, repeated on every row from the last one so earlier rows keep their positions
+        int columnCount = oldColumnCount;
+        final List<int[]> columnOperations = columns.operations();
+        for (int i = 0; i < columnOperations.size() && !result.mTooManyOperations; i++) {
+            final int[] operation = columnOperations.get(i);
+            for (int row = newRowCount - 1; row >= 0 && !result.mTooManyOperations; row--) {
+                if (operation[0] == Result.TYPE_MOVE) {
+                    result.add(Result.TYPE_MOVE, row * columnCount + operation[1], row * columnCount + operation[2]);
+                } else {
+                    result.add(operation[0], row * columnCount + operation[1], operation[2]);
+                }
+            }
+            if (operation[0] == Result.TYPE_INSERT) {
+                columnCount += operation[2];
+            } else if (operation[0] == Result.TYPE_REMOVE) {
+                columnCount -= operation[2];
+            }
+        }
+        //Cells kept on both axes are compared last, at their new positions
+        for (int row = 0; row < newRowCount && !result.mTooManyOperations; row++) {
+            final int oldRow = rows.mNewToOld[row];
+            if (oldRow == RecyclerView.NO_POSITION || pCallback.areRowContentsTheSame(oldRow, row)) {
+                continue;
+            }
+            for (int column = 0; column < newColumnCount; column++) {
+                final int oldColumn = columns.mNewToOld[column];
+                if (oldColumn != RecyclerView.NO_POSITION
+                        && !pCallback.areCellContentsTheSame(oldRow, oldColumn, row, column)) {
+                    result.add(Result.TYPE_CHANGE, row * newColumnCount + column, 1);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Moves a whole row one cell at a time, keeping the order of its cells.
+     */
+    private static void moveRow(Result pResult, int pFrom, int pTo, int pColumnCount) {
+        for (int column = 0; column < pColumnCount; column++) {
+            if (pTo < pFrom) {
+                pResult.add(Result.TYPE_MOVE, pFrom * pColumnCount + column, pTo * pColumnCount + column);
+            } else {
+                //The leading cell of the row shifts in each time the previous one leaves
+                pResult.add(Result.TYPE_MOVE, pFrom * pColumnCount, pTo * pColumnCount + pColumnCount - 1);
+            }
+        }
+    }
+
+    private static Axis diffAxis(Callback pCallback, boolean pRows, int pOldSize, int pNewSize, boolean pDetectMoves) {
+        final Axis axis = new Axis(pCallback, pRows, pOldSize, pNewSize);
+        final int max = pOldSize + pNewSize + Math.abs(pOldSize - pNewSize);
+        final int[] forward = new int[max * 2];
+        final int[] backward = new int[max * 2];
+        final List<int[]> stack = new ArrayList<>();
+        stack.add(new int[]{0, pOldSize, 0, pNewSize});
+        while (!stack.isEmpty()) {
+            final int[] range = stack.remove(stack.size() - 1);
+            final Snake snake = axis.middleSnake(range[0], range[1], range[2], range[3], forward, backward, max);
+            if (snake == null) {
+                continue;
+            }
+            snake.mX += range[0];
+            snake.mY += range[2];
+            for (int i = 0; i < snake.mSize; i++) {
+                axis.match(snake.mX + i, snake.mY + i);
+            }
+            //The step into or out of the snake is an insert or a removal, it is left out of both halves
+            final int[] left = {range[0], snake.mX, range[2], snake.mY};
+            if (!snake.mReverse) {
+                if (snake.mRemoval) {
+                    left[1]--;
+                } else {
+                    left[3]--;
+                }
+            }
+            stack.add(left);
+            final int[] right = {snake.mX + snake.mSize, range[1], snake.mY + snake.mSize, range[3]};
+            if (snake.mReverse) {
+                if (snake.mRemoval) {
+                    right[0]++;
+                } else {
+                    right[2]++;
+                }
+            }
+            stack.add(right);
+        }
+        if (pDetectMoves) {
+            axis.detectMoves();
+        }
+        return axis;
+    }
+
+    private static final class Snake {
+        int mX;
+        int mY;
+        int mSize;
+        //Whether the step next to the snake removes an old entry or inserts a new one
+        boolean mRemoval;
+        //Whether the snake was found walking backwards, the step then follows the snake
+        boolean mReverse;
+    }
+
+    /**
+     * Matching of the old and new entries of one axis.
+     */
+    private static final class Axis {
+        private final Callback mCallback;
+        private final boolean mRows;
+        final int[] mOldToNew;
+        final int[] mNewToOld;
+        //Per new entry: matched out of order, dispatched as a move
+        private final boolean[] mMoved;
+
+        Axis(Callback pCallback, boolean pRows, int pOldSize, int pNewSize) {
+            mCallback = pCallback;
+            mRows = pRows;
+            mOldToNew = new int[pOldSize];
+            mNewToOld = new int[pNewSize];
+            mMoved = new boolean[pNewSize];
+            Arrays.fill(mOldToNew, RecyclerView.NO_POSITION);
+            Arrays.fill(mNewToOld, RecyclerView.NO_POSITION);
+        }
+
+        private boolean isSame(int pOld, int pNew) {
+            return mRows ? mCallback.areRowsTheSame(pOld, pNew) : mCallback.areColumnsTheSame(pOld, pNew);
+        }
+
+        void match(int pOld, int pNew) {
+            mOldToNew[pOld] = pNew;
+            mNewToOld[pNew] = pOld;
+        }
+
+        /**
+         * Finds the middle snake of the shortest edit script of the range, in range coordinates.
+         */
+        Snake middleSnake(int pOldStart, int pOldEnd, int pNewStart, int pNewEnd, int[] pForward, int[] pBackward,
+                          int pOffset) {
+            final int oldSize = pOldEnd - pOldStart;
+            final int newSize = pNewEnd - pNewStart;
+            if (oldSize < 1 || newSize < 1) {
+                return null;
+            }
+            final int delta = oldSize - newSize;
+            final int dLimit = (oldSize + newSize + 1) / 2;
+            Arrays.fill(pForward, pOffset - dLimit - 1, pOffset + dLimit + 1, 0);
+            Arrays.fill(pBackward, pOffset - dLimit - 1 + delta, pOffset + dLimit + 1 + delta, oldSize);
+            final boolean checkInForward = delta % 2 != 0;
+            for (int d = 0; d <= dLimit; d++) {
+                for (int k = -d; k <= d; k += 2) {
+                    int x;
+                    boolean removal;
+                    if (k == -d || (k != d && pForward[pOffset + k - 1] < pForward[pOffset + k + 1])) {
+                        x = pForward[pOffset + k + 1];
+                        removal = false;
+                    } else {
+                        x = pForward[pOffset + k - 1] + 1;
+                        removal = true;
+                    }
+                    int y = x - k;
+                    while (x < oldSize && y < newSize && isSame(pOldStart + x, pNewStart + y)) {
+                        x++;
+                        y++;
+                    }
+                    pForward[pOffset + k] = x;
+                    if (checkInForward && k >= delta - d + 1 && k <= delta + d - 1
+                            && pForward[pOffset + k] >= pBackward[pOffset + k]) {
+                        return snake(pBackward[pOffset + k], k, pForward[pOffset + k] - pBackward[pOffset + k],
+                                removal, false);
+                    }
+                }
+                for (int k = -d; k <= d; k += 2) {
+                    final int backwardK = k + delta;
+                    int x;
+                    boolean removal;
+                    if (backwardK == d + delta || (backwardK != -d + delta
+                            && pBackward[pOffset + backwardK - 1] < pBackward[pOffset + backwardK + 1])) {
+                        x = pBackward[pOffset + backwardK - 1];
+                        removal = false;
+                    } else {
+                        x = pBackward[pOffset + backwardK + 1] - 1;
+                        removal = true;
+                    }
+                    int y = x - backwardK;
+                    while (x > 0 && y > 0 && isSame(pOldStart + x - 1, pNewStart + y - 1)) {
+                        x--;
+                        y--;
+                    }
+                    pBackward[pOffset + backwardK] = x;
+                    if (!checkInForward && backwardK >= -d && backwardK <= d
+                            && pForward[pOffset + backwardK] >= pBackward[pOffset + backwardK]) {
+                        return snake(pBackward[pOffset + backwardK], backwardK,
+                                pForward[pOffset + backwardK] - pBackward[pOffset + backwardK], removal, true);
+                    }
+                }
+            }
+            throw new IllegalStateException("Grid snapshots changed while the diff was running");
+        }
+
+        private static Snake snake(int pX, int pK, int pSize, boolean pRemoval, boolean pReverse) {
+            final Snake snake = new Snake();
+            snake.mX = pX;
+            snake.mY = pX - pK;
+            snake.mSize = pSize;
+            snake.mRemoval = pRemoval;
+            snake.mReverse = pReverse;
+            return snake;
+        }
+
+        /**
+         * Pairs removed entries with the first inserted entry they are the same as.
+         */
+        void detectMoves() {
+            for (int oldIndex = 0; oldIndex < mOldToNew.length; oldIndex++) {
+                if (mOldToNew[oldIndex] != RecyclerView.NO_POSITION) {
+                    continue;
+                }
+                for (int newIndex = 0; newIndex < mNewToOld.length; newIndex++) {
+                    if (mNewToOld[newIndex] == RecyclerView.NO_POSITION && isSame(oldIndex, newIndex)) {
+                        match(oldIndex, newIndex);
+                        mMoved[newIndex] = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return type, index and count, or type, from and to, of the axis operations in dispatch order:
+         * removals from the end, then moves, then inserts from the start
+         */
+        List<int[]> operations() {
+            final List<int[]> operations = new ArrayList<>();
+            for (int oldIndex = mOldToNew.length - 1; oldIndex >= 0; oldIndex--) {
+                if (mOldToNew[oldIndex] != RecyclerView.NO_POSITION) {
+                    continue;
+                }
+                int start = oldIndex;
+                while (start > 0 && mOldToNew[start - 1] == RecyclerView.NO_POSITION) {
+                    start--;
+                }
+                operations.add(new int[]{Result.TYPE_REMOVE, start, oldIndex - start + 1});
+                oldIndex = start;
+            }
+
+            //Kept entries in old order, by new index. Entries matched in order are settled already
+            final int[] current = new int[mNewToOld.length];
+            int size = 0;
+            for (int newIndex : mOldToNew) {
+                if (newIndex != RecyclerView.NO_POSITION) {
+                    current[size++] = newIndex;
+                }
+            }
+            final boolean[] settled = new boolean[mNewToOld.length];
+            for (int newIndex = 0; newIndex < settled.length; newIndex++) {
+                settled[newIndex] = mNewToOld[newIndex] != RecyclerView.NO_POSITION && !mMoved[newIndex];
+            }
+            for (int newIndex = 0; newIndex < mMoved.length; newIndex++) {
+                if (!mMoved[newIndex]) {
+                    continue;
+                }
+                int from = 0;
+                while (current[from] != newIndex) {
+                    from++;
+                }
+                System.arraycopy(current, from + 1, current, from, size - from - 1);
+                size--;
+                //Right after the last settled entry that precedes it in the new order
+                int to = 0;
+                for (int i = 0; i < size; i++) {
+                    if (settled[current[i]] && current[i] < newIndex) {
+                        to = i + 1;
+                    }
+                }
+                System.arraycopy(current, to, current, to + 1, size - to);
+                current[to] = newIndex;
+                size++;
+                settled[newIndex] = true;
+                if (from != to) {
+                    operations.add(new int[]{Result.TYPE_MOVE, from, to});
+                }
+            }
+
+            for (int newIndex = 0; newIndex < mNewToOld.length; newIndex++) {
+                if (mNewToOld[newIndex] != RecyclerView.NO_POSITION) {
+                    continue;
+                }
+                int end = newIndex + 1;
+                while (end < mNewToOld.length && mNewToOld[end] == RecyclerView.NO_POSITION) {
+                    end++;
+                }
+                operations.add(new int[]{Result.TYPE_INSERT, newIndex, end - newIndex});
+                newIndex = end - 1;
+            }
+            return operations;
+        }
+    }
+
+    /**
+     * Notifications in flat adapter positions, in the order they have to be dispatched.
+     */
+    public static final class Result {
+        static final int TYPE_INSERT = 0;
+        static final int TYPE_REMOVE = 1;
+        static final int TYPE_MOVE = 2;
+        static final int TYPE_CHANGE = 3;
+        private final int[] mRowOldToNew;
+        private final int[] mColumnOldToNew;
+        //Triples of type, position and count, or type, from and to for moves
+        private int[] mOperations = new int[3 * 16];
+        private int mOperationCount;
+        boolean mTooManyOperations;
+
+        Result(int[] pRowOldToNew, int[] pColumnOldToNew) {
+            mRowOldToNew = pRowOldToNew;
+            mColumnOldToNew = pColumnOldToNew;
+        }
+
+        /**
+         * Appends an operation, merged into the previous one when they cover adjacent ranges.
+         */
+        void add(int pType, int pPosition, int pCount) {
+            if (mTooManyOperations || (pType != TYPE_MOVE && pCount == 0)) {
+                return;
+            }
+            if (mOperationCount > 0 && mOperations[mOperationCount - 3] == pType && pType != TYPE_MOVE) {
+                final int lastPosition = mOperations[mOperationCount - 2];
+                final int lastCount = mOperations[mOperationCount - 1];
+                if (pType == TYPE_REMOVE && (pPosition + pCount == lastPosition || pPosition == lastPosition)) {
+                    mOperations[mOperationCount - 2] = pPosition;
+                    mOperations[mOperationCount - 1] += pCount;
+                    return;
+                }
+                if (pType == TYPE_INSERT && pPosition == lastPosition) {
+                    mOperations[mOperationCount - 1] += pCount;
+                    return;
+                }
+                if (pPosition == lastPosition + lastCount && pType != TYPE_REMOVE) {
+                    mOperations[mOperationCount - 1] += pCount;
+                    return;
+                }
+            }
+            if (mOperationCount / 3 == MAX_OPERATIONS) {
+                mTooManyOperations = true;
+                return;
+            }
+            if (mOperationCount == mOperations.length) {
+                mOperations = Arrays.copyOf(mOperations, mOperations.length * 2);
+            }
+            mOperations[mOperationCount++] = pType;
+            mOperations[mOperationCount++] = pPosition;
+            mOperations[mOperationCount++] = pCount;
+        }
+
+        /**
+         * @return number of notifications {@link #dispatchUpdatesTo(RecyclerView.Adapter)} sends,
+         * 1 when it falls back to notifyDataSetChanged
+         */
+        public int getOperationCount() {
+            return mTooManyOperations ? 1 : mOperationCount / 3;
+        }
+
+        public boolean isFullRebind() {
+            return mTooManyOperations;
+        }
+
+        /**
+         * @return row of the new snapshot holding the old row, {@link RecyclerView#NO_POSITION} if it was removed
+         */
+        public int convertOldRowToNew(int pOldRow) {
+            return mRowOldToNew[pOldRow];
+        }
+
+        public int convertOldColumnToNew(int pOldColumn) {
+            return mColumnOldToNew[pOldColumn];
+        }
+
+        public void dispatchUpdatesTo(RecyclerView.Adapter pAdapter) {
+            if (mTooManyOperations) {
+                pAdapter.notifyDataSetChanged();
+                return;
+            }
+            for (int i = 0; i < mOperationCount; i += 3) {
+                switch (mOperations[i]) {
+                    case TYPE_INSERT:
+                        pAdapter.notifyItemRangeInserted(mOperations[i + 1], mOperations[i + 2]);
+                        break;
+                    case TYPE_REMOVE:
+                        pAdapter.notifyItemRangeRemoved(mOperations[i + 1], mOperations[i + 2]);
+                        break;
+                    case TYPE_MOVE:
+                        pAdapter.notifyItemMoved(mOperations[i + 1], mOperations[i + 2]);
+                        break;
+                    case TYPE_CHANGE:
+                        pAdapter.notifyItemRangeChanged(mOperations[i + 1], mOperations[i + 2]);
+                        break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+
+/**
+ * Draggable thumbs along the right and bottom edges of a RecyclerView, shown on each axis whose
+ * content is larger than the viewport. Dragging a thumb scrolls straight to the matching offset,
+ * a {@link TwoWayGridLayoutManager} jumps its window there and binds only the cells visible
+ * at the end. Thumbs are placed from the scroll offset, extent and range of the layout manager.
+ */
+public class GridFastScroller extends RecyclerView.ItemDecoration implements RecyclerView.OnItemTouchListener {
+    private static final int DRAG_NONE = 0;
+    private static final int DRAG_VERTICAL = 1;
+    private static final int DRAG_HORIZONTAL = 2;
+
+    private final Paint mThumbPaint = new Paint();
+    private final int mThickness;
+    private final int mMinThumbLength;
+    private final Rect mThumb = new Rect();
+    private RecyclerView mRecyclerView;
+    private int mDragAxis = DRAG_NONE;
+    //Distance from the thumb start to the finger, kept while dragging
+    private float mGrabOffset;
+
+    /**
+     * @param pThickness      thumb width across its axis in pixels, the touch area is three times as wide
+     * @param pMinThumbLength shortest thumb in pixels, thumbs of huge grids stay easy to grab
+     */
+    public GridFastScroller(int pThumbColor, int pThickness, int pMinThumbLength) {
+        mThumbPaint.setColor(pThumbColor);
+        mThickness = Math.max(1, pThickness);
+        mMinThumbLength = Math.max(mThickness, pMinThumbLength);
+    }
+
+    public void attachToRecyclerView(RecyclerView pRecyclerView) {
+        if (mRecyclerView == pRecyclerView) {
+            return;
+        }
+        if (mRecyclerView != null) {
+            mRecyclerView.removeItemDecoration(this);
+            mRecyclerView.removeOnItemTouchListener(this);
+        }
+        mRecyclerView = pRecyclerView;
+        mDragAxis = DRAG_NONE;
+        if (pRecyclerView != null) {
+            pRecyclerView.addItemDecoration(this);
+            pRecyclerView.addOnItemTouchListener(this);
+        }
+    }
+
+    @Override
+    public void onDrawOver(Canvas c, RecyclerView parent, RecyclerView.State state) {
+        if (getVerticalThumb(parent, mThumb)) {
+            c.drawRect(mThumb, mThumbPaint);
+        }
+        if (getHorizontalThumb(parent, mThumb)) {
+            c.drawRect(mThumb, mThumbPaint);
+        }
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(RecyclerView rv, MotionEvent e) {
+        if (e.getActionMasked() != MotionEvent.ACTION_DOWN) {
+            return mDragAxis != DRAG_NONE;
+        }
+        final float x = e.getX();
+        final float y = e.getY();
+        if (getVerticalThumb(rv, mThumb) && isInTouchArea(mThumb, x, y)) {
+            mDragAxis = DRAG_VERTICAL;
+            mGrabOffset = Math.max(0, Math.min(y - mThumb.top, mThumb.height()));
+        } else if (getHorizontalThumb(rv, mThumb) && isInTouchArea(mThumb, x, y)) {
+            mDragAxis = DRAG_HORIZONTAL;
+            mGrabOffset = Math.max(0, Math.min(x - mThumb.left, mThumb.width()));
+        }
+        return mDragAxis != DRAG_NONE;
+    }
+
+    @Override
+    public void onTouchEvent(RecyclerView rv, MotionEvent e) {
+        switch (e.getActionMasked()) {
+            case MotionEvent.ACTION_MOVE:
+                if (mDragAxis == DRAG_VERTICAL) {
+                    final int track = getTrackLength(rv.getHeight());
+                    final int target = getTargetOffset(e.getY() - mGrabOffset, track, rv.computeVerticalScrollExtent(),
+                            rv.computeVerticalScrollRange());
+                    //One step however far it goes, cells between the old and new window are never bound
+                    rv.scrollBy(0, target - rv.computeVerticalScrollOffset());
+                } else if (mDragAxis == DRAG_HORIZONTAL) {
+                    final int track = getTrackLength(rv.getWidth());
+                    final int target = getTargetOffset(e.getX() - mGrabOffset, track, rv.computeHorizontalScrollExtent(),
+                            rv.computeHorizontalScrollRange());
+                    rv.scrollBy(target - rv.computeHorizontalScrollOffset(), 0);
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                mDragAxis = DRAG_NONE;
+                break;
+        }
+    }
+
+    @Override
+    public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+    }
+
+    private boolean getVerticalThumb(RecyclerView pParent, Rect pOut) {
+        final int range = pParent.computeVerticalScrollRange();
+        final int extent = pParent.computeVerticalScrollExtent();
+        if (range <= extent) {
+            return false;
+        }
+        final int track = getTrackLength(pParent.getHeight());
+        final int length = getThumbLength(track, extent, range);
+        final int start = getThumbStart(track, length, pParent.computeVerticalScrollOffset(), extent, range);
+        pOut.set(pParent.getWidth() - mThickness, start, pParent.getWidth(), start + length);
+        return true;
+    }
+
+    private boolean getHorizontalThumb(RecyclerView pParent, Rect pOut) {
+        final int range = pParent.computeHorizontalScrollRange();
+        final int extent = pParent.computeHorizontalScrollExtent();
+        if (range <= extent) {
+            return false;
+        }
+        final int track = getTrackLength(pParent.getWidth());
+        final int length = getThumbLength(track, extent, range);
+        final int start = getThumbStart(track, length, pParent.computeHorizontalScrollOffset(), extent, range);
+        pOut.set(start, pParent.getHeight() - mThickness, start + length, pParent.getHeight());
+        return true;
+    }
+
+    /**
+     * Tracks leave the bottom right corner free, the thumbs never overlap.
+     */
+    private int getTrackLength(int pSize) {
+        return Math.max(0, pSize - mThickness);
+    }
+
+    private int getThumbLength(int pTrack, int pExtent, int pRange) {
+        return Math.min(pTrack, Math.max(mMinThumbLength, (int) ((long) pTrack * pExtent / pRange)));
+    }
+
+    private static int getThumbStart(int pTrack, int pLength, int pOffset, int pExtent, int pRange) {
+        return (int) ((long) (pTrack - pLength) * pOffset / (pRange - pExtent));
+    }
+
+    private int getTargetOffset(float pThumbStart, int pTrack, int pExtent, int pRange) {
+        final int free = pTrack - getThumbLength(pTrack, pExtent, pRange);
+        if (free <= 0) {
+            return 0;
+        }
+        final float fraction = Math.max(0f, Math.min(1f, pThumbStart / free));
+        return Math.round(fraction * (pRange - pExtent));
+    }
+
+    private boolean isInTouchArea(Rect pThumb, float pX, float pY) {
+        return pX >= pThumb.left - mThickness && pX < pThumb.right + mThickness
+                && pY >= pThumb.top - mThickness && pY < pThumb.bottom + mThickness;
+    }
+}
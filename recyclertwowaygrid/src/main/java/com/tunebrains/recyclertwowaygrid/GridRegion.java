@@ -0,0 +1,29 @@
+package com.tunebrains.recyclertwowaygrid;
+
+/**
+ * One independently scrolled block of the grid: the body, the frozen rows,
+ * the frozen columns or their corner. Each region keeps its own window and
+ * attached cells, so scrolling one axis never touches regions pinned on it.
+ */
+final class GridRegion {
+    final ViewRingBuffer mCells = new ViewRingBuffer();
+    //Window of attached cells, last row and column are exclusive
+    int mFirstRow;
+    int mLastRow;
+    int mFirstColumn;
+    int mLastColumn;
+    //Number of attached children, regions are kept in consecutive child index ranges
+    int mChildCount;
+
+    void reset() {
+        mCells.clear();
+        mFirstRow = mLastRow = 0;
+        mFirstColumn = mLastColumn = 0;
+        mChildCount = 0;
+    }
+
+    boolean isWindow(int pFirstRow, int pLastRow, int pFirstColumn, int pLastColumn) {
+        return mFirstRow == pFirstRow && mLastRow == pLastRow
+                && mFirstColumn == pFirstColumn && mLastColumn == pLastColumn;
+    }
+}
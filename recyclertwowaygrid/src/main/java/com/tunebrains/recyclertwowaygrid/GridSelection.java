@@ -0,0 +1,184 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import java.util.Arrays;
+
+/**
+ * Selected cells of a grid, kept as a paged bitset over row-major cell indexes.
+ * Pages are allocated on the first partial write and pages set entirely share one instance.
+ * Select all only flips an inversion flag, so membership tests stay O(1) and memory follows
+ * the shape of the selection rather than the size of the grid.
+ */
+public final class GridSelection {
+    private static final int PAGE_SHIFT = 12;
+    private static final int PAGE_BITS = 1 << PAGE_SHIFT;
+    private static final int PAGE_WORDS = PAGE_BITS / 64;
+    //Shared by every page with all bits set, copied before a partial write
+    private static final long[] FULL_PAGE = new long[PAGE_WORDS];
+
+    static {
+        Arrays.fill(FULL_PAGE, -1L);
+    }
+
+    /**
+     * Told about every change before it is applied, cells still report their previous state.
+     */
+    public interface Observer {
+        void onRangeChanging(int pFirstRow, int pFirstColumn, int pRowCount, int pColumnCount, boolean pSelected);
+    }
+
+    private final int mRowCount;
+    private final int mColumnCount;
+    private final long[][] mPages;
+    //Stored bits read flipped, select all and clear drop the pages instead of writing them
+    private boolean mInverted;
+    private long mStoredCount;
+    private Observer mObserver;
+
+    public GridSelection(int pRowCount, int pColumnCount) {
+        mRowCount = Math.max(0, pRowCount);
+        mColumnCount = Math.max(0, pColumnCount);
+        mPages = new long[(int) ((getCellCount() + PAGE_BITS - 1) >>> PAGE_SHIFT)][];
+    }
+
+    public int getRowCount() {
+        return mRowCount;
+    }
+
+    public int getColumnCount() {
+        return mColumnCount;
+    }
+
+    public long getCellCount() {
+        return (long) mRowCount * mColumnCount;
+    }
+
+    public long getSelectedCount() {
+        return mInverted ? getCellCount() - mStoredCount : mStoredCount;
+    }
+
+    void setObserver(Observer pObserver) {
+        mObserver = pObserver;
+    }
+
+    public boolean isSelected(int pRow, int pColumn) {
+        if (pRow < 0 || pRow >= mRowCount || pColumn < 0 || pColumn >= mColumnCount) {
+            return false;
+        }
+        final long index = (long) pRow * mColumnCount + pColumn;
+        final long[] page = mPages[(int) (index >>> PAGE_SHIFT)];
+        final boolean stored = page != null && (page[(int) (index & (PAGE_BITS - 1)) >>> 6] & (1L << index)) != 0;
+        return stored != mInverted;
+    }
+
+    public void setSelected(int pRow, int pColumn, boolean pSelected) {
+        setRangeSelected(pRow, pColumn, 1, 1, pSelected);
+    }
+
+    public void toggle(int pRow, int pColumn) {
+        setSelected(pRow, pColumn, !isSelected(pRow, pColumn));
+    }
+
+    public void setRowsSelected(int pFirstRow, int pRowCount, boolean pSelected) {
+        setRangeSelected(pFirstRow, 0, pRowCount, mColumnCount, pSelected);
+    }
+
+    public void setColumnsSelected(int pFirstColumn, int pColumnCount, boolean pSelected) {
+        setRangeSelected(0, pFirstColumn, mRowCount, pColumnCount, pSelected);
+    }
+
+    /**
+     * Sets a rectangle of cells, clipped to the grid. Costs one range write per row,
+     * a single one when the rectangle spans whole rows.
+     */
+    public void setRangeSelected(int pFirstRow, int pFirstColumn, int pRowCount, int pColumnCount, boolean pSelected) {
+        final int firstRow = Math.max(0, pFirstRow);
+        final int firstColumn = Math.max(0, pFirstColumn);
+        final int lastRow = (int) Math.min(mRowCount, (long) pFirstRow + pRowCount);
+        final int lastColumn = (int) Math.min(mColumnCount, (long) pFirstColumn + pColumnCount);
+        if (firstRow >= lastRow || firstColumn >= lastColumn) {
+            return;
+        }
+        if (mObserver != null) {
+            mObserver.onRangeChanging(firstRow, firstColumn, lastRow - firstRow, lastColumn - firstColumn, pSelected);
+        }
+        if (firstRow == 0 && lastRow == mRowCount && firstColumn == 0 && lastColumn == mColumnCount) {
+            Arrays.fill(mPages, null);
+            mStoredCount = 0;
+            mInverted = pSelected;
+            return;
+        }
+        final boolean stored = pSelected != mInverted;
+        if (firstColumn == 0 && lastColumn == mColumnCount) {
+            setStoredRange((long) firstRow * mColumnCount, (long) lastRow * mColumnCount, stored);
+            return;
+        }
+        for (int row = firstRow; row < lastRow; row++) {
+            final long rowStart = (long) row * mColumnCount;
+            setStoredRange(rowStart + firstColumn, rowStart + lastColumn, stored);
+        }
+    }
+
+    public void selectAll() {
+        setRangeSelected(0, 0, mRowCount, mColumnCount, true);
+    }
+
+    public void clear() {
+        setRangeSelected(0, 0, mRowCount, mColumnCount, false);
+    }
+
+    private void setStoredRange(long pFrom, long pTo, boolean pValue) {
+        final long[] uniformPage = pValue ? FULL_PAGE : null;
+        while (pFrom < pTo) {
+            final int pageIndex = (int) (pFrom >>> PAGE_SHIFT);
+            final long pageStart = (long) pageIndex << PAGE_SHIFT;
+            final int from = (int) (pFrom - pageStart);
+            final int to = (int) Math.min(PAGE_BITS, pTo - pageStart);
+            long[] page = mPages[pageIndex];
+            if (from == 0 && to == PAGE_BITS) {
+                mStoredCount += (pValue ? PAGE_BITS : 0) - countBits(page);
+                mPages[pageIndex] = uniformPage;
+            } else if (page != uniformPage) {
+                if (page == null) {
+                    page = new long[PAGE_WORDS];
+                } else if (page == FULL_PAGE) {
+                    page = FULL_PAGE.clone();
+                }
+                mStoredCount += setBits(page, from, to, pValue);
+                mPages[pageIndex] = page;
+            }
+            pFrom = pageStart + to;
+        }
+    }
+
+    /**
+     * @return change of the number of set bits
+     */
+    private static int setBits(long[] pPage, int pFrom, int pTo, boolean pValue) {
+        int delta = 0;
+        for (int word = pFrom >>> 6; word <= (pTo - 1) >>> 6; word++) {
+            final int wordStart = word << 6;
+            final int bitFrom = Math.max(pFrom, wordStart) - wordStart;
+            final int bitTo = Math.min(pTo, wordStart + 64) - wordStart;
+            final long mask = (bitTo == 64 ? -1L : (1L << bitTo) - 1) & (-1L << bitFrom);
+            final long old = pPage[word];
+            final long updated = pValue ? old | mask : old & ~mask;
+            delta += Long.bitCount(updated) - Long.bitCount(old);
+            pPage[word] = updated;
+        }
+        return delta;
+    }
+
+    private static int countBits(long[] pPage) {
+        if (pPage == null) {
+            return 0;
+        }
+        if (pPage == FULL_PAGE) {
+            return PAGE_BITS;
+        }
+        int count = 0;
+        for (long word : pPage) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
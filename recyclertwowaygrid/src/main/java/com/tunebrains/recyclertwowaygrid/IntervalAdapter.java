@@ -0,0 +1,61 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * Adapter for rows of items placed by start and end offsets, laid out by {@link IntervalLayoutManager}.
+ * Adapter positions run through the rows in order, rows may hold any number of items.
+ * Item offsets are cached, call {@link #notifyIntervalsChanged()} instead of
+ * notifyDataSetChanged() when rows or items change.
+ */
+public abstract class IntervalAdapter<VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH>
+        implements IntervalDataSource {
+    //Shared with the layout manager, one copy of the offsets and one invalidation
+    private final IntervalIndex mIndex = new IntervalIndex(this);
+
+    public abstract void onBindItem(VH pHolder, int pRow, int pIndex);
+
+    public int getRowItemViewType(int pRow, int pIndex) {
+        return 0;
+    }
+
+    @Override
+    public final void onBindViewHolder(VH holder, int position) {
+        final int row = mIndex.getRowOfPosition(position);
+        onBindItem(holder, row, position - mIndex.getPosition(row, 0));
+    }
+
+    @Override
+    public final int getItemViewType(int position) {
+        final int row = mIndex.getRowOfPosition(position);
+        return getRowItemViewType(row, position - mIndex.getPosition(row, 0));
+    }
+
+    @Override
+    public final int getItemCount() {
+        return mIndex.getItemCount();
+    }
+
+    public final int getPosition(int pRow, int pIndex) {
+        return mIndex.getPosition(pRow, pIndex);
+    }
+
+    /**
+     * Reads the rows and item offsets again and rebinds every item.
+     */
+    public final void notifyIntervalsChanged() {
+        mIndex.invalidate();
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Rebinds one item whose content changed, its start and end are expected to be the same.
+     */
+    public final void notifyRowItemChanged(int pRow, int pIndex) {
+        notifyItemChanged(getPosition(pRow, pIndex));
+    }
+
+    final IntervalIndex getIntervalIndex() {
+        return mIndex;
+    }
+}
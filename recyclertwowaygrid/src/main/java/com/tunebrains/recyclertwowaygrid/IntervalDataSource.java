@@ -0,0 +1,23 @@
+package com.tunebrains.recyclertwowaygrid;
+
+/**
+ * Adapter data laid out as rows of items placed by start and end offsets, e.g. the programs
+ * of the channels of a TV guide. Items of a row are sorted by start and do not overlap,
+ * gaps between them are left empty. Adapter positions run through the rows in order.
+ * {@link IntervalLayoutManager} takes the rows and item extents from here.
+ */
+public interface IntervalDataSource {
+    int getRowCount();
+
+    int getRowItemCount(int pRow);
+
+    /**
+     * @return content pixel offset of the leading edge of the item
+     */
+    int getItemStart(int pRow, int pIndex);
+
+    /**
+     * @return content pixel offset of the trailing edge of the item, exclusive
+     */
+    int getItemEnd(int pRow, int pIndex);
+}
@@ -0,0 +1,162 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import java.util.Arrays;
+
+/**
+ * Adapter positions and item extents of an {@link IntervalDataSource}.
+ * The first position of every row is a prefix sum, found back from a position by binary search.
+ * Start and end offsets of a row are copied on its first query, the items of a row
+ * intersecting a horizontal range are then found in O(log n + k).
+ */
+final class IntervalIndex {
+    private final IntervalDataSource mSource;
+    private int mRowCount;
+    //First adapter position of every row, the extra last entry is the item count
+    private int[] mRowPositions = new int[1];
+    //Farthest item end of all rows
+    private int mContentWidth;
+    private boolean mPositionsValid;
+    //Item offsets of each row, null until the row is queried
+    private int[][] mStarts = new int[0][];
+    private int[][] mEnds = new int[0][];
+
+    IntervalIndex(IntervalDataSource pSource) {
+        mSource = pSource;
+    }
+
+    /**
+     * Drops everything read from the data source, rows are read again on their next query.
+     */
+    void invalidate() {
+        mPositionsValid = false;
+        Arrays.fill(mStarts, null);
+        Arrays.fill(mEnds, null);
+    }
+
+    int getRowCount() {
+        ensurePositions();
+        return mRowCount;
+    }
+
+    int getItemCount() {
+        ensurePositions();
+        return mRowPositions[mRowCount];
+    }
+
+    int getContentWidth() {
+        ensurePositions();
+        return mContentWidth;
+    }
+
+    int getRowItemCount(int pRow) {
+        ensurePositions();
+        return mRowPositions[pRow + 1] - mRowPositions[pRow];
+    }
+
+    int getPosition(int pRow, int pIndex) {
+        ensurePositions();
+        return mRowPositions[pRow] + pIndex;
+    }
+
+    /**
+     * @return row holding the position, rows without items are never returned
+     */
+    int getRowOfPosition(int pPosition) {
+        ensurePositions();
+        int low = 0;
+        int high = mRowCount - 1;
+        //Last row starting at or before the position, empty rows share the start of the next one
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (mRowPositions[middle] <= pPosition) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    int getStart(int pRow, int pIndex) {
+        ensureRow(pRow);
+        return mStarts[pRow][pIndex];
+    }
+
+    int getEnd(int pRow, int pIndex) {
+        ensureRow(pRow);
+        return mEnds[pRow][pIndex];
+    }
+
+    /**
+     * @return first item of the row ending past the offset, the item count if there is none
+     */
+    int firstEndingAfter(int pRow, int pOffset) {
+        ensureRow(pRow);
+        return upperBound(mEnds[pRow], pOffset);
+    }
+
+    /**
+     * @return first item of the row starting at or past the offset, the item count if there is none
+     */
+    int firstStartingAt(int pRow, int pOffset) {
+        ensureRow(pRow);
+        return upperBound(mStarts[pRow], pOffset - 1);
+    }
+
+    private void ensurePositions() {
+        if (mPositionsValid) {
+            return;
+        }
+        mRowCount = Math.max(0, mSource.getRowCount());
+        if (mRowPositions.length < mRowCount + 1) {
+            mRowPositions = new int[mRowCount + 1];
+        }
+        if (mStarts.length < mRowCount) {
+            mStarts = new int[mRowCount][];
+            mEnds = new int[mRowCount][];
+        }
+        mContentWidth = 0;
+        for (int row = 0; row < mRowCount; row++) {
+            final int count = Math.max(0, mSource.getRowItemCount(row));
+            mRowPositions[row + 1] = mRowPositions[row] + count;
+            if (count > 0) {
+                //Sorted items that do not overlap, the last one ends farthest
+                mContentWidth = Math.max(mContentWidth, mSource.getItemEnd(row, count - 1));
+            }
+        }
+        mPositionsValid = true;
+    }
+
+    private void ensureRow(int pRow) {
+        ensurePositions();
+        if (mStarts[pRow] != null) {
+            return;
+        }
+        final int count = mRowPositions[pRow + 1] - mRowPositions[pRow];
+        final int[] starts = new int[count];
+        final int[] ends = new int[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = mSource.getItemStart(pRow, i);
+            ends[i] = mSource.getItemEnd(pRow, i);
+        }
+        mStarts[pRow] = starts;
+        mEnds[pRow] = ends;
+    }
+
+    /**
+     * @return first index whose value is greater than the key, the length if there is none
+     */
+    private static int upperBound(int[] pValues, int pKey) {
+        int low = 0;
+        int high = pValues.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (pValues[middle] <= pKey) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,529 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.v7.widget.LinearSmoothScroller;
+import android.support.v7.widget.RecyclerView;
+import android.util.Log;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lays out rows of items placed by start and end offsets instead of fixed columns, e.g. the
+ * programs of a TV guide. The adapter implements {@link IntervalDataSource}, usually through
+ * {@link IntervalAdapter}. Every visible row keeps the contiguous range of its items
+ * intersecting the viewport. A scroll step finds the new range with two binary searches
+ * per row and only binds the items entering it, however many items a row holds.
+ */
+public class IntervalLayoutManager extends RecyclerView.LayoutManager {
+    private static final String TAG = IntervalLayoutManager.class.getName();
+    private static final int DEFAULT_PREFETCH_DEPTH = 1;
+    private IntervalDataSource mDataSource;
+    private IntervalIndex mIndex;
+    private final AxisSizeIndex mRowIndex = new AxisSizeIndex();
+    private int mRowHeight;
+    private TwoWayGridLayoutManager.SizeLookup mRowHeightLookup;
+    private boolean mSizeIndexDirty = true;
+    //Content offsets at the top-left padding corner
+    private int mHorizontalOffset;
+    private int mVerticalOffset;
+    private int mPendingScrollPosition = RecyclerView.NO_POSITION;
+    private SavedState mPendingSavedState;
+    private int mPrefetchDepth = DEFAULT_PREFETCH_DEPTH;
+    //Visible rows from top to bottom, and spare ones to reuse
+    private final List<IntervalRow> mRows = new ArrayList<>();
+    private final List<IntervalRow> mSpareRows = new ArrayList<>();
+    private final Rect mDecorInsets = new Rect();
+
+    /**
+     * @param pRowHeight decorated height of every row in pixels
+     */
+    public IntervalLayoutManager(int pRowHeight) {
+        mRowHeight = Math.max(1, pRowHeight);
+    }
+
+    public void setRowHeight(int pRowHeight) {
+        mRowHeight = Math.max(1, pRowHeight);
+        mSizeIndexDirty = true;
+        requestLayout();
+    }
+
+    /**
+     * Gives every row its own height. Pass null to go back to the uniform row height.
+     */
+    public void setRowHeightLookup(TwoWayGridLayoutManager.SizeLookup pLookup) {
+        mRowHeightLookup = pLookup;
+        mSizeIndexDirty = true;
+        requestLayout();
+    }
+
+    /**
+     * Sets how many items past each edge are bound ahead of a scroll. 0 turns prefetch off.
+     */
+    public void setPrefetchDepth(int pDepth) {
+        mPrefetchDepth = Math.max(0, pDepth);
+    }
+
+    /**
+     * @return first row with attached items, NO_POSITION before the first layout
+     */
+    public int findFirstVisibleRow() {
+        return mRows.isEmpty() ? RecyclerView.NO_POSITION : mRows.get(0).mRow;
+    }
+
+    public int findLastVisibleRow() {
+        return mRows.isEmpty() ? RecyclerView.NO_POSITION : mRows.get(mRows.size() - 1).mRow;
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateDefaultLayoutParams() {
+        return new RecyclerView.LayoutParams(RecyclerView.LayoutParams.WRAP_CONTENT,
+                RecyclerView.LayoutParams.MATCH_PARENT);
+    }
+
+    @Override
+    public void onAttachedToWindow(RecyclerView view) {
+        super.onAttachedToWindow(view);
+        setDataSource(view.getAdapter());
+    }
+
+    @Override
+    public void onAdapterChanged(RecyclerView.Adapter oldAdapter, RecyclerView.Adapter newAdapter) {
+        setDataSource(newAdapter);
+        removeAllViews();
+        clearRows();
+    }
+
+    private void setDataSource(RecyclerView.Adapter pAdapter) {
+        final IntervalDataSource source = pAdapter instanceof IntervalDataSource ? (IntervalDataSource) pAdapter : null;
+        if (source == mDataSource) {
+            return;
+        }
+        mDataSource = source;
+        if (source instanceof IntervalAdapter) {
+            mIndex = ((IntervalAdapter) source).getIntervalIndex();
+        } else {
+            mIndex = source != null ? new IntervalIndex(source) : null;
+        }
+        mSizeIndexDirty = true;
+    }
+
+    @Override
+    public void onItemsChanged(RecyclerView recyclerView) {
+        invalidateIndex();
+    }
+
+    @Override
+    public void onItemsAdded(RecyclerView recyclerView, int positionStart, int itemCount) {
+        invalidateIndex();
+    }
+
+    @Override
+    public void onItemsRemoved(RecyclerView recyclerView, int positionStart, int itemCount) {
+        invalidateIndex();
+    }
+
+    @Override
+    public void onItemsMoved(RecyclerView recyclerView, int from, int to, int itemCount) {
+        invalidateIndex();
+    }
+
+    private void invalidateIndex() {
+        if (mIndex != null) {
+            mIndex.invalidate();
+        }
+        mSizeIndexDirty = true;
+    }
+
+    @Override
+    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (mIndex == null || getItemCount() == 0) {
+            if (mIndex == null && getItemCount() > 0) {
+                Log.e(TAG, "The adapter does not implement IntervalDataSource, nothing is laid out");
+            }
+            removeAndRecycleAllViews(recycler);
+            clearRows();
+            return;
+        }
+        updateSizeIndex();
+
+        if (mPendingSavedState != null) {
+            //Rows may have other heights now, the vertical offset is rebuilt from the anchor
+            mVerticalOffset = mRowIndex.offsetOf(Math.min(mPendingSavedState.mAnchorRow, mRowIndex.getCount()))
+                    + mPendingSavedState.mAnchorRowOffset;
+            mHorizontalOffset = mPendingSavedState.mHorizontalOffset;
+            mPendingSavedState = null;
+        }
+        if (mPendingScrollPosition != RecyclerView.NO_POSITION) {
+            final int row = mIndex.getRowOfPosition(mPendingScrollPosition);
+            mVerticalOffset = mRowIndex.offsetOf(row);
+            mHorizontalOffset = mIndex.getStart(row, mPendingScrollPosition - mIndex.getPosition(row, 0));
+            mPendingScrollPosition = RecyclerView.NO_POSITION;
+        }
+        clampOffsets();
+
+        detachAndScrapAttachedViews(recycler);
+        clearRows();
+        fillRows(recycler);
+    }
+
+    private void updateSizeIndex() {
+        final int rowCount = mIndex.getRowCount();
+        if (mRowHeightLookup == null) {
+            mRowIndex.setUniform(rowCount, mRowHeight);
+        } else if (mSizeIndexDirty || mRowIndex.isUniform() || mRowIndex.getCount() != rowCount) {
+            mRowIndex.setSizes(rowCount, mRowHeightLookup);
+        }
+        mSizeIndexDirty = false;
+    }
+
+    private void clampOffsets() {
+        mVerticalOffset = Math.max(0, Math.min(mVerticalOffset, mRowIndex.getTotalSize() - getVerticalSpace()));
+        mHorizontalOffset = Math.max(0, Math.min(mHorizontalOffset, mIndex.getContentWidth() - getHorizontalSpace()));
+    }
+
+    /**
+     * Forgets the rows, their views are expected to be scrapped or removed already.
+     */
+    private void clearRows() {
+        for (int i = 0; i < mRows.size(); i++) {
+            mRows.get(i).clear();
+        }
+        mSpareRows.addAll(mRows);
+        mRows.clear();
+    }
+
+    /**
+     * Brings the visible rows and the attached items of every row in line with the offsets.
+     * Rows leaving are recycled whole, rows staying only drop and bind items at their edges.
+     */
+    private void fillRows(RecyclerView.Recycler pRecycler) {
+        final int firstRow = mRowIndex.indexAt(mVerticalOffset);
+        final int lastRow = getVerticalSpace() > 0 && mRowIndex.getCount() > 0
+                ? mRowIndex.indexAt(mVerticalOffset + getVerticalSpace() - 1) + 1 : firstRow;
+        while (!mRows.isEmpty() && mRows.get(0).mRow < firstRow) {
+            recycleRow(mRows.remove(0), pRecycler);
+        }
+        while (!mRows.isEmpty() && mRows.get(mRows.size() - 1).mRow >= lastRow) {
+            recycleRow(mRows.remove(mRows.size() - 1), pRecycler);
+        }
+        if (mRows.isEmpty()) {
+            for (int row = firstRow; row < lastRow; row++) {
+                mRows.add(obtainRow(row));
+            }
+        } else {
+            for (int row = mRows.get(0).mRow - 1; row >= firstRow; row--) {
+                mRows.add(0, obtainRow(row));
+            }
+            for (int row = mRows.get(mRows.size() - 1).mRow + 1; row < lastRow; row++) {
+                mRows.add(obtainRow(row));
+            }
+        }
+
+        final int left = mHorizontalOffset;
+        final int right = mHorizontalOffset + getHorizontalSpace();
+        for (int i = 0; i < mRows.size(); i++) {
+            moveRowWindow(mRows.get(i), left, right, pRecycler);
+        }
+    }
+
+    private IntervalRow obtainRow(int pRow) {
+        final IntervalRow row = mSpareRows.isEmpty() ? new IntervalRow() : mSpareRows.remove(mSpareRows.size() - 1);
+        row.reset(pRow, 0);
+        return row;
+    }
+
+    private void recycleRow(IntervalRow pRow, RecyclerView.Recycler pRecycler) {
+        while (pRow.size() > 0) {
+            removeAndRecycleView(pRow.removeLast(), pRecycler);
+        }
+        mSpareRows.add(pRow);
+    }
+
+    /**
+     * Moves the attached items of a row to the ones intersecting [pLeft, pRight). Items staying
+     * are left alone, a range not overlapping the attached one is bound from scratch.
+     */
+    private void moveRowWindow(IntervalRow pRow, int pLeft, int pRight, RecyclerView.Recycler pRecycler) {
+        final int first = mIndex.firstEndingAfter(pRow.mRow, pLeft);
+        final int last = Math.max(first, mIndex.firstStartingAt(pRow.mRow, pRight));
+        if (first >= pRow.mLast || last <= pRow.mFirst) {
+            while (pRow.size() > 0) {
+                removeAndRecycleView(pRow.removeLast(), pRecycler);
+            }
+            pRow.reset(pRow.mRow, first);
+        }
+        while (pRow.mFirst < first) {
+            removeAndRecycleView(pRow.removeFirst(), pRecycler);
+        }
+        while (pRow.mLast > last) {
+            removeAndRecycleView(pRow.removeLast(), pRecycler);
+        }
+        while (pRow.mFirst > first) {
+            pRow.addFirst(layoutItem(pRow.mRow, pRow.mFirst - 1, pRecycler));
+        }
+        while (pRow.mLast < last) {
+            pRow.addLast(layoutItem(pRow.mRow, pRow.mLast, pRecycler));
+        }
+    }
+
+    private View layoutItem(int pRow, int pIndex, RecyclerView.Recycler pRecycler) {
+        final View view = pRecycler.getViewForPosition(mIndex.getPosition(pRow, pIndex));
+        addView(view);
+        final int start = mIndex.getStart(pRow, pIndex);
+        final int width = mIndex.getEnd(pRow, pIndex) - start;
+        final int height = mRowIndex.sizeOf(pRow);
+        measureItem(view, width, height);
+        final int left = getPaddingLeft() + start - mHorizontalOffset;
+        final int top = getPaddingTop() + mRowIndex.offsetOf(pRow) - mVerticalOffset;
+        layoutDecorated(view, left, top, left + width, top + height);
+        return view;
+    }
+
+    /**
+     * Measures the view exactly at its decorated item size, only if it asked for layout or
+     * was measured at another size.
+     */
+    private void measureItem(View pView, int pWidth, int pHeight) {
+        final RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) pView.getLayoutParams();
+        calculateItemDecorationsForChild(pView, mDecorInsets);
+        final int width = Math.max(0, pWidth - mDecorInsets.left - mDecorInsets.right
+                - lp.leftMargin - lp.rightMargin);
+        final int height = Math.max(0, pHeight - mDecorInsets.top - mDecorInsets.bottom
+                - lp.topMargin - lp.bottomMargin);
+        if (!pView.isLayoutRequested() && pView.getMeasuredWidth() == width && pView.getMeasuredHeight() == height) {
+            return;
+        }
+        pView.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+    }
+
+    @Override
+    public boolean canScrollHorizontally() {
+        return true;
+    }
+
+    @Override
+    public boolean canScrollVertically() {
+        return true;
+    }
+
+    @Override
+    public int scrollHorizontallyBy(int dx, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (getChildCount() == 0 && mRows.isEmpty()) {
+            return 0;
+        }
+        final int maxOffset = mIndex.getContentWidth() - getHorizontalSpace();
+        if (maxOffset <= 0) {
+            return 0;
+        }
+        final int consumed = Math.max(0, Math.min(mHorizontalOffset + dx, maxOffset)) - mHorizontalOffset;
+        mHorizontalOffset += consumed;
+        offsetChildrenHorizontal(-consumed);
+        fillRows(recycler);
+        return consumed;
+    }
+
+    @Override
+    public int scrollVerticallyBy(int dy, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (getChildCount() == 0 && mRows.isEmpty()) {
+            return 0;
+        }
+        final int maxOffset = mRowIndex.getTotalSize() - getVerticalSpace();
+        if (maxOffset <= 0) {
+            return 0;
+        }
+        final int consumed = Math.max(0, Math.min(mVerticalOffset + dy, maxOffset)) - mVerticalOffset;
+        mVerticalOffset += consumed;
+        offsetChildrenVertical(-consumed);
+        fillRows(recycler);
+        return consumed;
+    }
+
+    @Override
+    public int computeVerticalScrollOffset(RecyclerView.State state) {
+        return getItemCount() == 0 ? 0 : mVerticalOffset;
+    }
+
+    @Override
+    public int computeVerticalScrollExtent(RecyclerView.State state) {
+        return getItemCount() == 0 ? 0 : Math.min(getVerticalSpace(), mRowIndex.getTotalSize());
+    }
+
+    @Override
+    public int computeVerticalScrollRange(RecyclerView.State state) {
+        return getItemCount() == 0 ? 0 : mRowIndex.getTotalSize();
+    }
+
+    @Override
+    public int computeHorizontalScrollOffset(RecyclerView.State state) {
+        return getItemCount() == 0 ? 0 : mHorizontalOffset;
+    }
+
+    @Override
+    public int computeHorizontalScrollExtent(RecyclerView.State state) {
+        return getItemCount() == 0 || mIndex == null ? 0 : Math.min(getHorizontalSpace(), mIndex.getContentWidth());
+    }
+
+    @Override
+    public int computeHorizontalScrollRange(RecyclerView.State state) {
+        return getItemCount() == 0 || mIndex == null ? 0 : mIndex.getContentWidth();
+    }
+
+    @Override
+    public void collectAdjacentPrefetchPositions(int dx, int dy, RecyclerView.State state,
+                                                 LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        if (mRows.isEmpty() || mPrefetchDepth == 0) {
+            return;
+        }
+        final int right = mHorizontalOffset + getHorizontalSpace();
+        //The next items past the edge of every visible row
+        for (int i = 0; i < mRows.size() && dx != 0; i++) {
+            final IntervalRow row = mRows.get(i);
+            final int count = mIndex.getRowItemCount(row.mRow);
+            for (int depth = 0; depth < mPrefetchDepth; depth++) {
+                final int index = dx > 0 ? row.mLast + depth : row.mFirst - 1 - depth;
+                if (index < 0 || index >= count) {
+                    break;
+                }
+                final int distance = dx > 0 ? mIndex.getStart(row.mRow, index) - right
+                        : mHorizontalOffset - mIndex.getEnd(row.mRow, index);
+                layoutPrefetchRegistry.addPosition(mIndex.getPosition(row.mRow, index), Math.max(0, distance));
+            }
+        }
+        //The items of the next rows within the visible range
+        for (int depth = 0; depth < mPrefetchDepth && dy != 0; depth++) {
+            final int row = dy > 0 ? mRows.get(mRows.size() - 1).mRow + 1 + depth : mRows.get(0).mRow - 1 - depth;
+            if (row < 0 || row >= mRowIndex.getCount()) {
+                break;
+            }
+            final int distance = dy > 0 ? mRowIndex.offsetOf(row) - (mVerticalOffset + getVerticalSpace())
+                    : mVerticalOffset - mRowIndex.offsetOf(row + 1);
+            final int last = mIndex.firstStartingAt(row, right);
+            for (int index = mIndex.firstEndingAfter(row, mHorizontalOffset); index < last; index++) {
+                layoutPrefetchRegistry.addPosition(mIndex.getPosition(row, index), Math.max(0, distance));
+            }
+        }
+    }
+
+    @Override
+    public Parcelable onSaveInstanceState() {
+        if (mPendingSavedState != null) {
+            //Not laid out since the restore, keep the restored anchor
+            return new SavedState(mPendingSavedState);
+        }
+        SavedState state = new SavedState();
+        state.mAnchorRow = mRowIndex.indexAt(mVerticalOffset);
+        state.mAnchorRowOffset = mVerticalOffset - mRowIndex.offsetOf(state.mAnchorRow);
+        state.mHorizontalOffset = mHorizontalOffset;
+        return state;
+    }
+
+    @Override
+    public void onRestoreInstanceState(Parcelable state) {
+        if (state instanceof SavedState) {
+            mPendingSavedState = (SavedState) state;
+            mPendingScrollPosition = RecyclerView.NO_POSITION;
+            requestLayout();
+        }
+    }
+
+    /**
+     * Places the row of the item at the top and the start of the item at the left edge.
+     */
+    @Override
+    public void scrollToPosition(int position) {
+        if (position < 0 || position >= getItemCount()) {
+            Log.e(TAG, "Cannot scroll to " + position + ", item count is " + getItemCount());
+            return;
+        }
+        mPendingScrollPosition = position;
+        mPendingSavedState = null;
+        requestLayout();
+    }
+
+    @Override
+    public void smoothScrollToPosition(RecyclerView recyclerView, RecyclerView.State state, int position) {
+        if (position < 0 || position >= getItemCount()) {
+            Log.e(TAG, "Cannot smooth scroll to " + position + ", item count is " + getItemCount());
+            return;
+        }
+        LinearSmoothScroller scroller = new LinearSmoothScroller(recyclerView.getContext()) {
+            @Override
+            public PointF computeScrollVectorForPosition(int targetPosition) {
+                return IntervalLayoutManager.this.computeScrollVectorForPosition(targetPosition);
+            }
+        };
+        scroller.setTargetPosition(position);
+        startSmoothScroll(scroller);
+    }
+
+    /**
+     * Direction from the top-left visible item towards the target, one unit per axis.
+     */
+    public PointF computeScrollVectorForPosition(int pTargetPosition) {
+        if (mRows.isEmpty() || mIndex == null) {
+            return null;
+        }
+        final int row = mIndex.getRowOfPosition(pTargetPosition);
+        final int start = mIndex.getStart(row, pTargetPosition - mIndex.getPosition(row, 0));
+        return new PointF(Integer.signum(start - mHorizontalOffset), Integer.signum(row - mRows.get(0).mRow));
+    }
+
+    private int getHorizontalSpace() {
+        return getWidth() - getPaddingRight() - getPaddingLeft();
+    }
+
+    private int getVerticalSpace() {
+        return getHeight() - getPaddingBottom() - getPaddingTop();
+    }
+
+    public static class SavedState implements Parcelable {
+        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+
+        int mAnchorRow;
+        int mAnchorRowOffset;
+        int mHorizontalOffset;
+
+        public SavedState() {
+        }
+
+        SavedState(Parcel in) {
+            mAnchorRow = in.readInt();
+            mAnchorRowOffset = in.readInt();
+            mHorizontalOffset = in.readInt();
+        }
+
+        public SavedState(SavedState other) {
+            mAnchorRow = other.mAnchorRow;
+            mAnchorRowOffset = other.mAnchorRowOffset;
+            mHorizontalOffset = other.mHorizontalOffset;
+        }
+
+        @Override
+        public int describeContents() {
+            return 0;
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            dest.writeInt(mAnchorRow);
+            dest.writeInt(mAnchorRowOffset);
+            dest.writeInt(mHorizontalOffset);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.view.View;
+
+/**
+ * Attached views of one row of an {@link IntervalLayoutManager}, the items from mFirst to mLast.
+ * Views sit in a ring, so scrolling adds and drops them at either end without shifting the rest.
+ */
+final class IntervalRow {
+    int mRow;
+    //Attached items of the row, last is exclusive
+    int mFirst;
+    int mLast;
+    //Power of two length, slots wrap with a mask
+    private View[] mViews = new View[8];
+    private int mHead;
+
+    void reset(int pRow, int pIndex) {
+        mRow = pRow;
+        mFirst = mLast = pIndex;
+        mHead = 0;
+    }
+
+    /**
+     * Drops the views without recycling them.
+     */
+    void clear() {
+        while (size() > 0) {
+            removeLast();
+        }
+    }
+
+    int size() {
+        return mLast - mFirst;
+    }
+
+    void addFirst(View pView) {
+        ensureCapacity(size() + 1);
+        mHead = (mHead - 1) & (mViews.length - 1);
+        mViews[mHead] = pView;
+        mFirst--;
+    }
+
+    void addLast(View pView) {
+        ensureCapacity(size() + 1);
+        mViews[(mHead + size()) & (mViews.length - 1)] = pView;
+        mLast++;
+    }
+
+    View removeFirst() {
+        final View view = mViews[mHead];
+        mViews[mHead] = null;
+        mHead = (mHead + 1) & (mViews.length - 1);
+        mFirst++;
+        return view;
+    }
+
+    View removeLast() {
+        final int slot = (mHead + size() - 1) & (mViews.length - 1);
+        final View view = mViews[slot];
+        mViews[slot] = null;
+        mLast--;
+        return view;
+    }
+
+    private void ensureCapacity(int pCount) {
+        if (pCount <= mViews.length) {
+            return;
+        }
+        final View[] views = new View[Integer.highestOneBit(pCount - 1) << 1];
+        for (int i = 0; i < size(); i++) {
+            views[i] = mViews[(mHead + i) & (mViews.length - 1)];
+        }
+        mViews = views;
+        mHead = 0;
+    }
+}
@@ -0,0 +1,124 @@
+package com.tunebrains.recyclertwowaygrid;
+
+/**
+ * What a layout pass or a scroll call of {@link TwoWayGridLayoutManager} did.
+ * The instance handed to the listener is reused for the next pass, {@link #add(LayoutMetrics)}
+ * it into an aggregate or copy it to keep the values.
+ */
+public final class LayoutMetrics {
+    public static final int PASS_LAYOUT = 0;
+    public static final int PASS_SCROLL_HORIZONTAL = 1;
+    public static final int PASS_SCROLL_VERTICAL = 2;
+
+    int mPass;
+    int mPassCount;
+    int mDx;
+    int mDy;
+    //Views requested from the recycler, bound unless they came back from scrap
+    int mViewsObtained;
+    //Attached views left in place by the pass
+    int mViewsKept;
+    int mViewsRecycled;
+    int mViewsScrapped;
+    long mNanos;
+
+    public LayoutMetrics() {
+    }
+
+    public LayoutMetrics(LayoutMetrics pOther) {
+        mPass = pOther.mPass;
+        mPassCount = pOther.mPassCount;
+        mDx = pOther.mDx;
+        mDy = pOther.mDy;
+        mViewsObtained = pOther.mViewsObtained;
+        mViewsKept = pOther.mViewsKept;
+        mViewsRecycled = pOther.mViewsRecycled;
+        mViewsScrapped = pOther.mViewsScrapped;
+        mNanos = pOther.mNanos;
+    }
+
+    void begin(int pPass) {
+        reset();
+        mPass = pPass;
+        mPassCount = 1;
+    }
+
+    void finish(int pDx, int pDy, int pChildCount, long pNanos) {
+        mDx = pDx;
+        mDy = pDy;
+        mViewsKept = Math.max(0, pChildCount - mViewsObtained);
+        mNanos = pNanos;
+    }
+
+    /**
+     * Sums the counters of another pass into this one. The pass type is kept from the latest pass.
+     */
+    public void add(LayoutMetrics pOther) {
+        mPass = pOther.mPass;
+        mPassCount += pOther.mPassCount;
+        mDx += pOther.mDx;
+        mDy += pOther.mDy;
+        mViewsObtained += pOther.mViewsObtained;
+        mViewsKept += pOther.mViewsKept;
+        mViewsRecycled += pOther.mViewsRecycled;
+        mViewsScrapped += pOther.mViewsScrapped;
+        mNanos += pOther.mNanos;
+    }
+
+    public void reset() {
+        mPass = PASS_LAYOUT;
+        mPassCount = 0;
+        mDx = mDy = 0;
+        mViewsObtained = mViewsKept = mViewsRecycled = mViewsScrapped = 0;
+        mNanos = 0;
+    }
+
+    /**
+     * @return one of {@link #PASS_LAYOUT}, {@link #PASS_SCROLL_HORIZONTAL} or {@link #PASS_SCROLL_VERTICAL}
+     */
+    public int getPass() {
+        return mPass;
+    }
+
+    public int getPassCount() {
+        return mPassCount;
+    }
+
+    /**
+     * @return pixels scrolled horizontally, the sign gives the direction
+     */
+    public int getDx() {
+        return mDx;
+    }
+
+    public int getDy() {
+        return mDy;
+    }
+
+    public int getViewsObtained() {
+        return mViewsObtained;
+    }
+
+    public int getViewsKept() {
+        return mViewsKept;
+    }
+
+    public int getViewsRecycled() {
+        return mViewsRecycled;
+    }
+
+    public int getViewsScrapped() {
+        return mViewsScrapped;
+    }
+
+    public long getNanos() {
+        return mNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "LayoutMetrics{pass=" + mPass + ", passCount=" + mPassCount + ", dx=" + mDx + ", dy=" + mDy
+                + ", obtained=" + mViewsObtained + ", kept=" + mViewsKept + ", recycled=" + mViewsRecycled
+                + ", scrapped=" + mViewsScrapped + ", nanos=" + mNanos + "}";
+    }
+}
@@ -0,0 +1,134 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.ViewConfiguration;
+
+/**
+ * Watches the touches of the grid without consuming them. Locks a gesture onto one axis once it
+ * leaves the touch slop and tells the layout manager about each drag step before RecyclerView
+ * runs it. Pointers are followed and positions rounded like RecyclerView does,
+ * so both compute the same deltas.
+ */
+final class ScrollGestureTracker implements RecyclerView.OnItemTouchListener {
+    static final int AXIS_NONE = 0;
+    static final int AXIS_HORIZONTAL = 1;
+    static final int AXIS_VERTICAL = 2;
+    //A drag within about 27 degrees of an axis is locked onto it
+    private static final float AXIS_LOCK_RATIO = 2f;
+    private static final int INVALID_POINTER = -1;
+
+    private final TwoWayGridLayoutManager mLayoutManager;
+    private int mTouchSlop = -1;
+    private int mPointerId = INVALID_POINTER;
+    private int mInitialX;
+    private int mInitialY;
+    private int mLastX;
+    private int mLastY;
+    private boolean mPastTouchSlop;
+    private int mLockedAxis = AXIS_NONE;
+    //RecyclerView hands the event it intercepts on to its listeners a second time
+    private long mLastEventTime = -1;
+    private int mLastAction = -1;
+
+    ScrollGestureTracker(TwoWayGridLayoutManager pLayoutManager) {
+        mLayoutManager = pLayoutManager;
+    }
+
+    /**
+     * @return axis the current gesture and its fling are locked onto, AXIS_NONE when free
+     */
+    int getLockedAxis() {
+        return mLockedAxis;
+    }
+
+    void unlock() {
+        mLockedAxis = AXIS_NONE;
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(RecyclerView rv, MotionEvent e) {
+        track(rv, e);
+        return false;
+    }
+
+    @Override
+    public void onTouchEvent(RecyclerView rv, MotionEvent e) {
+    }
+
+    @Override
+    public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+    }
+
+    private void track(RecyclerView pRecyclerView, MotionEvent pEvent) {
+        final int action = pEvent.getActionMasked();
+        if (pEvent.getEventTime() == mLastEventTime && action == mLastAction) {
+            return;
+        }
+        mLastEventTime = pEvent.getEventTime();
+        mLastAction = action;
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                if (mTouchSlop < 0) {
+                    mTouchSlop = ViewConfiguration.get(pRecyclerView.getContext()).getScaledTouchSlop();
+                }
+                mPointerId = pEvent.getPointerId(0);
+                moveTo(pEvent, 0);
+                mInitialX = mLastX;
+                mInitialY = mLastY;
+                mPastTouchSlop = false;
+                mLockedAxis = AXIS_NONE;
+                break;
+            case MotionEvent.ACTION_POINTER_DOWN:
+                mPointerId = pEvent.getPointerId(pEvent.getActionIndex());
+                moveTo(pEvent, pEvent.getActionIndex());
+                break;
+            case MotionEvent.ACTION_POINTER_UP:
+                if (pEvent.getPointerId(pEvent.getActionIndex()) == mPointerId) {
+                    final int index = pEvent.getActionIndex() == 0 ? 1 : 0;
+                    mPointerId = pEvent.getPointerId(index);
+                    moveTo(pEvent, index);
+                }
+                break;
+            case MotionEvent.ACTION_MOVE:
+                trackMove(pRecyclerView, pEvent);
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                mPointerId = INVALID_POINTER;
+                break;
+        }
+    }
+
+    private void trackMove(RecyclerView pRecyclerView, MotionEvent pEvent) {
+        final int index = pEvent.findPointerIndex(mPointerId);
+        if (index < 0) {
+            return;
+        }
+        final int x = (int) (pEvent.getX(index) + 0.5f);
+        final int y = (int) (pEvent.getY(index) + 0.5f);
+        if (!mPastTouchSlop) {
+            final int dx = x - mInitialX;
+            final int dy = y - mInitialY;
+            if (Math.abs(dx) > mTouchSlop || Math.abs(dy) > mTouchSlop) {
+                mPastTouchSlop = true;
+                if (mLayoutManager.isAxisLockEnabled()) {
+                    mLockedAxis = Math.abs(dx) >= Math.abs(dy) * AXIS_LOCK_RATIO ? AXIS_HORIZONTAL
+                            : Math.abs(dy) >= Math.abs(dx) * AXIS_LOCK_RATIO ? AXIS_VERTICAL : AXIS_NONE;
+                }
+            }
+        }
+        //Once dragging RecyclerView scrolls by the move since the last event, unless a parent takes part of it
+        if (pRecyclerView.getScrollState() == RecyclerView.SCROLL_STATE_DRAGGING
+                && !pRecyclerView.hasNestedScrollingParent()) {
+            mLayoutManager.onDragStep(mLastX - x, mLastY - y);
+        }
+        mLastX = x;
+        mLastY = y;
+    }
+
+    private void moveTo(MotionEvent pEvent, int pIndex) {
+        mLastX = (int) (pEvent.getX(pIndex) + 0.5f);
+        mLastY = (int) (pEvent.getY(pIndex) + 0.5f);
+    }
+}
@@ -0,0 +1,55 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+/**
+ * Bitmaps of square blocks of cells, drawn instead of bound cells while a fling is fast.
+ * Blocks are kept at reduced scale and the least recently drawn ones are evicted
+ * once the cache grows past its byte budget.
+ */
+final class SnapshotCache {
+    //Cells along each side of a block
+    static final int BLOCK_CELLS = 4;
+    //Half the size is a quarter of the memory, the fling blurs the rest away
+    static final float SCALE = 0.5f;
+
+    private final LruCache<Long, Bitmap> mBlocks;
+
+    SnapshotCache(int pMaxBytes) {
+        mBlocks = new LruCache<Long, Bitmap>(Math.max(1, pMaxBytes)) {
+            @Override
+            protected int sizeOf(Long key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    Bitmap get(int pBlockRow, int pBlockColumn) {
+        return mBlocks.get(key(pBlockRow, pBlockColumn));
+    }
+
+    void put(int pBlockRow, int pBlockColumn, Bitmap pBitmap) {
+        mBlocks.put(key(pBlockRow, pBlockColumn), pBitmap);
+    }
+
+    /**
+     * @return bitmap for a block of the given size, null when it would not fit the budget
+     */
+    Bitmap createBitmap(int pWidth, int pHeight) {
+        final int width = Math.max(1, (int) (pWidth * SCALE));
+        final int height = Math.max(1, (int) (pHeight * SCALE));
+        if ((long) width * height * 4 > mBlocks.maxSize()) {
+            return null;
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    void clear() {
+        mBlocks.evictAll();
+    }
+
+    private static long key(int pBlockRow, int pBlockColumn) {
+        return ((long) pBlockRow << 32) | (pBlockColumn & 0xffffffffL);
+    }
+}
@@ -0,0 +1,163 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * Placement of spanning items on the grid, kept in primitive arrays.
+ * Items are placed in adapter order at the first free cell where they fit. Once placed
+ * the mapping is cached, inserts, removals and moves only drop the placements from the changed
+ * position onwards.
+ */
+final class SpanIndex {
+    private static final int EMPTY = -1;
+    private int mColumnCount;
+    //Per position: anchor cell and free cell cursor before the item was placed
+    private int[] mAnchorCells = new int[0];
+    private int[] mCursors = new int[0];
+    private int[] mRowSpans = new int[0];
+    private int[] mColumnSpans = new int[0];
+    //Per cell: position covering it or EMPTY
+    private int[] mCellPositions = new int[0];
+    private int mPlacedCount;
+    private int mCursor;
+    private int mRowCount;
+
+    void reset(int pColumnCount) {
+        Arrays.fill(mCellPositions, EMPTY);
+        mColumnCount = Math.max(1, pColumnCount);
+        mPlacedCount = 0;
+        mCursor = 0;
+        mRowCount = 0;
+    }
+
+    /**
+     * Drops the placement of the position and every position after it.
+     */
+    void invalidateFrom(int pPosition) {
+        if (pPosition < 0) {
+            pPosition = 0;
+        }
+        if (pPosition >= mPlacedCount) {
+            return;
+        }
+        final int cursor = mCursors[pPosition];
+        final int cellEnd = mRowCount * mColumnCount;
+        for (int cell = cursor; cell < cellEnd; cell++) {
+            if (mCellPositions[cell] >= pPosition) {
+                mCellPositions[cell] = EMPTY;
+            }
+        }
+        mPlacedCount = pPosition;
+        mCursor = cursor;
+        int lastCell = cellEnd - 1;
+        while (lastCell >= 0 && mCellPositions[lastCell] == EMPTY) {
+            lastCell--;
+        }
+        mRowCount = lastCell < 0 ? 0 : lastCell / mColumnCount + 1;
+    }
+
+    /**
+     * Places the positions not placed yet, a no-op once the index covers the adapter.
+     */
+    void ensurePlaced(int pItemCount, TwoWayGridLayoutManager.SpanLookup pLookup) {
+        if (mPlacedCount >= pItemCount) {
+            return;
+        }
+        if (mAnchorCells.length < pItemCount) {
+            int capacity = Math.max(pItemCount, mAnchorCells.length * 2);
+            mAnchorCells = Arrays.copyOf(mAnchorCells, capacity);
+            mCursors = Arrays.copyOf(mCursors, capacity);
+            mRowSpans = Arrays.copyOf(mRowSpans, capacity);
+            mColumnSpans = Arrays.copyOf(mColumnSpans, capacity);
+        }
+        while (mPlacedCount < pItemCount) {
+            place(mPlacedCount, pLookup);
+            mPlacedCount++;
+        }
+    }
+
+    private void place(int pPosition, TwoWayGridLayoutManager.SpanLookup pLookup) {
+        final int rowSpan = Math.max(1, pLookup.getRowSpan(pPosition));
+        final int columnSpan = Math.max(1, Math.min(mColumnCount, pLookup.getColumnSpan(pPosition)));
+        int cell = mCursor;
+        while (!fits(cell, rowSpan, columnSpan)) {
+            cell++;
+        }
+        final int row = cell / mColumnCount;
+        final int column = cell % mColumnCount;
+        ensureRows(row + rowSpan);
+        for (int r = row; r < row + rowSpan; r++) {
+            Arrays.fill(mCellPositions, r * mColumnCount + column, r * mColumnCount + column + columnSpan, pPosition);
+        }
+        mAnchorCells[pPosition] = cell;
+        mCursors[pPosition] = mCursor;
+        mRowSpans[pPosition] = rowSpan;
+        mColumnSpans[pPosition] = columnSpan;
+        while (mCursor < mCellPositions.length && mCellPositions[mCursor] != EMPTY) {
+            mCursor++;
+        }
+    }
+
+    private boolean fits(int pCell, int pRowSpan, int pColumnSpan) {
+        final int row = pCell / mColumnCount;
+        final int column = pCell % mColumnCount;
+        if (column + pColumnSpan > mColumnCount) {
+            return false;
+        }
+        for (int r = row; r < row + pRowSpan; r++) {
+            if (r >= mRowCount) {
+                //Rows past the placed ones are free
+                break;
+            }
+            for (int c = column; c < column + pColumnSpan; c++) {
+                if (mCellPositions[r * mColumnCount + c] != EMPTY) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void ensureRows(int pRowCount) {
+        if (pRowCount <= mRowCount) {
+            return;
+        }
+        int cellCount = pRowCount * mColumnCount;
+        if (cellCount > mCellPositions.length) {
+            int oldLength = mCellPositions.length;
+            mCellPositions = Arrays.copyOf(mCellPositions, Math.max(cellCount, oldLength * 2));
+            Arrays.fill(mCellPositions, oldLength, mCellPositions.length, EMPTY);
+        }
+        mRowCount = pRowCount;
+    }
+
+    int getRowCount() {
+        return mRowCount;
+    }
+
+    int getRow(int pPosition) {
+        return mAnchorCells[pPosition] / mColumnCount;
+    }
+
+    int getColumn(int pPosition) {
+        return mAnchorCells[pPosition] % mColumnCount;
+    }
+
+    int getRowSpan(int pPosition) {
+        return mRowSpans[pPosition];
+    }
+
+    int getColumnSpan(int pPosition) {
+        return mColumnSpans[pPosition];
+    }
+
+    int positionAt(int pRow, int pColumn) {
+        if (pRow >= mRowCount || pColumn >= mColumnCount) {
+            return RecyclerView.NO_POSITION;
+        }
+        int position = mCellPositions[pRow * mColumnCount + pColumn];
+        return position == EMPTY ? RecyclerView.NO_POSITION : position;
+    }
+}
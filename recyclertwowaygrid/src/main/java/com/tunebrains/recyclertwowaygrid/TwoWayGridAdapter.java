@@ -0,0 +1,180 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.List;
+
+/**
+ * Adapter for grids described by their row and column counts.
+ * Adapter positions are row-major, the grid may hold up to {@link Integer#MAX_VALUE} cells.
+ * An optional {@link GridSelection} is kept in sync with the attached cells: a selection change
+ * only rebinds the selection state of attached cells whose state flipped.
+ */
+public abstract class TwoWayGridAdapter<VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH>
+        implements GridDataSource {
+    //Payload of rebinds that only change the selection state of a cell
+    private static final Object PAYLOAD_SELECTION = new Object();
+    private int mDetailLevel;
+    private GridSelection mSelection;
+    private RecyclerView mRecyclerView;
+    private final GridSelection.Observer mSelectionObserver = new GridSelection.Observer() {
+        @Override
+        public void onRangeChanging(int pFirstRow, int pFirstColumn, int pRowCount, int pColumnCount,
+                                    boolean pSelected) {
+            if (mRecyclerView == null || mRecyclerView.getLayoutManager() == null) {
+                return;
+            }
+            //Cells bound later read the new state, cached ones are refreshed when attached again
+            final RecyclerView.LayoutManager layoutManager = mRecyclerView.getLayoutManager();
+            final int columnCount = getColumnCount();
+            for (int i = 0; i < layoutManager.getChildCount(); i++) {
+                final int position = layoutManager.getPosition(layoutManager.getChildAt(i));
+                final int row = position / columnCount;
+                final int column = position % columnCount;
+                if (row >= pFirstRow && row < pFirstRow + pRowCount && column >= pFirstColumn
+                        && column < pFirstColumn + pColumnCount && mSelection.isSelected(row, column) != pSelected) {
+                    notifyItemChanged(position, PAYLOAD_SELECTION);
+                }
+            }
+        }
+    };
+
+    public abstract void onBindCell(VH pHolder, int pRow, int pColumn);
+
+    /**
+     * Binds only the selection state of a cell whose other content is bound already.
+     * Defaults to a full bind, override it to make selection changes cheap.
+     */
+    public void onBindCellSelection(VH pHolder, int pRow, int pColumn, boolean pSelected) {
+        onBindCell(pHolder, pRow, pColumn);
+    }
+
+    public int getCellViewType(int pRow, int pColumn) {
+        return 0;
+    }
+
+    @Override
+    public final void onBindViewHolder(VH holder, int position) {
+        final int columnCount = getColumnCount();
+        onBindCell(holder, position / columnCount, position % columnCount);
+    }
+
+    @Override
+    public final void onBindViewHolder(VH holder, int position, List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_SELECTION) {
+                onBindViewHolder(holder, position);
+                return;
+            }
+        }
+        final int columnCount = getColumnCount();
+        final int row = position / columnCount;
+        final int column = position % columnCount;
+        onBindCellSelection(holder, row, column, isCellSelected(row, column));
+    }
+
+    /**
+     * Cells coming back from the view cache are not bound again, their selection may be stale.
+     */
+    @Override
+    public void onViewAttachedToWindow(VH holder) {
+        super.onViewAttachedToWindow(holder);
+        final int position = holder.getAdapterPosition();
+        if (mSelection != null && position != RecyclerView.NO_POSITION) {
+            final int columnCount = getColumnCount();
+            final int row = position / columnCount;
+            final int column = position % columnCount;
+            onBindCellSelection(holder, row, column, isCellSelected(row, column));
+        }
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        mRecyclerView = recyclerView;
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        mRecyclerView = null;
+    }
+
+    /**
+     * Keeps the selection state of the cells in sync with the selection, pass null to drop it.
+     * The selection is expected to have the shape of the grid.
+     */
+    public void setSelection(GridSelection pSelection) {
+        if (mSelection != null) {
+            mSelection.setObserver(null);
+        }
+        mSelection = pSelection;
+        if (mSelection != null) {
+            mSelection.setObserver(mSelectionObserver);
+        }
+        if (getItemCount() > 0) {
+            notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        }
+    }
+
+    public final GridSelection getSelection() {
+        return mSelection;
+    }
+
+    public final boolean isCellSelected(int pRow, int pColumn) {
+        return mSelection != null && mSelection.isSelected(pRow, pColumn);
+    }
+
+    @Override
+    public final int getItemViewType(int position) {
+        final int columnCount = getColumnCount();
+        return getCellViewType(position / columnCount, position % columnCount);
+    }
+
+    @Override
+    public final int getItemCount() {
+        final long count = (long) getRowCount() * getColumnCount();
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Grid of " + getRowCount() + "x" + getColumnCount()
+                    + " cells exceeds the adapter position range");
+        }
+        return (int) count;
+    }
+
+    /**
+     * @return detail level picked by {@link TwoWayGridLayoutManager} from its zoom, 0 for full detail.
+     * Lower zoom levels return higher values, cells may switch to lighter view types for them.
+     */
+    public final int getDetailLevel() {
+        return mDetailLevel;
+    }
+
+    final void setDetailLevel(int pLevel) {
+        mDetailLevel = pLevel;
+    }
+
+    public final int getPosition(int pRow, int pColumn) {
+        return pRow * getColumnCount() + pColumn;
+    }
+
+    public final void notifyCellChanged(int pRow, int pColumn) {
+        notifyItemChanged(getPosition(pRow, pColumn));
+    }
+
+    /**
+     * Notifies a rectangle of cells, one range per row.
+     */
+    public final void notifyCellRangeChanged(int pFirstRow, int pFirstColumn, int pRowCount, int pColumnCount) {
+        if (pColumnCount == getColumnCount()) {
+            notifyItemRangeChanged(getPosition(pFirstRow, 0), pRowCount * pColumnCount);
+            return;
+        }
+        for (int row = pFirstRow; row < pFirstRow + pRowCount; row++) {
+            notifyItemRangeChanged(getPosition(row, pFirstColumn), pColumnCount);
+        }
+    }
+}
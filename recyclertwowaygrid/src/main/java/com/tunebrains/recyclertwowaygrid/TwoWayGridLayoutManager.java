@@ -1,31 +1,520 @@
 package com.tunebrains.recyclertwowaygrid;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.v7.widget.LinearSmoothScroller;
 import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
 import android.util.Log;
-import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.view.View;
 import android.view.ViewGroup;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Created by alex on 2/16/15.
  */
 public class TwoWayGridLayoutManager extends RecyclerView.LayoutManager {
     private static final String TAG = TwoWayGridLayoutManager.class.getName();
     private static final int DEFAULT_COLUMN_COUNT = 6;
+    private static final int DEFAULT_PREFETCH_DEPTH = 1;
+    //Smooth scrolls farther than this many windows jump close to the target first
+    private static final int SMOOTH_SCROLL_JUMP_WINDOWS = 2;
+    private static final float DEFAULT_MIN_ZOOM = 0.1f;
+    private static final float DEFAULT_MAX_ZOOM = 4f;
+    //A fast fling binds cells again once it slows below this share of the snapshot velocity
+    private static final float SNAPSHOT_EXIT_RATIO = 0.5f;
+    //Shortest time counted between two scroll steps, a host may run them back to back
+    private static final long MIN_STEP_NANOS = 1000000000L / 120;
+    //Views of each type a RecycledViewPool keeps unless told otherwise
+    private static final int DEFAULT_POOL_CAPACITY = 5;
     private int mTotalColumnCount = DEFAULT_COLUMN_COUNT;
-    /* Fill Direction Constants */
-    private static final int DIRECTION_NONE = -1;
-    private static final int DIRECTION_START = 0;
-    private static final int DIRECTION_END = 1;
-    private static final int DIRECTION_UP = 2;
-    private static final int DIRECTION_DOWN = 3;
     private int mDecoratedChildWidth;
     private int mDecoratedChildHeight;
-    private int mFirstVisiblePosition;
-    private int mVisibleColumnCount;
-    private int mVisibleRowCount;
+    //Decorated cell size supplied up front, 0 when cells are measured
+    private int mFixedCellWidth;
+    private int mFixedCellHeight;
+    //Decorated cell size of the view types given one, cells of other types fill their cell
+    private final SparseIntArray mViewTypeWidths = new SparseIntArray();
+    private final SparseIntArray mViewTypeHeights = new SparseIntArray();
+    private final Rect mDecorInsets = new Rect();
+    //Content offsets at the top-left padding corner
+    private int mHorizontalOffset;
+    private int mVerticalOffset;
+    private int mPendingScrollPosition = RecyclerView.NO_POSITION;
+    private SavedState mPendingSavedState;
+    /* Grid regions, in the child index order they are drawn */
+    private static final int REGION_BODY = 0;
+    private static final int REGION_FROZEN_ROWS = 1;
+    private static final int REGION_FROZEN_COLUMNS = 2;
+    private static final int REGION_CORNER = 3;
+    private final GridRegion[] mRegions = {new GridRegion(), new GridRegion(), new GridRegion(), new GridRegion()};
+    private int mFrozenRowCount;
+    private int mFrozenColumnCount;
+    private int mPrefetchDepth = DEFAULT_PREFETCH_DEPTH;
+    private final AxisSizeIndex mRowIndex = new AxisSizeIndex();
+    private final AxisSizeIndex mColumnIndex = new AxisSizeIndex();
+    private SizeLookup mRowHeightLookup;
+    private SizeLookup mColumnWidthLookup;
+    private boolean mSizeIndexDirty = true;
+    private boolean mPendingSizeChange;
+    private SpanLookup mSpanLookup;
+    //Adapter addressed by row and column, defines the column count when set
+    private GridDataSource mDataSource;
+    private final SpanIndex mSpanIndex = new SpanIndex();
+    //Spanning cells a window move kept attached, stored at their cells in the new window once it is recycled
+    private final List<View> mKeptSpans = new ArrayList<>();
+    private boolean mPendingItemUpdates;
+    //Column count changed along with granular adapter updates, positions no longer shift uniformly
+    private boolean mPendingColumnCountChange;
+    private boolean mPendingFullLayout = true;
+    private LayoutMetricsListener mMetricsListener;
+    //Null unless a listener is installed, counting sites only pay a null check
+    private LayoutMetrics mMetrics;
+    //Body window computed by computeBodyWindow(): first row, last row, first column, last column
+    private final int[] mBodyWindow = new int[4];
+    private final ScrollGestureTracker mGestureTracker = new ScrollGestureTracker(this);
+    private RecyclerView mRecyclerView;
+    //Attached cells of each view type, and the pool capacity raised to the most seen at once
+    private final SparseIntArray mAttachedViewTypes = new SparseIntArray();
+    private final SparseIntArray mPoolCapacities = new SparseIntArray();
+    private boolean mPendingPoolResize;
+    private boolean mAxisLockEnabled;
+    //Set by the gesture tracker when the coming scroll step moves vertically too
+    private boolean mExpectVerticalStep;
+    //Horizontal half of a diagonal step, already in the offset but not yet applied to the children
+    private boolean mPendingScrollFill;
+    private int mPendingScrollDx;
+    private RecyclerView.Recycler mPendingScrollRecycler;
+    //RecyclerView dispatches onScrolled once both halves of a step ran, before the frame draws
+    private final RecyclerView.OnScrollListener mScrollStepListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            //The tracker expected a vertical half that never came
+            flushPendingScroll(mPendingScrollRecycler);
+        }
+    };
+    //Fling velocity in pixels per second above which the body is drawn from snapshots, 0 when off
+    private float mSnapshotVelocity;
+    private SnapshotCache mSnapshotCache;
+    private boolean mSnapshotting;
+    private boolean mPendingSnapshotExit;
+    private int mScrollState = RecyclerView.SCROLL_STATE_IDLE;
+    private float mVelocityX;
+    private float mVelocityY;
+    private long mLastStepNanosX;
+    private long mLastStepNanosY;
+    private final Rect mSnapshotBounds = new Rect();
+    private final Paint mSnapshotPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final RecyclerView.ItemDecoration mSnapshotDecoration = new RecyclerView.ItemDecoration() {
+        @Override
+        public void onDraw(Canvas c, RecyclerView parent, RecyclerView.State state) {
+            if (mSnapshotting) {
+                drawSnapshots(c);
+            }
+        }
+    };
+    //Settled zoom, scales every row height and column width
+    private float mZoom = 1f;
+    private float mMinZoom = DEFAULT_MIN_ZOOM;
+    private float mMaxZoom = DEFAULT_MAX_ZOOM;
+    //Zoom of a running gesture relative to mZoom, shown by child transforms only
+    private float mPreviewScale = 1f;
+    private float mPreviewFocusX;
+    private float mPreviewFocusY;
+    //Zoom below each threshold moves cells one detail level down, descending
+    private float[] mDetailZoomThresholds = new float[0];
+    private int mDetailLevel;
+    private boolean mPendingDetailLevelChange;
+    //Fractional row and column kept under the focus point once a settled zoom is laid out
+    private boolean mPendingZoomAnchor;
+    private float mZoomAnchorRow;
+    private float mZoomAnchorColumn;
+    private float mZoomFocusX;
+    private float mZoomFocusY;
+    private final SizeLookup mZoomedRowHeightLookup = new SizeLookup() {
+        @Override
+        public int getSize(int pIndex) {
+            return zoomed(mRowHeightLookup.getSize(pIndex));
+        }
+    };
+    private final SizeLookup mZoomedColumnWidthLookup = new SizeLookup() {
+        @Override
+        public int getSize(int pIndex) {
+            return zoomed(mColumnWidthLookup.getSize(pIndex));
+        }
+    };
+
+    /**
+     * Supplies the decorated size of a single row or column.
+     */
+    public interface SizeLookup {
+        int getSize(int pIndex);
+    }
+
+    /**
+     * Supplies how many rows and columns an adapter position covers.
+     */
+    public interface SpanLookup {
+        int getRowSpan(int pPosition);
+
+        int getColumnSpan(int pPosition);
+    }
+
+    /**
+     * Receives the metrics of every layout pass and scroll call.
+     */
+    public interface LayoutMetricsListener {
+        void onLayoutMetrics(LayoutMetrics pMetrics);
+    }
+
+    public TwoWayGridLayoutManager() {
+    }
+
+    public TwoWayGridLayoutManager(int pColumnCount) {
+        mTotalColumnCount = Math.max(1, pColumnCount);
+    }
+
+    /**
+     * Ignored while the adapter is a {@link GridDataSource}, its column count is used instead.
+     */
+    public void setColumnCount(int pColumnCount) {
+        pColumnCount = Math.max(1, pColumnCount);
+        if (pColumnCount == mTotalColumnCount) {
+            return;
+        }
+        mTotalColumnCount = pColumnCount;
+        mSpanIndex.reset(mTotalColumnCount);
+        mPendingFullLayout = true;
+        requestLayout();
+    }
+
+    public int getColumnCount() {
+        return mTotalColumnCount;
+    }
+
+    /**
+     * Lets cells span several rows and columns. Items are placed in adapter order at the
+     * first free cell they fit in, the placement is cached and only redone from inserted, removed
+     * or moved positions. Item changes keep the placement, see {@link #notifySpansChanged()}.
+     * Spanning cells are expected to stay within the body or within one frozen region.
+     * Pass null to go back to one cell per position.
+     */
+    public void setSpanLookup(SpanLookup pLookup) {
+        mSpanLookup = pLookup;
+        mSpanIndex.reset(mTotalColumnCount);
+        mPendingFullLayout = true;
+        requestLayout();
+    }
+
+    /**
+     * Places every item again with the spans the lookup returns now. Call it when spans of
+     * existing items changed, e.g. along with notifyItemChanged.
+     */
+    public void notifySpansChanged() {
+        if (mSpanLookup == null) {
+            return;
+        }
+        mSpanIndex.reset(mTotalColumnCount);
+        mPendingFullLayout = true;
+        requestLayout();
+    }
+
+    /**
+     * Gives every cell the same decorated size, known up front. Layout passes no longer fetch
+     * position 0 to learn the size and views already measured at their cell size are not
+     * measured again. Row and column lookups still take precedence. Pass 0 to measure cells again.
+     */
+    public void setFixedCellSize(int pWidth, int pHeight) {
+        final boolean fixed = pWidth > 0 && pHeight > 0;
+        mFixedCellWidth = fixed ? pWidth : 0;
+        mFixedCellHeight = fixed ? pHeight : 0;
+        mSizeIndexDirty = true;
+        mPendingFullLayout = true;
+        requestLayout();
+    }
+
+    /**
+     * Gives the cells of one view type their own decorated size, e.g. compact placeholders next to
+     * rich cells. They are measured exactly at it, never larger than their cell, and centered in it.
+     * While any type has a size, rows and columns without a lookup take the largest one instead of
+     * the size of adapter position 0. Pass 0 to let cells of the type fill their cell again.
+     */
+    public void setViewTypeCellSize(int pViewType, int pWidth, int pHeight) {
+        if (pWidth > 0 && pHeight > 0) {
+            mViewTypeWidths.put(pViewType, pWidth);
+            mViewTypeHeights.put(pViewType, pHeight);
+        } else {
+            mViewTypeWidths.delete(pViewType);
+            mViewTypeHeights.delete(pViewType);
+        }
+        mSizeIndexDirty = true;
+        mPendingFullLayout = true;
+        requestLayout();
+    }
+
+    /**
+     * Gives every row its own height. Pass null to size all rows like adapter position 0.
+     */
+    public void setRowHeightLookup(SizeLookup pLookup) {
+        mRowHeightLookup = pLookup;
+        mSizeIndexDirty = true;
+        mPendingFullLayout = true;
+        requestLayout();
+    }
+
+    /**
+     * Gives every column its own width. Pass null to size all columns like adapter position 0.
+     */
+    public void setColumnWidthLookup(SizeLookup pLookup) {
+        mColumnWidthLookup = pLookup;
+        mSizeIndexDirty = true;
+        mPendingFullLayout = true;
+        requestLayout();
+    }
+
+    /**
+     * Re-reads the height of one row. The offset index is updated in O(log n) and
+     * attached cells are moved in place instead of being rebound.
+     */
+    public void notifyRowHeightChanged(int pRow) {
+        if (mRowHeightLookup == null || mRowIndex.isUniform()) {
+            return;
+        }
+        mRowIndex.updateSize(pRow, mZoomedRowHeightLookup.getSize(pRow));
+        mPendingSizeChange = true;
+        requestLayout();
+    }
+
+    /**
+     * Re-reads the width of one column. The offset index is updated in O(log n) and
+     * attached cells are moved in place instead of being rebound.
+     */
+    public void notifyColumnWidthChanged(int pColumn) {
+        if (mColumnWidthLookup == null || mColumnIndex.isUniform()) {
+            return;
+        }
+        mColumnIndex.updateSize(pColumn, mZoomedColumnWidthLookup.getSize(pColumn));
+        mPendingSizeChange = true;
+        requestLayout();
+    }
+
+    /**
+     * Pins the first rows to the top edge, they only scroll horizontally.
+     */
+    public void setFrozenRowCount(int pCount) {
+        mFrozenRowCount = Math.max(0, pCount);
+        mPendingFullLayout = true;
+        requestLayout();
+    }
+
+    /**
+     * Pins the first columns to the left edge, they only scroll vertically.
+     */
+    public void setFrozenColumnCount(int pCount) {
+        mFrozenColumnCount = Math.max(0, pCount);
+        mPendingFullLayout = true;
+        requestLayout();
+    }
+
+    /**
+     * Snaps drags that start close to one axis onto that axis for the rest of the gesture and
+     * its fling, so only one edge of the grid is filled per frame. Diagonal drags stay free,
+     * each of their steps is offset and filled in one pass for both axes.
+     */
+    public void setAxisLockEnabled(boolean pEnabled) {
+        if (pEnabled == mAxisLockEnabled) {
+            return;
+        }
+        mAxisLockEnabled = pEnabled;
+        if (mRecyclerView == null) {
+            return;
+        }
+        if (pEnabled) {
+            addGestureTracker(mRecyclerView);
+        } else {
+            removeGestureTracker(mRecyclerView);
+        }
+    }
+
+    public boolean isAxisLockEnabled() {
+        return mAxisLockEnabled;
+    }
+
+    /**
+     * Lets flings faster than the velocity, in pixels per second, draw cached bitmaps of cell blocks
+     * instead of binding every cell that flashes past. Blocks are captured from bound cells when
+     * scrolling settles and when a fling turns fast, blocks never captured stay empty until the
+     * fling slows down and cells are bound again. Layout passes drop the snapshots, past the byte
+     * budget the least recently drawn ones go first. Pass 0 to always bind.
+     */
+    public void setFlingSnapshots(float pVelocity, int pMaxCacheBytes) {
+        final boolean enabled = pVelocity > 0 && pMaxCacheBytes > 0;
+        final boolean wasEnabled = mSnapshotCache != null;
+        mSnapshotVelocity = enabled ? pVelocity : 0;
+        mSnapshotCache = enabled ? new SnapshotCache(pMaxCacheBytes) : null;
+        if (mSnapshotting && !enabled) {
+            exitSnapshots();
+        }
+        if (mRecyclerView != null && enabled != wasEnabled) {
+            if (enabled) {
+                mRecyclerView.addItemDecoration(mSnapshotDecoration);
+            } else {
+                mRecyclerView.removeItemDecoration(mSnapshotDecoration);
+            }
+        }
+    }
+
+    /**
+     * Frozen cells are never rebound while the body scrolls on their pinned axis.
+     * Adapters that return a separate view type for them keep them in their own recycled pool.
+     */
+    public boolean isFrozenCell(int pPosition) {
+        return getGlobalRowOfPosition(pPosition) < mFrozenRowCount
+                || getGlobalColumnOfPosition(pPosition) < mFrozenColumnCount;
+    }
+
+    /**
+     * @return first scrolling row on screen, frozen rows excluded, or NO_POSITION
+     */
+    public int findFirstVisibleRow() {
+        final int[] window = getVisibleBodyWindow();
+        return window == null ? RecyclerView.NO_POSITION : window[0];
+    }
+
+    public int findLastVisibleRow() {
+        final int[] window = getVisibleBodyWindow();
+        return window == null ? RecyclerView.NO_POSITION : window[1] - 1;
+    }
+
+    public int findFirstVisibleColumn() {
+        final int[] window = getVisibleBodyWindow();
+        return window == null ? RecyclerView.NO_POSITION : window[2];
+    }
+
+    public int findLastVisibleColumn() {
+        final int[] window = getVisibleBodyWindow();
+        return window == null ? RecyclerView.NO_POSITION : window[3] - 1;
+    }
+
+    /**
+     * Follows the offsets rather than the attached cells, a fast fling draws the body
+     * from snapshots and attaches none of it.
+     *
+     * @return body window on screen, null before the first layout
+     */
+    private int[] getVisibleBodyWindow() {
+        if (getChildCount() == 0 && !mSnapshotting) {
+            return null;
+        }
+        computeBodyWindow();
+        return mBodyWindow;
+    }
+
+    /**
+     * Reports per layout pass and per scroll call what was bound, kept, recycled and how long it took.
+     * Called on the main thread, pass null to stop measuring.
+     */
+    public void setLayoutMetricsListener(LayoutMetricsListener pListener) {
+        mMetricsListener = pListener;
+        mMetrics = pListener == null ? null : new LayoutMetrics();
+    }
+
+    /**
+     * Number of rows and columns ahead of the scroll direction that RecyclerView may
+     * create and bind during idle frame time. Zero disables prefetch.
+     */
+    public void setPrefetchDepth(int pDepth) {
+        mPrefetchDepth = Math.max(0, pDepth);
+    }
+
+    /**
+     * Bounds of the zoom applied to row heights and column widths, 1 is the unzoomed size.
+     */
+    public void setZoomRange(float pMinZoom, float pMaxZoom) {
+        mMinZoom = Math.max(0.01f, Math.min(pMinZoom, pMaxZoom));
+        mMaxZoom = Math.max(mMinZoom, pMaxZoom);
+        if (mZoom < mMinZoom || mZoom > mMaxZoom) {
+            setZoom(mZoom);
+        }
+    }
+
+    /**
+     * Zoom levels below which cells drop one level of detail, in descending order.
+     * A {@link TwoWayGridAdapter} reads the level from {@link TwoWayGridAdapter#getDetailLevel()}
+     * to pick lighter view types, all cells are rebound when the level changes.
+     */
+    public void setDetailZoomThresholds(float... pThresholds) {
+        mDetailZoomThresholds = Arrays.copyOf(pThresholds, pThresholds.length);
+        if (detailLevelOf(mZoom) != mDetailLevel) {
+            setDetailLevel(detailLevelOf(mZoom));
+            requestLayout();
+        }
+    }
+
+    public float getZoom() {
+        return mZoom * mPreviewScale;
+    }
+
+    public int getDetailLevel() {
+        return mDetailLevel;
+    }
+
+    /**
+     * Zooms around the top-left padding corner and lays the grid out at the new size.
+     */
+    public void setZoom(float pZoom) {
+        mPreviewScale = 1f;
+        mPreviewFocusX = getPaddingLeft();
+        mPreviewFocusY = getPaddingTop();
+        zoomBy(pZoom / mZoom, mPreviewFocusX, mPreviewFocusY);
+        settleZoom();
+    }
+
+    /**
+     * Scales the zoom of a running gesture around a focus point in RecyclerView coordinates.
+     * Attached cells are only transformed, nothing is bound or laid out until {@link #settleZoom()}.
+     */
+    public void zoomBy(float pScaleFactor, float pFocusX, float pFocusY) {
+        final float zoom = Math.max(mMinZoom, Math.min(mMaxZoom, mZoom * mPreviewScale * pScaleFactor));
+        mPreviewScale = zoom / mZoom;
+        mPreviewFocusX = pFocusX;
+        mPreviewFocusY = pFocusY;
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+            applyZoomPreview(child, (LayoutParams) child.getLayoutParams());
+        }
+    }
+
+    /**
+     * Ends a zoom gesture. The grid is laid out once at the reached zoom, keeping the content
+     * under the focus point in place, and cells switch view types if the detail level changed.
+     */
+    public void settleZoom() {
+        if (mPreviewScale == 1f) {
+            return;
+        }
+        mZoomAnchorRow = fractionalIndexAt(mRowIndex, mVerticalOffset + mPreviewFocusY - getPaddingTop());
+        mZoomAnchorColumn = fractionalIndexAt(mColumnIndex, mHorizontalOffset + mPreviewFocusX - getPaddingLeft());
+        mZoomFocusX = mPreviewFocusX;
+        mZoomFocusY = mPreviewFocusY;
+        mPendingZoomAnchor = true;
+        mZoom *= mPreviewScale;
+        mPreviewScale = 1f;
+        setDetailLevel(detailLevelOf(mZoom));
+        mSizeIndexDirty = true;
+        mPendingFullLayout = true;
+        requestLayout();
+    }
 
     @Override
     public RecyclerView.LayoutParams generateLayoutParams(Context c, AttributeSet attrs) {
@@ -41,196 +530,1037 @@ public class TwoWayGridLayoutManager extends RecyclerView.LayoutManager {
         }
     }
 
-    @Override
-    public boolean checkLayoutParams(RecyclerView.LayoutParams lp) {
-        return lp instanceof LayoutParams;
+    @Override
+    public boolean checkLayoutParams(RecyclerView.LayoutParams lp) {
+        return lp instanceof LayoutParams;
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateDefaultLayoutParams() {
+        return new LayoutParams(RecyclerView.LayoutParams.MATCH_PARENT, RecyclerView.LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public void onAttachedToWindow(RecyclerView view) {
+        super.onAttachedToWindow(view);
+        final RecyclerView.Adapter adapter = view.getAdapter();
+        mDataSource = adapter instanceof GridDataSource ? (GridDataSource) adapter : null;
+        //Touches and frames are only watched for the features that need them
+        if (mAxisLockEnabled) {
+            addGestureTracker(view);
+        }
+        if (mSnapshotCache != null) {
+            view.addItemDecoration(mSnapshotDecoration);
+        }
+        mRecyclerView = view;
+        //The pool may be another one, raise its capacities again
+        mPoolCapacities.clear();
+        mPendingPoolResize = true;
+    }
+
+    @Override
+    public void onDetachedFromWindow(RecyclerView view, RecyclerView.Recycler recycler) {
+        super.onDetachedFromWindow(view, recycler);
+        if (mAxisLockEnabled) {
+            removeGestureTracker(view);
+        }
+        if (mSnapshotCache != null) {
+            view.removeItemDecoration(mSnapshotDecoration);
+        }
+        mRecyclerView = null;
+    }
+
+    private void addGestureTracker(RecyclerView pRecyclerView) {
+        pRecyclerView.addOnItemTouchListener(mGestureTracker);
+        pRecyclerView.addOnScrollListener(mScrollStepListener);
+    }
+
+    private void removeGestureTracker(RecyclerView pRecyclerView) {
+        pRecyclerView.removeOnItemTouchListener(mGestureTracker);
+        pRecyclerView.removeOnScrollListener(mScrollStepListener);
+        mGestureTracker.unlock();
+        mExpectVerticalStep = false;
+    }
+
+    @Override
+    public void onScrollStateChanged(int state) {
+        mScrollState = state;
+        if (state != RecyclerView.SCROLL_STATE_DRAGGING) {
+            mExpectVerticalStep = false;
+        }
+        if (state == RecyclerView.SCROLL_STATE_SETTLING) {
+            //Only the axes the fling moves report a velocity
+            mVelocityX = 0;
+            mVelocityY = 0;
+        } else if (mSnapshotting) {
+            exitSnapshots();
+        } else if (state == RecyclerView.SCROLL_STATE_IDLE) {
+            captureSnapshots();
+        }
+        if (state == RecyclerView.SCROLL_STATE_IDLE) {
+            //The gesture and its fling are over, programmatic scrolls move both axes again
+            mGestureTracker.unlock();
+        }
+    }
+
+    /**
+     * Called by the gesture tracker right before RecyclerView scrolls by a drag step.
+     */
+    void onDragStep(int pDx, int pDy) {
+        mExpectVerticalStep = pDy != 0 && canScrollVertically();
+    }
+
+    @Override
+    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (mMetrics == null) {
+            doLayoutChildren(recycler, state);
+            return;
+        }
+        final long start = System.nanoTime();
+        mMetrics.begin(LayoutMetrics.PASS_LAYOUT);
+        doLayoutChildren(recycler, state);
+        dispatchMetrics(0, 0, start);
+    }
+
+    private void doLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        //Every layout path positions the children from the offsets
+        mPendingScrollFill = false;
+        mPendingScrollDx = 0;
+        mPendingScrollRecycler = null;
+        if (mSnapshotCache != null && !mPendingSnapshotExit) {
+            //Any other pass may follow a change of content, the snapshots could be stale
+            mSnapshotCache.clear();
+        }
+        mPendingSnapshotExit = false;
+        syncDataSourceShape();
+
+        if (getItemCount() == 0) {
+            if (mMetrics != null) {
+                mMetrics.mViewsScrapped += getChildCount();
+            }
+            detachAndScrapAttachedViews(recycler);
+            resetRegions();
+            return;
+        }
+
+        if (getChildCount() != 0 && !mPendingFullLayout && mPendingScrollPosition == RecyclerView.NO_POSITION
+                && mPendingSavedState == null) {
+            if (mPendingItemUpdates) {
+                //Adapter ranges changed, rebind or shift only the affected cells
+                layoutItemUpdates(recycler, state);
+                if (!state.isPreLayout()) {
+                    mPendingItemUpdates = false;
+                    mPendingColumnCountChange = false;
+                    mPendingSizeChange = false;
+                }
+                return;
+            }
+            if (mPendingSizeChange && !state.didStructureChange()) {
+                //Only row or column sizes changed, move the attached cells instead of rebinding them
+                mPendingSizeChange = false;
+                clampOffsets();
+                relayoutAttachedCells();
+                fillGrid(recycler);
+                return;
+            }
+        }
+        if (!state.isPreLayout()) {
+            mPendingFullLayout = false;
+            mPendingItemUpdates = false;
+            mPendingColumnCountChange = false;
+            mPendingSizeChange = false;
+        }
+
+        if (isFixedCellSize()) {
+            mDecoratedChildWidth = mFixedCellWidth;
+            mDecoratedChildHeight = mFixedCellHeight;
+        } else if (mViewTypeWidths.size() != 0) {
+            //Cells of every sized view type fit, position 0 may be a placeholder
+            mDecoratedChildWidth = maxValue(mViewTypeWidths);
+            mDecoratedChildHeight = maxValue(mViewTypeHeights);
+        } else if (mDetailLevel == 0 || mDecoratedChildWidth == 0) {
+            //Lighter detail levels keep the size of full detail cells
+            View scrap = recycler.getViewForPosition(0);
+            if (mMetrics != null) {
+                mMetrics.mViewsObtained++;
+            }
+            addView(scrap);
+            measureChildWithMargins(scrap, 0, 0);
+            mDecoratedChildWidth = getDecoratedMeasuredWidth(scrap);
+            mDecoratedChildHeight = getDecoratedMeasuredHeight(scrap);
+        }
+        updateSizeIndex();
+
+        if (mPendingSavedState != null) {
+            //Restore the window directly, sizes may have changed so offsets are rebuilt from the anchors
+            mVerticalOffset = mRowIndex.offsetOf(Math.min(mPendingSavedState.mAnchorRow, mRowIndex.getCount()))
+                    + mPendingSavedState.mAnchorRowOffset;
+            mHorizontalOffset = mColumnIndex.offsetOf(Math.min(mPendingSavedState.mAnchorColumn, mColumnIndex.getCount()))
+                    + mPendingSavedState.mAnchorColumnOffset;
+            mPendingSavedState = null;
+        }
+        if (mPendingZoomAnchor) {
+            mVerticalOffset = Math.round(offsetAt(mRowIndex, mZoomAnchorRow) - mZoomFocusY + getPaddingTop());
+            mHorizontalOffset = Math.round(offsetAt(mColumnIndex, mZoomAnchorColumn) - mZoomFocusX + getPaddingLeft());
+            mPendingZoomAnchor = false;
+        }
+        if (mPendingScrollPosition != RecyclerView.NO_POSITION) {
+            //Frozen rows and columns cover the leading edge, place the target right past them
+            mVerticalOffset = mRowIndex.offsetOf(getGlobalRowOfPosition(mPendingScrollPosition))
+                    - mRowIndex.offsetOf(getFrozenRowCount());
+            mHorizontalOffset = mColumnIndex.offsetOf(getGlobalColumnOfPosition(mPendingScrollPosition))
+                    - mColumnIndex.offsetOf(getFrozenColumnCount());
+            mPendingScrollPosition = RecyclerView.NO_POSITION;
+        }
+        /*
+         * Adjust the offsets if out of bounds in the new layout.
+         * This occurs when the new item count in an adapter is much smaller
+         * than it was before, and you are scrolled to a location where no items would exist.
+         */
+        clampOffsets();
+
+        if (mPendingDetailLevelChange) {
+            //Cells switch view types, nothing attached can be reused without a bind
+            if (mMetrics != null) {
+                mMetrics.mViewsRecycled += getChildCount();
+            }
+            removeAndRecycleAllViews(recycler);
+            if (!state.isPreLayout()) {
+                mPendingDetailLevelChange = false;
+            }
+        } else {
+            //Clear all attached views into the recycle bin
+            if (mMetrics != null) {
+                mMetrics.mViewsScrapped += getChildCount();
+            }
+            detachAndScrapAttachedViews(recycler);
+        }
+        resetRegions();
+        //Fill the grid for the initial layout of views
+        fillGrid(recycler);
+    }
+
+    /**
+     * Keeps attached cells whose items survived an adapter update and moves them to the
+     * cells of their new positions. Only removed, changed or newly exposed cells are
+     * scrapped and bound again.
+     */
+    private void layoutItemUpdates(RecyclerView.Recycler pRecycler, RecyclerView.State pState) {
+        if (pState.isPreLayout()) {
+            layoutAppearingCells(pRecycler, pState);
+            return;
+        }
+        updateSizeIndex();
+        clampOffsets();
+        computeBodyWindow();
+        final int frozenRows = getFrozenRowCount();
+        final int frozenColumns = getFrozenColumnCount();
+        //A fast fling keeps the body empty, its blocks are drawn from snapshots
+        setRegionWindow(REGION_BODY, mBodyWindow[0], mSnapshotting ? mBodyWindow[0] : mBodyWindow[1],
+                mBodyWindow[2], mBodyWindow[3]);
+        setRegionWindow(REGION_FROZEN_ROWS, 0, frozenRows, mBodyWindow[2], mBodyWindow[3]);
+        setRegionWindow(REGION_FROZEN_COLUMNS, mBodyWindow[0], mBodyWindow[1], 0, frozenColumns);
+        setRegionWindow(REGION_CORNER, 0, frozenRows, 0, frozenColumns);
+        mAttachedViewTypes.clear();
+
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            final View child = getChildAt(i);
+            LayoutParams lp = (LayoutParams) child.getLayoutParams();
+            if (lp.isItemRemoved()) {
+                detachAndScrapView(child, pRecycler);
+                if (mMetrics != null) {
+                    mMetrics.mViewsScrapped++;
+                }
+                continue;
+            }
+            int position = getPosition(child);
+            int row = getGlobalRowOfPosition(position);
+            int column = getGlobalColumnOfPosition(position);
+            int region = regionOf(row, column);
+            int rowSpan = getRowSpanOfPosition(position);
+            int columnSpan = getColumnSpanOfPosition(position);
+            /*
+             * Changed items are bound again from the scrap. Cells that now belong to
+             * another region are re-added so regions keep their child index order.
+             */
+            if (lp.isItemChanged() || region != regionOf(lp.row, lp.column)
+                    || !intersectsRegionWindow(region, row, column, rowSpan, columnSpan)) {
+                detachAndScrapView(child, pRecycler);
+                if (mMetrics != null) {
+                    mMetrics.mViewsScrapped++;
+                }
+                continue;
+            }
+            lp.row = row;
+            lp.column = column;
+            lp.rowSpan = rowSpan;
+            lp.columnSpan = columnSpan;
+            //Shifted cells may land in rows or columns of another size
+            measureCell(child, lp);
+            layoutCellView(child, lp);
+            putCellView(mRegions[region], child, lp);
+            mRegions[region].mChildCount++;
+            onCellAttached(child);
+        }
+
+        //Fill the cells left empty, scrapped views come back without a bind unless they changed
+        for (int region = 0; region < mRegions.length; region++) {
+            final GridRegion gridRegion = mRegions[region];
+            for (int row = gridRegion.mFirstRow; row < gridRegion.mLastRow; row++) {
+                for (int column = gridRegion.mFirstColumn; column < gridRegion.mLastColumn; column++) {
+                    if (gridRegion.mCells.get(row, column) == null) {
+                        layoutCell(region, row, column, pRecycler);
+                    }
+                }
+            }
+        }
+
+        if (mPendingPoolResize) {
+            resizeRecycledViewPool();
+        }
+        if (pState.willRunPredictiveAnimations()) {
+            layoutDisappearingCells(pRecycler);
+        }
+    }
+
+    /**
+     * Pre-layout pass: removals pull items from past the window into it, lay them out
+     * at their current cells so the item animator can slide them in.
+     */
+    private void layoutAppearingCells(RecyclerView.Recycler pRecycler, RecyclerView.State pState) {
+        int removedCount = 0;
+        for (int i = 0; i < getChildCount(); i++) {
+            if (((LayoutParams) getChildAt(i).getLayoutParams()).isItemRemoved()) {
+                removedCount++;
+            }
+        }
+        if (removedCount == 0 || mSpanLookup != null || mPendingColumnCountChange) {
+            //Spanning placements and reshaped rows are not a plain shift, let the animator fade new cells in
+            return;
+        }
+        //Pre-layout positions of the attached and the removed cells, an item moves back by the removed ones before it
+        final int[] attachedPositions = new int[getChildCount()];
+        final int[] removedPositions = new int[removedCount];
+        removedCount = 0;
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+            attachedPositions[i] = getPosition(child);
+            if (((LayoutParams) child.getLayoutParams()).isItemRemoved()) {
+                removedPositions[removedCount++] = attachedPositions[i];
+            }
+        }
+        Arrays.sort(attachedPositions);
+        Arrays.sort(removedPositions);
+        final GridRegion body = mRegions[REGION_BODY];
+        for (int row = body.mFirstRow; row < body.mLastRow; row++) {
+            for (int column = body.mFirstColumn; column < body.mLastColumn; column++) {
+                int position = row * getTotalColumnCount() + column;
+                for (int removedPosition : removedPositions) {
+                    if (removedPosition <= position) {
+                        position++;
+                    }
+                }
+                int appearingRow = getGlobalRowOfPosition(position);
+                int appearingColumn = getGlobalColumnOfPosition(position);
+                //Removed items that were not attached are gone from pre-layout positions, attached items do not appear
+                if (position >= pState.getItemCount()
+                        || Arrays.binarySearch(attachedPositions, position) >= 0
+                        || regionOf(appearingRow, appearingColumn) != REGION_BODY
+                        || isInRegionWindow(REGION_BODY, appearingRow, appearingColumn)) {
+                    continue;
+                }
+                View view = pRecycler.getViewForPosition(position);
+                if (mMetrics != null) {
+                    mMetrics.mViewsObtained++;
+                }
+                addView(view, getRegionEnd(REGION_BODY));
+                body.mChildCount++;
+                LayoutParams lp = (LayoutParams) view.getLayoutParams();
+                lp.row = appearingRow;
+                lp.column = appearingColumn;
+                lp.rowSpan = lp.columnSpan = 1;
+                measureCell(view, lp);
+                layoutCellView(view, lp);
+            }
+        }
+    }
+
+    /**
+     * Items that moved out of the window are laid out at their new cells so they
+     * animate away instead of fading in place.
+     */
+    private void layoutDisappearingCells(RecyclerView.Recycler pRecycler) {
+        final List<RecyclerView.ViewHolder> scrapList = pRecycler.getScrapList();
+        if (scrapList.isEmpty()) {
+            return;
+        }
+        //Adding a disappearing view removes it from the scrap list
+        final List<RecyclerView.ViewHolder> disappearing = new ArrayList<>(scrapList.size());
+        for (RecyclerView.ViewHolder holder : scrapList) {
+            if (!((LayoutParams) holder.itemView.getLayoutParams()).isItemRemoved()) {
+                disappearing.add(holder);
+            }
+        }
+        for (RecyclerView.ViewHolder holder : disappearing) {
+            final View child = holder.itemView;
+            int position = getPosition(child);
+            if (position < 0 || position >= getItemCount()) {
+                continue;
+            }
+            addDisappearingView(child);
+            LayoutParams lp = (LayoutParams) child.getLayoutParams();
+            lp.row = getGlobalRowOfPosition(position);
+            lp.column = getGlobalColumnOfPosition(position);
+            lp.rowSpan = getRowSpanOfPosition(position);
+            lp.columnSpan = getColumnSpanOfPosition(position);
+            layoutCellView(child, lp);
+        }
+    }
+
+    private void setRegionWindow(int pRegion, int pFirstRow, int pLastRow, int pFirstColumn, int pLastColumn) {
+        final GridRegion region = mRegions[pRegion];
+        region.reset();
+        region.mCells.ensureCapacity(pLastRow - pFirstRow, pLastColumn - pFirstColumn);
+        region.mFirstRow = pFirstRow;
+        region.mLastRow = pLastRow;
+        region.mFirstColumn = pFirstColumn;
+        region.mLastColumn = pLastColumn;
+    }
+
+    private boolean isInRegionWindow(int pRegion, int pRow, int pColumn) {
+        return intersectsRegionWindow(pRegion, pRow, pColumn, 1, 1);
+    }
+
+    private boolean intersectsRegionWindow(int pRegion, int pRow, int pColumn, int pRowSpan, int pColumnSpan) {
+        final GridRegion region = mRegions[pRegion];
+        return pRow < region.mLastRow && pRow + pRowSpan > region.mFirstRow
+                && pColumn < region.mLastColumn && pColumn + pColumnSpan > region.mFirstColumn;
+    }
+
+    @Override
+    public boolean supportsPredictiveItemAnimations() {
+        return true;
+    }
+
+    @Override
+    public void onItemsAdded(RecyclerView recyclerView, int positionStart, int itemCount) {
+        mSpanIndex.invalidateFrom(positionStart);
+        mPendingItemUpdates = true;
+    }
+
+    @Override
+    public void onItemsRemoved(RecyclerView recyclerView, int positionStart, int itemCount) {
+        mSpanIndex.invalidateFrom(positionStart);
+        mPendingItemUpdates = true;
+    }
+
+    @Override
+    public void onItemsUpdated(RecyclerView recyclerView, int positionStart, int itemCount) {
+        //Changed items keep their cells, spans changing along call notifySpansChanged
+        mPendingItemUpdates = true;
+    }
+
+    @Override
+    public void onItemsMoved(RecyclerView recyclerView, int from, int to, int itemCount) {
+        mSpanIndex.invalidateFrom(Math.min(from, to));
+        mPendingItemUpdates = true;
+    }
+
+    @Override
+    public void onItemsChanged(RecyclerView recyclerView) {
+        //notifyDataSetChanged invalidates every position, nothing can be kept
+        mSpanIndex.reset(mTotalColumnCount);
+        mPendingFullLayout = true;
+    }
+
+    @Override
+    public void onAdapterChanged(RecyclerView.Adapter oldAdapter, RecyclerView.Adapter newAdapter) {
+        mDataSource = newAdapter instanceof GridDataSource ? (GridDataSource) newAdapter : null;
+        if (newAdapter instanceof TwoWayGridAdapter) {
+            ((TwoWayGridAdapter) newAdapter).setDetailLevel(mDetailLevel);
+        }
+        mSpanIndex.reset(mTotalColumnCount);
+        mPendingFullLayout = true;
+        removeAllViews();
+        resetRegions();
+    }
+
+    /**
+     * Takes the column count from the data source. The grid is rebuilt when it changed, unless
+     * granular adapter updates, e.g. from {@link GridDiff}, already tell where every item went.
+     */
+    private void syncDataSourceShape() {
+        if (mDataSource == null) {
+            return;
+        }
+        final int columnCount = Math.max(1, mDataSource.getColumnCount());
+        if (columnCount != mTotalColumnCount) {
+            mTotalColumnCount = columnCount;
+            mSpanIndex.reset(mTotalColumnCount);
+            mSizeIndexDirty = true;
+            if (mPendingItemUpdates) {
+                mPendingColumnCountChange = true;
+            } else {
+                mPendingFullLayout = true;
+            }
+        }
+    }
+
+    private void updateSizeIndex() {
+        ensureSpanIndex();
+        int rowCount = getTotalRowCount();
+        int columnCount = getTotalColumnCount();
+        if (mRowHeightLookup == null) {
+            mRowIndex.setUniform(rowCount, zoomed(mDecoratedChildHeight));
+        } else if (mSizeIndexDirty || mRowIndex.isUniform() || mRowIndex.getCount() != rowCount) {
+            mRowIndex.setSizes(rowCount, mZoomedRowHeightLookup);
+        }
+        if (mColumnWidthLookup == null) {
+            mColumnIndex.setUniform(columnCount, zoomed(mDecoratedChildWidth));
+        } else if (mSizeIndexDirty || mColumnIndex.isUniform() || mColumnIndex.getCount() != columnCount) {
+            mColumnIndex.setSizes(columnCount, mZoomedColumnWidthLookup);
+        }
+        mSizeIndexDirty = false;
+    }
+
+    private void clampOffsets() {
+        mVerticalOffset = Math.max(0, Math.min(mVerticalOffset, mRowIndex.getTotalSize() - getVerticalSpace()));
+        mHorizontalOffset = Math.max(0, Math.min(mHorizontalOffset, mColumnIndex.getTotalSize() - getHorizontalSpace()));
+    }
+
+    private void resetRegions() {
+        for (GridRegion region : mRegions) {
+            region.reset();
+        }
+        mAttachedViewTypes.clear();
+    }
+
+    private void relayoutAttachedCells() {
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+            LayoutParams lp = (LayoutParams) child.getLayoutParams();
+            measureCell(child, lp);
+            layoutCellView(child, lp);
+        }
+    }
+
+    /**
+     * Brings the window of every region in line with the current content offsets.
+     */
+    private void fillGrid(RecyclerView.Recycler pRecycler) {
+        final int frozenRows = getFrozenRowCount();
+        final int frozenColumns = getFrozenColumnCount();
+        computeBodyWindow();
+        final int firstRow = mBodyWindow[0];
+        final int lastRow = mBodyWindow[1];
+        final int firstColumn = mBodyWindow[2];
+        final int lastColumn = mBodyWindow[3];
+
+        //A fast fling keeps the body empty, its blocks are drawn from snapshots
+        moveWindow(REGION_BODY, firstRow, mSnapshotting ? firstRow : lastRow, firstColumn, lastColumn, pRecycler);
+        moveWindow(REGION_FROZEN_ROWS, 0, frozenRows, firstColumn, lastColumn, pRecycler);
+        moveWindow(REGION_FROZEN_COLUMNS, firstRow, lastRow, 0, frozenColumns, pRecycler);
+        moveWindow(REGION_CORNER, 0, frozenRows, 0, frozenColumns, pRecycler);
+        if (mPendingPoolResize) {
+            resizeRecycledViewPool();
+        }
+    }
+
+    private void computeBodyWindow() {
+        final int frozenRows = getFrozenRowCount();
+        final int frozenColumns = getFrozenColumnCount();
+        //Body cells are only visible past the frozen rows and columns
+        int firstRow = Math.max(frozenRows, mRowIndex.indexAt(mVerticalOffset + mRowIndex.offsetOf(frozenRows)));
+        int lastRow = getVerticalSpace() > 0
+                ? mRowIndex.indexAt(mVerticalOffset + getVerticalSpace() - 1) + 1 : firstRow;
+        int firstColumn = Math.max(frozenColumns, mColumnIndex.indexAt(mHorizontalOffset + mColumnIndex.offsetOf(frozenColumns)));
+        int lastColumn = getHorizontalSpace() > 0
+                ? mColumnIndex.indexAt(mHorizontalOffset + getHorizontalSpace() - 1) + 1 : firstColumn;
+        mBodyWindow[0] = firstRow;
+        mBodyWindow[1] = Math.max(firstRow, lastRow);
+        mBodyWindow[2] = firstColumn;
+        mBodyWindow[3] = Math.max(firstColumn, lastColumn);
+    }
+
+    /**
+     * Moves the window of a region to the given bounds in one pass.
+     * Children that stay inside the window keep their attachment and order, only cells
+     * leaving the window are recycled and only cells entering it are bound. Cells the
+     * window skips over on a large jump are never bound at all.
+     */
+    private void moveWindow(int pRegion, int pFirstRow, int pLastRow, int pFirstColumn, int pLastColumn,
+                            RecyclerView.Recycler pRecycler) {
+        final GridRegion region = mRegions[pRegion];
+        if (region.isWindow(pFirstRow, pLastRow, pFirstColumn, pLastColumn)) {
+            return;
+        }
+        final int oldFirstRow = region.mFirstRow;
+        final int oldLastRow = region.mLastRow;
+        final int oldFirstColumn = region.mFirstColumn;
+        final int oldLastColumn = region.mLastColumn;
+        if (region.mCells.ensureCapacity(Math.max(oldLastRow - oldFirstRow, pLastRow - pFirstRow),
+                Math.max(oldLastColumn - oldFirstColumn, pLastColumn - pFirstColumn))) {
+            //The window outgrew the buffer, index the attached cells again
+            for (int i = 0; i < getChildCount(); i++) {
+                final View child = getChildAt(i);
+                LayoutParams lp = (LayoutParams) child.getLayoutParams();
+                if (regionOf(lp.row, lp.column) == pRegion) {
+                    putCellView(region, child, lp);
+                }
+            }
+        }
+
+        //Spanning cells check the new window before being recycled
+        region.mFirstRow = pFirstRow;
+        region.mLastRow = pLastRow;
+        region.mFirstColumn = pFirstColumn;
+        region.mLastColumn = pLastColumn;
+
+        //Recycle what leaves, rows entirely outside first then the side strips of kept rows
+        for (int row = oldFirstRow; row < oldLastRow; row++) {
+            if (row < pFirstRow || row >= pLastRow) {
+                recycleCells(region, row, oldFirstColumn, oldLastColumn, pRecycler);
+            } else {
+                recycleCells(region, row, oldFirstColumn, Math.min(oldLastColumn, pFirstColumn), pRecycler);
+                recycleCells(region, row, Math.max(oldFirstColumn, pLastColumn), oldLastColumn, pRecycler);
+            }
+        }
+        //Their cells entering the window may share slots with cells only just recycled
+        for (int i = 0; i < mKeptSpans.size(); i++) {
+            final View view = mKeptSpans.get(i);
+            putCellView(region, view, (LayoutParams) view.getLayoutParams());
+        }
+        mKeptSpans.clear();
+
+        //Lay out what enters, mirroring the recycle pass
+        for (int row = pFirstRow; row < pLastRow; row++) {
+            if (row < oldFirstRow || row >= oldLastRow) {
+                layoutCells(pRegion, row, pFirstColumn, pLastColumn, pRecycler);
+            } else {
+                layoutCells(pRegion, row, pFirstColumn, Math.min(pLastColumn, oldFirstColumn), pRecycler);
+                layoutCells(pRegion, row, Math.max(pFirstColumn, oldLastColumn), pLastColumn, pRecycler);
+            }
+        }
+    }
+
+    private void layoutCells(int pRegion, int pRow, int pFirstColumn, int pLastColumn,
+                             RecyclerView.Recycler pRecycler) {
+        for (int column = pFirstColumn; column < pLastColumn; column++) {
+            layoutCell(pRegion, pRow, column, pRecycler);
+        }
+    }
+
+    private void layoutCell(int pRegion, int pRow, int pColumn, RecyclerView.Recycler pRecycler) {
+        int nextPosition = positionAt(pRow, pColumn);
+        if (nextPosition == RecyclerView.NO_POSITION) {
+            //Item space beyond the data set, don't attempt to add a view
+            return;
+        }
+        final GridRegion region = mRegions[pRegion];
+        //Without spans the cell is its own anchor, skip mapping the position back
+        final int row = mSpanLookup == null ? pRow : getGlobalRowOfPosition(nextPosition);
+        final int column = mSpanLookup == null ? pColumn : getGlobalColumnOfPosition(nextPosition);
+        if ((row != pRow || column != pColumn) && regionOf(row, column) != pRegion) {
+            return;
+        }
+        if (mSpanLookup != null && (getRowSpanOfPosition(nextPosition) > 1 || getColumnSpanOfPosition(nextPosition) > 1)) {
+            //A spanning cell may already be attached through another of its cells, even at its
+            //anchor when that entered the window after a covered cell
+            View attached = findAttachedSpan(region, row, column,
+                    getRowSpanOfPosition(nextPosition), getColumnSpanOfPosition(nextPosition));
+            if (attached != null) {
+                region.mCells.put(pRow, pColumn, attached);
+                return;
+            }
+        }
+        View view = pRecycler.getViewForPosition(nextPosition);
+        if (mMetrics != null) {
+            mMetrics.mViewsObtained++;
+        }
+        //Append at the end of the region so frozen cells keep drawing over the body
+        addView(view, getRegionEnd(pRegion));
+        region.mChildCount++;
+        onCellAttached(view);
+        LayoutParams lp = (LayoutParams) view.getLayoutParams();
+        lp.row = row;
+        lp.column = column;
+        lp.rowSpan = getRowSpanOfPosition(nextPosition);
+        lp.columnSpan = getColumnSpanOfPosition(nextPosition);
+        measureCell(view, lp);
+        layoutCellView(view, lp);
+        putCellView(region, view, lp);
+    }
+
+    private View findAttachedSpan(GridRegion pRegion, int pRow, int pColumn, int pRowSpan, int pColumnSpan) {
+        final int lastRow = Math.min(pRow + pRowSpan, pRegion.mLastRow);
+        final int lastColumn = Math.min(pColumn + pColumnSpan, pRegion.mLastColumn);
+        for (int row = Math.max(pRow, pRegion.mFirstRow); row < lastRow; row++) {
+            for (int column = Math.max(pColumn, pRegion.mFirstColumn); column < lastColumn; column++) {
+                final View view = pRegion.mCells.get(row, column);
+                if (view != null) {
+                    LayoutParams lp = (LayoutParams) view.getLayoutParams();
+                    if (lp.row == pRow && lp.column == pColumn) {
+                        return view;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores the view at every cell it covers inside the region window.
+     */
+    private void putCellView(GridRegion pRegion, View pView, LayoutParams pLp) {
+        final int lastRow = Math.min(pLp.row + pLp.rowSpan, pRegion.mLastRow);
+        final int lastColumn = Math.min(pLp.column + pLp.columnSpan, pRegion.mLastColumn);
+        for (int row = Math.max(pLp.row, pRegion.mFirstRow); row < lastRow; row++) {
+            for (int column = Math.max(pLp.column, pRegion.mFirstColumn); column < lastColumn; column++) {
+                pRegion.mCells.put(row, column, pView);
+            }
+        }
+    }
+
+    private void layoutCellView(View pView, LayoutParams pLp) {
+        int leftOffset = getPaddingLeft() + mColumnIndex.offsetOf(pLp.column);
+        if (pLp.column >= mFrozenColumnCount) {
+            leftOffset -= mHorizontalOffset;
+        }
+        int topOffset = getPaddingTop() + mRowIndex.offsetOf(pLp.row);
+        if (pLp.row >= mFrozenRowCount) {
+            topOffset -= mVerticalOffset;
+        }
+        final int typeIndex = indexOfViewTypeSize(pView);
+        final int width = getCellViewWidth(pLp, typeIndex);
+        final int height = getCellViewHeight(pLp, typeIndex);
+        //Smaller view types sit in the middle of their cell
+        leftOffset += (getCellWidth(pLp) - width) / 2;
+        topOffset += (getCellHeight(pLp) - height) / 2;
+        layoutDecorated(pView, leftOffset, topOffset, leftOffset + width, topOffset + height);
+        if (mPreviewScale != 1f || pView.getScaleX() != 1f) {
+            //Cells laid out during a zoom gesture join the preview, recycled ones drop it
+            applyZoomPreview(pView, pLp);
+        }
+    }
+
+    /**
+     * Scales the cell around the gesture focus. Frozen cells scale towards their pinned edge.
+     */
+    private void applyZoomPreview(View pView, LayoutParams pLp) {
+        final float focusX = pLp.column < getFrozenColumnCount() ? getPaddingLeft() : mPreviewFocusX;
+        final float focusY = pLp.row < getFrozenRowCount() ? getPaddingTop() : mPreviewFocusY;
+        pView.setPivotX(0);
+        pView.setPivotY(0);
+        pView.setScaleX(mPreviewScale);
+        pView.setScaleY(mPreviewScale);
+        pView.setTranslationX((focusX - pView.getLeft()) * (1 - mPreviewScale));
+        pView.setTranslationY((focusY - pView.getTop()) * (1 - mPreviewScale));
+    }
+
+    private int zoomed(int pSize) {
+        return mZoom == 1f || pSize == 0 ? pSize : Math.max(1, Math.round(pSize * mZoom));
+    }
+
+    /**
+     * @return content offset of a fractional row or column
+     */
+    private static float offsetAt(AxisSizeIndex pIndex, float pFractionalIndex) {
+        final int index = Math.min((int) pFractionalIndex, Math.max(0, pIndex.getCount() - 1));
+        return pIndex.offsetOf(index) + (pFractionalIndex - index) * pIndex.sizeOf(index);
+    }
+
+    /**
+     * @return fractional row or column at a content offset
+     */
+    private static float fractionalIndexAt(AxisSizeIndex pIndex, float pOffset) {
+        if (pIndex.getCount() == 0) {
+            return 0;
+        }
+        final int index = pIndex.indexAt((int) pOffset);
+        final int size = pIndex.sizeOf(index);
+        return index + (size == 0 ? 0 : (pOffset - pIndex.offsetOf(index)) / size);
+    }
+
+    private int detailLevelOf(float pZoom) {
+        int level = 0;
+        while (level < mDetailZoomThresholds.length && pZoom < mDetailZoomThresholds[level]) {
+            level++;
+        }
+        return level;
+    }
+
+    private void setDetailLevel(int pLevel) {
+        if (pLevel == mDetailLevel) {
+            return;
+        }
+        mDetailLevel = pLevel;
+        mPendingDetailLevelChange = true;
+        mPendingFullLayout = true;
+        if (mDataSource instanceof TwoWayGridAdapter) {
+            ((TwoWayGridAdapter) mDataSource).setDetailLevel(pLevel);
+        }
     }
 
-    @Override
-    public RecyclerView.LayoutParams generateDefaultLayoutParams() {
-        return new LayoutParams(RecyclerView.LayoutParams.MATCH_PARENT, RecyclerView.LayoutParams.WRAP_CONTENT);
+    private int getCellWidth(LayoutParams pLp) {
+        return pLp.columnSpan == 1 ? mColumnIndex.sizeOf(pLp.column)
+                : mColumnIndex.offsetOf(pLp.column + pLp.columnSpan) - mColumnIndex.offsetOf(pLp.column);
     }
 
-    @Override
-    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+    private int getCellHeight(LayoutParams pLp) {
+        return pLp.rowSpan == 1 ? mRowIndex.sizeOf(pLp.row)
+                : mRowIndex.offsetOf(pLp.row + pLp.rowSpan) - mRowIndex.offsetOf(pLp.row);
+    }
 
-        if (getItemCount() == 0) {
-            detachAndScrapAttachedViews(recycler);
-            return;
-        }
+    private boolean isFixedCellSize() {
+        return mFixedCellWidth > 0;
+    }
 
+    /**
+     * @return true when cell sizes do not come from measuring position 0
+     */
+    private boolean isCellSizeImposed() {
+        return isFixedCellSize() || mRowHeightLookup != null || mColumnWidthLookup != null;
+    }
 
-        View scrap = recycler.getViewForPosition(0);
-        addView(scrap);
-        measureChildWithMargins(scrap, 0, 0);
-        mDecoratedChildWidth = getDecoratedMeasuredWidth(scrap);
-        mDecoratedChildHeight = getDecoratedMeasuredHeight(scrap);
-        updateWindowSizing();
+    /**
+     * @return index of the size of the view's type, negative when the view fills its cell
+     */
+    private int indexOfViewTypeSize(View pView) {
+        return mViewTypeWidths.size() == 0 ? -1 : mViewTypeWidths.indexOfKey(getItemViewType(pView));
+    }
 
+    private int getCellViewWidth(LayoutParams pLp, int pTypeIndex) {
+        return pTypeIndex < 0 ? getCellWidth(pLp)
+                : Math.min(getCellWidth(pLp), zoomed(mViewTypeWidths.valueAt(pTypeIndex)));
+    }
 
-        int childLeft;
-        int childTop;
-        mFirstVisiblePosition = 0;
-        childLeft = childTop = 0;
+    private int getCellViewHeight(LayoutParams pLp, int pTypeIndex) {
+        return pTypeIndex < 0 ? getCellHeight(pLp)
+                : Math.min(getCellHeight(pLp), zoomed(mViewTypeHeights.valueAt(pTypeIndex)));
+    }
 
-        if (getChildCount() == 0) {
-            mFirstVisiblePosition = 0;
-            childLeft = childTop = 0;
+    private static int maxValue(SparseIntArray pArray) {
+        int max = 0;
+        for (int i = 0; i < pArray.size(); i++) {
+            max = Math.max(max, pArray.valueAt(i));
+        }
+        return max;
+    }
 
-        } else {
+    private void onCellAttached(View pView) {
+        final int viewType = getItemViewType(pView);
+        final int count = mAttachedViewTypes.get(viewType) + 1;
+        mAttachedViewTypes.put(viewType, count);
+        if (count > Math.max(DEFAULT_POOL_CAPACITY, mPoolCapacities.get(viewType))) {
+            mPendingPoolResize = true;
+        }
+    }
 
-            if (getVisibleChildCount() >= getItemCount()) {
-                mFirstVisiblePosition = 0;
-                childLeft = childTop = 0;
-            } else {
-                final View topChild = getChildAt(0);
-                childLeft = getDecoratedLeft(topChild);
-                childTop = getDecoratedTop(topChild);
-                 /*
-             * Adjust the visible position if out of bounds in the
-             * new layout. This occurs when the new item count in an adapter
-             * is much smaller than it was before, and you are scrolled to
-             * a location where no items would exist.
-             */
-                int maxFirstRow = getTotalRowCount() - (mVisibleRowCount - 1);
-                int maxFirstCol = getTotalColumnCount() - (mVisibleColumnCount - 1);
-                boolean isOutOfRowBounds = getFirstVisibleRow() > maxFirstRow;
-                boolean isOutOfColBounds = getFirstVisibleColumn() > maxFirstCol;
-                if (isOutOfRowBounds || isOutOfColBounds) {
-                    int firstRow;
-                    if (isOutOfRowBounds) {
-                        firstRow = maxFirstRow;
-                    } else {
-                        firstRow = getFirstVisibleRow();
-                    }
-                    int firstCol;
-                    if (isOutOfColBounds) {
-                        firstCol = maxFirstCol;
-                    } else {
-                        firstCol = getFirstVisibleColumn();
-                    }
-                    mFirstVisiblePosition = firstRow * getTotalColumnCount() + firstCol;
+    /**
+     * Lets the pool keep as many views of each type as were ever attached at once. Scrolling from
+     * cells of one type into cells of another parks the first ones in the pool instead of
+     * dropping them, coming back takes them from there rather than inflating new views.
+     */
+    private void resizeRecycledViewPool() {
+        mPendingPoolResize = false;
+        if (mRecyclerView == null) {
+            return;
+        }
+        final RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        for (int i = 0; i < mAttachedViewTypes.size(); i++) {
+            final int viewType = mAttachedViewTypes.keyAt(i);
+            final int count = mAttachedViewTypes.valueAt(i);
+            if (count > Math.max(DEFAULT_POOL_CAPACITY, mPoolCapacities.get(viewType))) {
+                mPoolCapacities.put(viewType, count);
+                pool.setMaxRecycledViews(viewType, count);
+            }
+        }
+    }
+
+    /**
+     * Measures the view for its cell. With a fixed cell size, row or column lookups, a size for its
+     * view type, a zoom or a span the view is measured exactly at the size it is laid out at, and only
+     * if it asked for layout or was measured at another size. Otherwise every cell is expected to
+     * measure like position 0.
+     */
+    private void measureCell(View pView, LayoutParams pLp) {
+        final int typeIndex = indexOfViewTypeSize(pView);
+        if (typeIndex < 0 && !isCellSizeImposed() && mZoom == 1f && pLp.rowSpan == 1 && pLp.columnSpan == 1) {
+            measureChildWithMargins(pView, 0, 0);
+            return;
+        }
+        calculateItemDecorationsForChild(pView, mDecorInsets);
+        final int width = Math.max(0, getCellViewWidth(pLp, typeIndex) - mDecorInsets.left - mDecorInsets.right
+                - pLp.leftMargin - pLp.rightMargin);
+        final int height = Math.max(0, getCellViewHeight(pLp, typeIndex) - mDecorInsets.top - mDecorInsets.bottom
+                - pLp.topMargin - pLp.bottomMargin);
+        if (!pView.isLayoutRequested() && pView.getMeasuredWidth() == width && pView.getMeasuredHeight() == height) {
+            //Rebound without asking for layout, the previous measure still holds
+            return;
+        }
+        pView.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+    }
 
-                    childLeft = getHorizontalSpace() - (mDecoratedChildWidth * mVisibleColumnCount);
-                    childTop = getVerticalSpace() - (mDecoratedChildHeight * mVisibleRowCount);
+    private void recycleCells(GridRegion pRegion, int pRow, int pFirstColumn, int pLastColumn,
+                              RecyclerView.Recycler pRecycler) {
+        for (int column = pFirstColumn; column < pLastColumn; column++) {
+            recycleCell(pRegion, pRow, column, pRecycler);
+        }
+    }
 
-                    //Correct cases where shifting to the bottom-right overscrolls the top-left
-                    // This happens on data sets too small to scroll in a direction.
-                    if (getFirstVisibleRow() == 0) {
-                        childTop = Math.min(childTop, 0);
-                    }
-                    if (getFirstVisibleColumn() == 0) {
-                        childLeft = Math.min(childLeft, 0);
+    private void recycleCell(GridRegion pRegion, int pRow, int pColumn, RecyclerView.Recycler pRecycler) {
+        final View child = pRegion.mCells.get(pRow, pColumn);
+        if (child == null) {
+            return;
+        }
+        LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        if (!lp.covers(pRow, pColumn)) {
+            return;
+        }
+        pRegion.mCells.remove(pRow, pColumn);
+        if (lp.rowSpan > 1 || lp.columnSpan > 1) {
+            if (lp.row < pRegion.mLastRow && lp.row + lp.rowSpan > pRegion.mFirstRow
+                    && lp.column < pRegion.mLastColumn && lp.column + lp.columnSpan > pRegion.mFirstColumn) {
+                //Still visible through another of its cells, which may be entering the window
+                mKeptSpans.add(child);
+                return;
+            }
+            for (int row = lp.row; row < lp.row + lp.rowSpan; row++) {
+                for (int column = lp.column; column < lp.column + lp.columnSpan; column++) {
+                    if (pRegion.mCells.get(row, column) == child) {
+                        pRegion.mCells.remove(row, column);
                     }
                 }
             }
         }
+        pRegion.mChildCount--;
+        final int viewType = getItemViewType(child);
+        mAttachedViewTypes.put(viewType, mAttachedViewTypes.get(viewType) - 1);
+        removeAndRecycleView(child, pRecycler);
+        if (mMetrics != null) {
+            mMetrics.mViewsRecycled++;
+        }
+    }
+
+    private int regionOf(int pRow, int pColumn) {
+        if (pRow < mFrozenRowCount) {
+            return pColumn < mFrozenColumnCount ? REGION_CORNER : REGION_FROZEN_ROWS;
+        }
+        return pColumn < mFrozenColumnCount ? REGION_FROZEN_COLUMNS : REGION_BODY;
+    }
 
+    private int getRegionEnd(int pRegion) {
+        int end = 0;
+        for (int i = 0; i <= pRegion; i++) {
+            end += mRegions[i].mChildCount;
+        }
+        return end;
+    }
 
-        //Clear all attached views into the recycle bin
-        detachAndScrapAttachedViews(recycler);
-        //Fill the grid for the initial layout of views
-        fillGrid(DIRECTION_NONE, childLeft, childTop, recycler);
-    }
-
-    private void fillGrid(int pDirection, int pChildLeft, int pChildTop, RecyclerView.Recycler pRecycler) {
-        if (mFirstVisiblePosition < 0) mFirstVisiblePosition = 0;
-        if (mFirstVisiblePosition >= getItemCount()) mFirstVisiblePosition = (getItemCount() - 1);
-        SparseArray<View> viewCache = new SparseArray<View>(getChildCount());
-        int startLeftOffset = getPaddingLeft();
-        int startTopOffset = getPaddingTop();
-        if (getChildCount() != 0) {
-            final View topView = getChildAt(0);
-            startLeftOffset = getDecoratedLeft(topView);
-            startTopOffset = getDecoratedTop(topView);
-
-            switch (pDirection) {
-                case DIRECTION_START:
-                    startLeftOffset -= mDecoratedChildWidth;
-                    break;
-                case DIRECTION_END:
-                    startLeftOffset += mDecoratedChildWidth;
-                    break;
-                case DIRECTION_UP:
-                    startTopOffset -= mDecoratedChildHeight;
-                    break;
-                case DIRECTION_DOWN:
-                    startTopOffset += mDecoratedChildHeight;
-                    break;
-            }
-            
-            //Cache all views by their existing position, before updating counts
-            for (int i = 0; i < getChildCount(); i++) {
-                int position = positionOfIndex(i);
-                final View child = getChildAt(i);
-                viewCache.put(position, child);
+    private int getFrozenRowCount() {
+        return Math.min(mFrozenRowCount, getTotalRowCount());
+    }
+
+    private int getFrozenColumnCount() {
+        return Math.min(mFrozenColumnCount, getTotalColumnCount());
+    }
+
+    /**
+     * Offsets every child that scrolls on the axis, frozen cells stay in place.
+     */
+    private void offsetScrollingChildren(int pDx, int pDy) {
+        if ((pDx == 0 || mFrozenColumnCount == 0) && (pDy == 0 || mFrozenRowCount == 0)) {
+            if (pDx != 0) {
+                offsetChildrenHorizontal(pDx);
             }
-            //Temporarily detach all views.
-            // Views we still need will be added back at the proper index.
-            for (int i = 0; i < viewCache.size(); i++) {
-                detachView(viewCache.valueAt(i));
+            if (pDy != 0) {
+                offsetChildrenVertical(pDy);
             }
+            return;
         }
-        /*
-         * Next, we advance the visible position based on the fill direction.
-         * DIRECTION_NONE doesn't advance the position in any direction.
-         */
-        switch (pDirection) {
-            case DIRECTION_START:
-                mFirstVisiblePosition--;
-                break;
-            case DIRECTION_END:
-                mFirstVisiblePosition++;
-                break;
-            case DIRECTION_UP:
-                mFirstVisiblePosition -= getTotalColumnCount();
-                break;
-            case DIRECTION_DOWN:
-                mFirstVisiblePosition += getTotalColumnCount();
-                break;
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+            LayoutParams lp = (LayoutParams) child.getLayoutParams();
+            if (pDx != 0 && lp.column >= mFrozenColumnCount) {
+                child.offsetLeftAndRight(pDx);
+            }
+            if (pDy != 0 && lp.row >= mFrozenRowCount) {
+                child.offsetTopAndBottom(pDy);
+            }
         }
+    }
 
-        int leftOffset = startLeftOffset;
-        int topOffset = startTopOffset;
-        for (int i = 0; i < getVisibleChildCount(); i++) {
-            int nextPosition = positionOfIndex(i);
-            int offsetPositionDelta = 0;
-            if (nextPosition < 0 || nextPosition >= getItemCount()) {
-                //Item space beyond the data set, don't attempt to add a view
-                continue;
+    @Override
+    public void collectAdjacentPrefetchPositions(int dx, int dy, RecyclerView.State state,
+                                                 LayoutPrefetchRegistry layoutPrefetchRegistry) {
+        if (getChildCount() == 0 || mPrefetchDepth == 0 || mSnapshotting) {
+            return;
+        }
+        final GridRegion body = mRegions[REGION_BODY];
+        final int frozenRows = getFrozenRowCount();
+        final int frozenColumns = getFrozenColumnCount();
+        //Diagonal scrolls report both the next rows and the next columns
+        for (int i = 0; i < mPrefetchDepth && dy != 0; i++) {
+            int row = dy > 0 ? body.mLastRow + i : body.mFirstRow - 1 - i;
+            if (row < frozenRows || row >= getTotalRowCount()) {
+                break;
             }
-            //Layout this position
-            View view = viewCache.get(nextPosition);
-            if (view == null) {
-                view = pRecycler.getViewForPosition(nextPosition);
-                addView(view);
-                LayoutParams lp = (LayoutParams) view.getLayoutParams();
-                lp.row = getGlobalRowOfPosition(nextPosition);
-                lp.column = getGlobalColumnOfPosition(nextPosition);
-                measureChildWithMargins(view, 0, 0);
-                layoutDecorated(view, leftOffset, topOffset,
-                        leftOffset + mDecoratedChildWidth,
-                        topOffset + mDecoratedChildHeight);
-            } else {
-                attachView(view);
-                viewCache.remove(nextPosition);
+            int distance = dy > 0
+                    ? mRowIndex.offsetOf(row) - (mVerticalOffset + getVerticalSpace())
+                    : mVerticalOffset + mRowIndex.offsetOf(frozenRows) - mRowIndex.offsetOf(row + 1);
+            prefetchCells(row, body.mFirstColumn, body.mLastColumn, distance, layoutPrefetchRegistry);
+            prefetchCells(row, 0, frozenColumns, distance, layoutPrefetchRegistry);
+        }
+        for (int i = 0; i < mPrefetchDepth && dx != 0; i++) {
+            int column = dx > 0 ? body.mLastColumn + i : body.mFirstColumn - 1 - i;
+            if (column < frozenColumns || column >= getTotalColumnCount()) {
+                break;
             }
-            if (i % mVisibleColumnCount == (mVisibleColumnCount - 1)) {
-                leftOffset = startLeftOffset;
-                topOffset += mDecoratedChildHeight;
-
-            } else {
-                leftOffset += mDecoratedChildWidth;
+            int distance = dx > 0
+                    ? mColumnIndex.offsetOf(column) - (mHorizontalOffset + getHorizontalSpace())
+                    : mHorizontalOffset + mColumnIndex.offsetOf(frozenColumns) - mColumnIndex.offsetOf(column + 1);
+            for (int row = body.mFirstRow; row < body.mLastRow; row++) {
+                prefetchCells(row, column, column + 1, distance, layoutPrefetchRegistry);
+            }
+            for (int row = 0; row < frozenRows; row++) {
+                prefetchCells(row, column, column + 1, distance, layoutPrefetchRegistry);
             }
-
-
         }
-        for (int i = 0; i < viewCache.size(); i++) {
-            final View removingView = viewCache.valueAt(i);
-            pRecycler.recycleView(removingView);
+    }
+
+    private void prefetchCells(int pRow, int pFirstColumn, int pLastColumn, int pDistance,
+                               LayoutPrefetchRegistry pRegistry) {
+        for (int column = pFirstColumn; column < pLastColumn; column++) {
+            int position = positionAt(pRow, column);
+            if (position != RecyclerView.NO_POSITION) {
+                pRegistry.addPosition(position, Math.max(0, pDistance));
+            }
         }
+    }
 
+    @Override
+    public Parcelable onSaveInstanceState() {
+        if (mPendingSavedState != null) {
+            //Not laid out since the restore, keep the restored anchors
+            return new SavedState(mPendingSavedState);
+        }
+        SavedState state = new SavedState();
+        state.mAnchorRow = mRowIndex.indexAt(mVerticalOffset);
+        state.mAnchorRowOffset = mVerticalOffset - mRowIndex.offsetOf(state.mAnchorRow);
+        state.mAnchorColumn = mColumnIndex.indexAt(mHorizontalOffset);
+        state.mAnchorColumnOffset = mHorizontalOffset - mColumnIndex.offsetOf(state.mAnchorColumn);
+        return state;
+    }
 
+    @Override
+    public void onRestoreInstanceState(Parcelable state) {
+        if (state instanceof SavedState) {
+            mPendingSavedState = (SavedState) state;
+            mPendingScrollPosition = RecyclerView.NO_POSITION;
+            mPendingFullLayout = true;
+            requestLayout();
+        }
     }
 
     @Override
@@ -242,41 +1572,197 @@ public class TwoWayGridLayoutManager extends RecyclerView.LayoutManager {
         }
 
         //Set requested position as first visible
-        mFirstVisiblePosition = position;
+        mPendingScrollPosition = position;
+        mPendingSavedState = null;
         //Trigger a new view layout
         requestLayout();
     }
 
+    @Override
+    public void smoothScrollToPosition(RecyclerView recyclerView, RecyclerView.State state, int position) {
+        if (position < 0 || position >= getItemCount()) {
+            Log.e(TAG, "Cannot smooth scroll to " + position + ", item count is " + getItemCount());
+            return;
+        }
+        GridSmoothScroller scroller = new GridSmoothScroller(recyclerView.getContext());
+        scroller.setTargetPosition(position);
+        startSmoothScroll(scroller);
+    }
+
+    /**
+     * Direction from the first visible body cell towards the target, one unit per axis.
+     */
+    public PointF computeScrollVectorForPosition(int pTargetPosition) {
+        if (getChildCount() == 0) {
+            return null;
+        }
+        final GridRegion body = mRegions[REGION_BODY];
+        int rowDirection = Integer.signum(getGlobalRowOfPosition(pTargetPosition) - body.mFirstRow);
+        int columnDirection = Integer.signum(getGlobalColumnOfPosition(pTargetPosition) - body.mFirstColumn);
+        return new PointF(columnDirection, rowDirection);
+    }
+
+    /**
+     * Animates on both axes at once. When the target is several windows away it first jumps
+     * to a window next to it, so only the final stretch is scrolled and bound.
+     */
+    private class GridSmoothScroller extends LinearSmoothScroller {
+        private boolean mJumpChecked;
+
+        GridSmoothScroller(Context pContext) {
+            super(pContext);
+        }
+
+        @Override
+        public PointF computeScrollVectorForPosition(int targetPosition) {
+            return TwoWayGridLayoutManager.this.computeScrollVectorForPosition(targetPosition);
+        }
+
+        @Override
+        protected void onSeekTargetStep(int dx, int dy, RecyclerView.State state, Action action) {
+            if (!mJumpChecked) {
+                mJumpChecked = true;
+                int jumpPosition = getJumpPosition(getTargetPosition());
+                if (jumpPosition != RecyclerView.NO_POSITION) {
+                    action.jumpTo(jumpPosition);
+                    return;
+                }
+            }
+            super.onSeekTargetStep(dx, dy, state, action);
+        }
+
+        @Override
+        public int calculateDxToMakeVisible(View view, int snapPreference) {
+            //Frozen columns cover the leading edge of the body
+            int boxStart = getPaddingLeft() + mColumnIndex.offsetOf(getFrozenColumnCount());
+            int boxEnd = getWidth() - getPaddingRight();
+            return calculateDtToFit(getDecoratedLeft(view), getDecoratedRight(view), boxStart, boxEnd, snapPreference);
+        }
+
+        @Override
+        public int calculateDyToMakeVisible(View view, int snapPreference) {
+            int boxStart = getPaddingTop() + mRowIndex.offsetOf(getFrozenRowCount());
+            int boxEnd = getHeight() - getPaddingBottom();
+            return calculateDtToFit(getDecoratedTop(view), getDecoratedBottom(view), boxStart, boxEnd, snapPreference);
+        }
+    }
+
+    /**
+     * @return position one window short of the target on each far axis, or NO_POSITION if it is close
+     */
+    private int getJumpPosition(int pTargetPosition) {
+        final GridRegion body = mRegions[REGION_BODY];
+        final int windowRows = Math.max(1, body.mLastRow - body.mFirstRow);
+        final int windowColumns = Math.max(1, body.mLastColumn - body.mFirstColumn);
+        final int targetRow = getGlobalRowOfPosition(pTargetPosition);
+        final int targetColumn = getGlobalColumnOfPosition(pTargetPosition);
+        int row = body.mFirstRow;
+        int column = body.mFirstColumn;
+        if (Math.abs(targetRow - row) > SMOOTH_SCROLL_JUMP_WINDOWS * windowRows) {
+            row = targetRow - Integer.signum(targetRow - row) * windowRows;
+        }
+        if (Math.abs(targetColumn - column) > SMOOTH_SCROLL_JUMP_WINDOWS * windowColumns) {
+            column = targetColumn - Integer.signum(targetColumn - column) * windowColumns;
+        }
+        if (row == body.mFirstRow && column == body.mFirstColumn) {
+            return RecyclerView.NO_POSITION;
+        }
+        return positionAt(row, column);
+    }
+
     @Override
     public boolean canScrollHorizontally() {
-        return true;
+        return mGestureTracker.getLockedAxis() != ScrollGestureTracker.AXIS_VERTICAL;
     }
 
     @Override
     public boolean canScrollVertically() {
-        return true;
+        return mGestureTracker.getLockedAxis() != ScrollGestureTracker.AXIS_HORIZONTAL;
+    }
+
+    /**
+     * Scroll metrics are content pixels read from the offset index, so scrollbars and fast
+     * scrollers place their thumbs exactly for any row height or column width.
+     */
+    @Override
+    public int computeVerticalScrollOffset(RecyclerView.State state) {
+        return getItemCount() == 0 ? 0 : mVerticalOffset;
+    }
+
+    @Override
+    public int computeVerticalScrollExtent(RecyclerView.State state) {
+        return getItemCount() == 0 ? 0 : Math.min(getVerticalSpace(), mRowIndex.getTotalSize());
+    }
+
+    @Override
+    public int computeVerticalScrollRange(RecyclerView.State state) {
+        return getItemCount() == 0 ? 0 : mRowIndex.getTotalSize();
+    }
+
+    @Override
+    public int computeHorizontalScrollOffset(RecyclerView.State state) {
+        return getItemCount() == 0 ? 0 : mHorizontalOffset;
+    }
+
+    @Override
+    public int computeHorizontalScrollExtent(RecyclerView.State state) {
+        return getItemCount() == 0 ? 0 : Math.min(getHorizontalSpace(), mColumnIndex.getTotalSize());
+    }
+
+    @Override
+    public int computeHorizontalScrollRange(RecyclerView.State state) {
+        return getItemCount() == 0 ? 0 : mColumnIndex.getTotalSize();
+    }
+
+    private void ensureSpanIndex() {
+        if (mSpanLookup != null) {
+            mSpanIndex.ensurePlaced(getItemCount(), mSpanLookup);
+        }
+    }
+
+    /**
+     * @return position of the item covering the cell, NO_POSITION for cells beyond the data set
+     */
+    private int positionAt(int pRow, int pColumn) {
+        if (mSpanLookup != null) {
+            ensureSpanIndex();
+            return mSpanIndex.positionAt(pRow, pColumn);
+        }
+        int position = pRow * getTotalColumnCount() + pColumn;
+        if (pColumn >= getTotalColumnCount() || position < 0 || position >= getItemCount()) {
+            return RecyclerView.NO_POSITION;
+        }
+        return position;
     }
 
     private int getGlobalColumnOfPosition(int pNextPosition) {
+        if (mSpanLookup != null) {
+            ensureSpanIndex();
+            return mSpanIndex.getColumn(pNextPosition);
+        }
         return pNextPosition % mTotalColumnCount;
     }
 
     private int getGlobalRowOfPosition(int pNextPosition) {
+        if (mSpanLookup != null) {
+            ensureSpanIndex();
+            return mSpanIndex.getRow(pNextPosition);
+        }
         return pNextPosition / mTotalColumnCount;
     }
 
-    private int getVisibleChildCount() {
-        return mVisibleColumnCount * mVisibleRowCount;
+    private int getRowSpanOfPosition(int pPosition) {
+        return mSpanLookup != null ? mSpanIndex.getRowSpan(pPosition) : 1;
     }
 
-    private int positionOfIndex(int pIndex) {
-        int row = pIndex / mVisibleColumnCount;
-        int column = pIndex % mVisibleColumnCount;
-
-        return mFirstVisiblePosition + (row * getTotalColumnCount()) + column;
+    private int getColumnSpanOfPosition(int pPosition) {
+        return mSpanLookup != null ? mSpanIndex.getColumnSpan(pPosition) : 1;
     }
 
     private int getTotalColumnCount() {
+        if (mSpanLookup != null) {
+            return mTotalColumnCount;
+        }
         if (getItemCount() < mTotalColumnCount) {
             return getItemCount();
         }
@@ -292,32 +1778,17 @@ public class TwoWayGridLayoutManager extends RecyclerView.LayoutManager {
         return getHeight() - getPaddingBottom() - getPaddingTop();
     }
 
-    private void updateWindowSizing() {
-        mVisibleColumnCount = (getHorizontalSpace() / mDecoratedChildWidth) + 1;
-        if (getHorizontalSpace() % mDecoratedChildWidth > 0) {
-            mVisibleColumnCount++;
-        }
-
-        //Allow minimum value for small data sets
-        if (mVisibleColumnCount > getTotalColumnCount()) {
-            mVisibleColumnCount = getTotalColumnCount();
-        }
-
-
-        mVisibleRowCount = (getVerticalSpace() / mDecoratedChildHeight) + 1;
-        if (getVerticalSpace() % mDecoratedChildHeight > 0) {
-            mVisibleRowCount++;
-        }
-
-        if (mVisibleRowCount > getTotalRowCount()) {
-            mVisibleRowCount = getTotalRowCount();
-        }
-    }
-
     private int getTotalRowCount() {
         if (getItemCount() == 0 || mTotalColumnCount == 0) {
             return 0;
         }
+        if (mSpanLookup != null) {
+            ensureSpanIndex();
+            return mSpanIndex.getRowCount();
+        }
+        if (mDataSource != null) {
+            return mDataSource.getRowCount();
+        }
         int maxRow = getItemCount() / mTotalColumnCount;
         //Bump the row count if it's not exactly even
         if (getItemCount() % mTotalColumnCount != 0) {
@@ -329,76 +1800,40 @@ public class TwoWayGridLayoutManager extends RecyclerView.LayoutManager {
 
     @Override
     public int scrollVerticallyBy(int dy, RecyclerView.Recycler recycler, RecyclerView.State state) {
-        if (getChildCount() == 0) {
-            return 0;
+        if (mMetrics == null) {
+            return doScrollVerticallyBy(dy, recycler);
         }
+        final long start = System.nanoTime();
+        mMetrics.begin(LayoutMetrics.PASS_SCROLL_VERTICAL);
+        int consumed = doScrollVerticallyBy(dy, recycler);
+        dispatchMetrics(0, consumed, start);
+        return consumed;
+    }
 
-        //Take top measurements from the top-left child
-        final View topView = getChildAt(0);
-        //Take bottom measurements from the bottom-right child.
-        final View bottomView = getChildAt(getChildCount() - 1);
+    private int doScrollVerticallyBy(int dy, RecyclerView.Recycler recycler) {
+        mExpectVerticalStep = false;
+        if (getChildCount() == 0 && !mSnapshotting) {
+            return 0;
+        }
+        trackFlingVelocity(0, dy);
 
         //Optimize the case where the entire data set is too small to scroll
-        int viewSpan = getDecoratedBottom(bottomView) - getDecoratedTop(topView);
-        if (viewSpan < getVerticalSpace()) {
+        int maxOffset = mRowIndex.getTotalSize() - getVerticalSpace();
+        if (maxOffset <= 0) {
             //We cannot scroll in either direction
+            flushPendingScroll(recycler);
             return 0;
         }
 
-        int delta;
-        int maxRowCount = getTotalRowCount();
-        boolean topBoundReached = getFirstVisibleRow() == 0;
-        boolean bottomBoundReached = getLastVisibleRow() >= maxRowCount;
-        if (dy > 0) { // Contents are scrolling up
-            //Check against bottom bound
-            if (bottomBoundReached) {
-                //If we've reached the last row, enforce limits
-                int bottomOffset;
-                if (rowOfIndex(getChildCount() - 1) >= (maxRowCount - 1)) {
-                    //We are truly at the bottom, determine how far
-                    bottomOffset = getVerticalSpace() - getDecoratedBottom(bottomView)
-                            + getPaddingBottom();
-                } else {
-                    /*
-                     * Extra space added to account for allowing bottom space in the grid.
-                     * This occurs when the overlap in the last row is not large enough to
-                     * ensure that at least one element in that row isn't fully recycled.
-                     */
-                    bottomOffset = getVerticalSpace() - (getDecoratedBottom(bottomView)
-                            + mDecoratedChildHeight) + getPaddingBottom();
-                }
-
-                delta = Math.max(-dy, bottomOffset);
-            } else {
-                //No limits while the last row isn't visible
-                delta = -dy;
-            }
-        } else { // Contents are scrolling down
-            //Check against top bound
-            if (topBoundReached) {
-                int topOffset = -getDecoratedTop(topView) + getPaddingTop();
-
-                delta = Math.min(-dy, topOffset);
-            } else {
-                delta = -dy;
-            }
-        }
-
-        offsetChildrenVertical(delta);
-
-        if (dy > 0) {
-            if (getDecoratedBottom(topView) < 0 && !bottomBoundReached) {
-                fillGrid(DIRECTION_DOWN, recycler);
-            } else if (!bottomBoundReached) {
-                fillGrid(DIRECTION_NONE, recycler);
-            }
-        } else {
-            if (getDecoratedTop(topView) > 0 && !topBoundReached) {
-                fillGrid(DIRECTION_UP, recycler);
-            } else if (!topBoundReached) {
-                fillGrid(DIRECTION_NONE, recycler);
-            }
-        }
+        //Clamp against the content edges, a delta spanning several rows is handled in a single step
+        int consumed = Math.max(0, Math.min(mVerticalOffset + dy, maxOffset)) - mVerticalOffset;
+        mVerticalOffset += consumed;
+        //Takes the horizontal half of a diagonal step along, one offset and fill pass for both
+        offsetScrollingChildren(-mPendingScrollDx, -consumed);
+        mPendingScrollDx = 0;
+        mPendingScrollFill = false;
+        mPendingScrollRecycler = null;
+        fillGrid(recycler);
 
         /*
          * Return value determines if a boundary has been reached
@@ -406,87 +1841,258 @@ public class TwoWayGridLayoutManager extends RecyclerView.LayoutManager {
          * match original delta (passed in), RecyclerView will draw
          * an edge effect.
          */
-        return -delta;
+        return consumed;
+    }
+
+    @Override
+    public int scrollHorizontallyBy(int dx, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (mMetrics == null) {
+            return doScrollHorizontallyBy(dx, recycler);
+        }
+        final long start = System.nanoTime();
+        mMetrics.begin(LayoutMetrics.PASS_SCROLL_HORIZONTAL);
+        int consumed = doScrollHorizontallyBy(dx, recycler);
+        dispatchMetrics(consumed, 0, start);
+        return consumed;
     }
 
-    private int rowOfIndex(int childIndex) {
-        int position = positionOfIndex(childIndex);
+    private int doScrollHorizontallyBy(int dx, RecyclerView.Recycler recycler) {
+        final boolean verticalStepFollows = mExpectVerticalStep;
+        mExpectVerticalStep = false;
+        //The vertical half of the last step never came
+        flushPendingScroll(recycler);
+        if (getChildCount() == 0 && !mSnapshotting) {
+            return 0;
+        }
+        trackFlingVelocity(dx, 0);
+
+        int maxOffset = mColumnIndex.getTotalSize() - getHorizontalSpace();
+        if (maxOffset <= 0) {
+            //We cannot scroll in either direction
+            return 0;
+        }
 
-        return position / getTotalColumnCount();
+        int consumed = Math.max(0, Math.min(mHorizontalOffset + dx, maxOffset)) - mHorizontalOffset;
+        mHorizontalOffset += consumed;
+        if (verticalStepFollows) {
+            //RecyclerView calls scrollVerticallyBy next, it fills for both axes
+            mPendingScrollDx = consumed;
+            mPendingScrollFill = true;
+            mPendingScrollRecycler = recycler;
+            return consumed;
+        }
+        offsetScrollingChildren(-consumed, 0);
+        fillGrid(recycler);
+        return consumed;
     }
 
-    private int getFirstVisibleRow() {
-        return (mFirstVisiblePosition / getTotalColumnCount());
+    /**
+     * Estimates the fling velocity from the scroll steps and switches the body between
+     * bound cells and snapshots.
+     */
+    private void trackFlingVelocity(int pDx, int pDy) {
+        if (mSnapshotCache == null) {
+            return;
+        }
+        final long now = System.nanoTime();
+        if (pDx != 0) {
+            mVelocityX = pDx * 1e9f / Math.max(MIN_STEP_NANOS, now - mLastStepNanosX);
+            mLastStepNanosX = now;
+        }
+        if (pDy != 0) {
+            mVelocityY = pDy * 1e9f / Math.max(MIN_STEP_NANOS, now - mLastStepNanosY);
+            mLastStepNanosY = now;
+        }
+        if (mScrollState != RecyclerView.SCROLL_STATE_SETTLING) {
+            return;
+        }
+        final float velocity = Math.max(Math.abs(mVelocityX), Math.abs(mVelocityY));
+        if (!mSnapshotting && velocity > mSnapshotVelocity) {
+            //The bound blocks are about to scroll away, keep them for the way back
+            captureSnapshots();
+            mSnapshotting = true;
+        } else if (mSnapshotting && velocity < mSnapshotVelocity * SNAPSHOT_EXIT_RATIO) {
+            //The fill of this step binds the body again
+            mSnapshotting = false;
+        }
     }
 
-    private int getLastVisibleRow() {
-        return getFirstVisibleRow() + mVisibleRowCount;
+    /**
+     * Leaves snapshot mode outside a scroll step, the body is bound by a layout pass
+     * that keeps the snapshots.
+     */
+    private void exitSnapshots() {
+        mSnapshotting = false;
+        mPendingSnapshotExit = true;
+        requestLayout();
     }
 
-    @Override
-    public int scrollHorizontallyBy(int dx, RecyclerView.Recycler recycler, RecyclerView.State state) {
-        if (getChildCount() == 0) {
-            return 0;
+    /**
+     * Keeps a snapshot of every body block whose cells are all attached and not captured yet.
+     */
+    private void captureSnapshots() {
+        if (mSnapshotCache == null || mSnapshotting || mPreviewScale != 1f || getChildCount() == 0) {
+            return;
+        }
+        final GridRegion body = mRegions[REGION_BODY];
+        final int frozenRows = getFrozenRowCount();
+        final int frozenColumns = getFrozenColumnCount();
+        final int block = SnapshotCache.BLOCK_CELLS;
+        for (int blockRow = body.mFirstRow / block; blockRow * block < body.mLastRow; blockRow++) {
+            final int firstRow = Math.max(frozenRows, blockRow * block);
+            final int lastRow = Math.min(getTotalRowCount(), (blockRow + 1) * block);
+            if (firstRow < body.mFirstRow || lastRow > body.mLastRow) {
+                continue;
+            }
+            for (int blockColumn = body.mFirstColumn / block; blockColumn * block < body.mLastColumn; blockColumn++) {
+                final int firstColumn = Math.max(frozenColumns, blockColumn * block);
+                final int lastColumn = Math.min(getTotalColumnCount(), (blockColumn + 1) * block);
+                if (firstColumn < body.mFirstColumn || lastColumn > body.mLastColumn
+                        || mSnapshotCache.get(blockRow, blockColumn) != null) {
+                    continue;
+                }
+                captureBlock(blockRow, blockColumn);
+            }
         }
-        //Take leftmost measurements from the top-left child
-        final View topView = getChildAt(0);
-        //Take rightmost measurements from the top-right child
-        final View bottomView = getChildAt(mVisibleColumnCount - 1);
+    }
 
-        int viewSpan = getDecoratedRight(bottomView) - getDecoratedLeft(topView);
-        if (viewSpan < getHorizontalSpace()) {
-            //We cannot scroll in either direction
-            return 0;
+    private void captureBlock(int pBlockRow, int pBlockColumn) {
+        getBlockBounds(pBlockRow, pBlockColumn, mSnapshotBounds);
+        final Bitmap snapshot = mSnapshotCache.createBitmap(mSnapshotBounds.width(), mSnapshotBounds.height());
+        if (snapshot == null) {
+            return;
         }
-        int delta;
-        boolean leftBoundReached = getFirstVisibleColumn() == 0;
-        boolean rightBoundReached = getLastVisibleColumn() >= getTotalColumnCount();
-        if (dx > 0) { // Contents are scrolling left
-            //Check right bound
-            if (rightBoundReached) {
-                //If we've reached the last column, enforce limits
-                int rightOffset = getHorizontalSpace() - getDecoratedRight(bottomView) + getPaddingRight();
-                delta = Math.max(-dx, rightOffset);
-            } else {
-                //No limits while the last column isn't visible
-                delta = -dx;
-            }
-        } else { // Contents are scrolling right
-            //Check left bound
-            if (leftBoundReached) {
-                int leftOffset = -getDecoratedLeft(topView) + getPaddingLeft();
-                delta = Math.min(-dx, leftOffset);
-            } else {
-                delta = -dx;
+        final Canvas canvas = new Canvas(snapshot);
+        canvas.scale(snapshot.getWidth() / (float) mSnapshotBounds.width(),
+                snapshot.getHeight() / (float) mSnapshotBounds.height());
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+            LayoutParams lp = (LayoutParams) child.getLayoutParams();
+            if (regionOf(lp.row, lp.column) != REGION_BODY) {
+                continue;
             }
-        }
-        offsetChildrenHorizontal(delta);
-        if (dx > 0) {
-            if (getDecoratedRight(topView) < 0 && !rightBoundReached) {
-                fillGrid(DIRECTION_END, recycler);
-            } else if (!rightBoundReached) {
-                fillGrid(DIRECTION_NONE, recycler);
+            //Placed from the content offsets, a deferred scroll step may not have moved the child yet
+            final int left = mColumnIndex.offsetOf(lp.column);
+            final int top = mRowIndex.offsetOf(lp.row);
+            if (left >= mSnapshotBounds.right || left + getCellWidth(lp) <= mSnapshotBounds.left
+                    || top >= mSnapshotBounds.bottom || top + getCellHeight(lp) <= mSnapshotBounds.top) {
+                continue;
             }
-        } else {
-            if (getDecoratedLeft(topView) > 0 && !leftBoundReached) {
-                fillGrid(DIRECTION_START, recycler);
-            } else if (!leftBoundReached) {
-                fillGrid(DIRECTION_NONE, recycler);
+            canvas.save();
+            //Children smaller than their cell are centered in it
+            canvas.translate(left - mSnapshotBounds.left + child.getLeft() - getDecoratedLeft(child)
+                            + (getCellWidth(lp) - getDecoratedRight(child) + getDecoratedLeft(child)) / 2,
+                    top - mSnapshotBounds.top + child.getTop() - getDecoratedTop(child)
+                            + (getCellHeight(lp) - getDecoratedBottom(child) + getDecoratedTop(child)) / 2);
+            child.draw(canvas);
+            canvas.restore();
+        }
+        mSnapshotCache.put(pBlockRow, pBlockColumn, snapshot);
+    }
+
+    private void drawSnapshots(Canvas pCanvas) {
+        if (mSnapshotCache == null) {
+            return;
+        }
+        computeBodyWindow();
+        final int block = SnapshotCache.BLOCK_CELLS;
+        pCanvas.save();
+        //Frozen cells draw over the body anyway, only the scrolling part shows snapshots
+        pCanvas.clipRect(getPaddingLeft() + mColumnIndex.offsetOf(getFrozenColumnCount()),
+                getPaddingTop() + mRowIndex.offsetOf(getFrozenRowCount()),
+                getWidth() - getPaddingRight(), getHeight() - getPaddingBottom());
+        for (int blockRow = mBodyWindow[0] / block; blockRow * block < mBodyWindow[1]; blockRow++) {
+            for (int blockColumn = mBodyWindow[2] / block; blockColumn * block < mBodyWindow[3]; blockColumn++) {
+                final Bitmap snapshot = mSnapshotCache.get(blockRow, blockColumn);
+                if (snapshot == null) {
+                    continue;
+                }
+                getBlockBounds(blockRow, blockColumn, mSnapshotBounds);
+                mSnapshotBounds.offset(getPaddingLeft() - mHorizontalOffset, getPaddingTop() - mVerticalOffset);
+                pCanvas.drawBitmap(snapshot, null, mSnapshotBounds, mSnapshotPaint);
             }
         }
-        return -delta;
+        pCanvas.restore();
+    }
+
+    /**
+     * Content bounds of a block, clipped to the grid.
+     */
+    private void getBlockBounds(int pBlockRow, int pBlockColumn, Rect pOut) {
+        final int firstRow = pBlockRow * SnapshotCache.BLOCK_CELLS;
+        final int firstColumn = pBlockColumn * SnapshotCache.BLOCK_CELLS;
+        pOut.set(mColumnIndex.offsetOf(firstColumn), mRowIndex.offsetOf(firstRow),
+                mColumnIndex.offsetOf(Math.min(firstColumn + SnapshotCache.BLOCK_CELLS, mColumnIndex.getCount())),
+                mRowIndex.offsetOf(Math.min(firstRow + SnapshotCache.BLOCK_CELLS, mRowIndex.getCount())));
     }
 
-    private void fillGrid(int direction, RecyclerView.Recycler recycler) {
-        fillGrid(direction, 0, 0, recycler);
+    private void flushPendingScroll(RecyclerView.Recycler pRecycler) {
+        if (!mPendingScrollFill) {
+            return;
+        }
+        offsetScrollingChildren(-mPendingScrollDx, 0);
+        mPendingScrollDx = 0;
+        mPendingScrollFill = false;
+        mPendingScrollRecycler = null;
+        fillGrid(pRecycler);
     }
 
-    private int getLastVisibleColumn() {
-        return getFirstVisibleColumn() + mVisibleColumnCount;
+    private void dispatchMetrics(int pDx, int pDy, long pStartNanos) {
+        final LayoutMetrics metrics = mMetrics;
+        metrics.finish(pDx, pDy, getChildCount(), System.nanoTime() - pStartNanos);
+        mMetricsListener.onLayoutMetrics(metrics);
     }
 
-    private int getFirstVisibleColumn() {
-        return (mFirstVisiblePosition % getTotalColumnCount());
+    /**
+     * First visible row and column with the pixel offsets into them.
+     */
+    public static class SavedState implements Parcelable {
+        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+
+        int mAnchorRow;
+        int mAnchorRowOffset;
+        int mAnchorColumn;
+        int mAnchorColumnOffset;
+
+        public SavedState() {
+        }
+
+        SavedState(Parcel in) {
+            mAnchorRow = in.readInt();
+            mAnchorRowOffset = in.readInt();
+            mAnchorColumn = in.readInt();
+            mAnchorColumnOffset = in.readInt();
+        }
+
+        public SavedState(SavedState other) {
+            mAnchorRow = other.mAnchorRow;
+            mAnchorRowOffset = other.mAnchorRowOffset;
+            mAnchorColumn = other.mAnchorColumn;
+            mAnchorColumnOffset = other.mAnchorColumnOffset;
+        }
+
+        @Override
+        public int describeContents() {
+            return 0;
+        }
+
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            dest.writeInt(mAnchorRow);
+            dest.writeInt(mAnchorRowOffset);
+            dest.writeInt(mAnchorColumn);
+            dest.writeInt(mAnchorColumnOffset);
+        }
     }
 
     public static class LayoutParams extends RecyclerView.LayoutParams {
@@ -495,6 +2101,9 @@ public class TwoWayGridLayoutManager extends RecyclerView.LayoutManager {
         public int row;
         //Current column in the grid
         public int column;
+        //Rows and columns covered by the cell
+        public int rowSpan = 1;
+        public int columnSpan = 1;
 
         public LayoutParams(Context c, AttributeSet attrs) {
             super(c, attrs);
@@ -515,5 +2124,9 @@ public class TwoWayGridLayoutManager extends RecyclerView.LayoutManager {
         public LayoutParams(RecyclerView.LayoutParams source) {
             super(source);
         }
+
+        boolean covers(int pRow, int pColumn) {
+            return pRow >= row && pRow < row + rowSpan && pColumn >= column && pColumn < column + columnSpan;
+        }
     }
 }
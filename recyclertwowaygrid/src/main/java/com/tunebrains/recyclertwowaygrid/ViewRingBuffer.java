@@ -0,0 +1,63 @@
+package com.tunebrains.recyclertwowaygrid;
+
+import android.view.View;
+
+import java.util.Arrays;
+
+/**
+ * Attached views of the visible window, indexed by global row and column.
+ * Slots wrap around so scrolling by a row or column reuses the slots of the
+ * leaving edge and never allocates once the capacity fits the window.
+ */
+final class ViewRingBuffer {
+    private View[] mSlots = new View[0];
+    private int mRowCapacity;
+    private int mColumnCapacity;
+
+    /**
+     * Grows the buffer to hold at least the given window.
+     *
+     * @return true if the buffer was reallocated and stored views were dropped
+     */
+    boolean ensureCapacity(int pRowCount, int pColumnCount) {
+        if (pRowCount <= mRowCapacity && pColumnCount <= mColumnCapacity) {
+            return false;
+        }
+        mRowCapacity = Math.max(pRowCount, mRowCapacity);
+        mColumnCapacity = Math.max(pColumnCount, mColumnCapacity);
+        mSlots = new View[mRowCapacity * mColumnCapacity];
+        return true;
+    }
+
+    View get(int pRow, int pColumn) {
+        if (mSlots.length == 0) {
+            return null;
+        }
+        return mSlots[slotOf(pRow, pColumn)];
+    }
+
+    void put(int pRow, int pColumn, View pView) {
+        mSlots[slotOf(pRow, pColumn)] = pView;
+    }
+
+    /**
+     * Clears the slot and returns the view that occupied it, if any.
+     */
+    View remove(int pRow, int pColumn) {
+        if (mSlots.length == 0) {
+            return null;
+        }
+        int slot = slotOf(pRow, pColumn);
+        View view = mSlots[slot];
+        mSlots[slot] = null;
+        return view;
+    }
+
+    void clear() {
+        Arrays.fill(mSlots, null);
+    }
+
+    private int slotOf(int pRow, int pColumn) {
+        return (pRow % mRowCapacity) * mColumnCapacity + (pColumn % mColumnCapacity);
+    }
+}